@@ -0,0 +1,84 @@
+package qabilling.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import qabilling.core.dto.BalanceDto;
+import qabilling.core.dto.CounterDto;
+import qabilling.core.dto.ProfileDto;
+import qabilling.testdata.MsisdnAllocator;
+import qabilling.testdata.TestDataGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Генерация тестовых данных (TestDataGenerator)
+ *
+ * MSISDN-бенчмарки идут пачками по BATCH вызовов на итерацию (время на пачку, мс),
+ * а перед итерацией общий аллокатор сбрасывается: за секунду в режиме Throughput
+ * пространство 10^7 номеров прошло бы несколько раз, и мерился бы второй круг, которого
+ * в прогоне тестов не бывает. Даже в 4 потока пачка (4 × BATCH) меньше 10^7.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DataGenerationBenchmark {
+
+    private static final int BATCH = 2_000_000;
+
+    @Setup(Level.Iteration)
+    public void freshMsisdnSpace() {
+        MsisdnAllocator.resetShared();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 5, batchSize = BATCH)
+    public String msisdnValid() {
+        return TestDataGenerator.Msisdn.valid();
+    }
+
+    /** Уникальные номера из параллельных потоков (полосы аллокатора без общей блокировки) */
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 5, batchSize = BATCH)
+    public String msisdnValidContended() {
+        return TestDataGenerator.Msisdn.valid();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 5, batchSize = BATCH)
+    public ProfileDto profileValid() {
+        return TestDataGenerator.Profile.valid();
+    }
+
+    @Benchmark
+    public BalanceDto balanceValid() {
+        return TestDataGenerator.Balance.valid();
+    }
+
+    @Benchmark
+    public CounterDto counterValid() {
+        return TestDataGenerator.Counter.valid();
+    }
+}
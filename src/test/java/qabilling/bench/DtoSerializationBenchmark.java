@@ -0,0 +1,74 @@
+package qabilling.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import qabilling.core.dto.BalanceDto;
+import qabilling.core.dto.CounterDto;
+import qabilling.core.dto.ProfileDto;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Сериализация DTO в JSON
+ *
+ * toJson() - строка (обёртка), writeTo() - запись в переиспользуемый буфер без аллокаций.
+ * Данные фиксированы, чтобы результаты разных прогонов были сравнимы.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DtoSerializationBenchmark {
+
+    private final ProfileDto profile = new ProfileDto("996801234567", 1, 3);
+    private final BalanceDto balance = new BalanceDto(125.75);
+    private final CounterDto counter = new CounterDto(1, true, 1000, 3600, 100,
+        "2025-10-01T00:00:00", "2025-10-31T23:59:59");
+    private final ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    @Benchmark
+    public String profileToJson() {
+        return profile.toJson();
+    }
+
+    @Benchmark
+    public String balanceToJson() {
+        return balance.toJson();
+    }
+
+    @Benchmark
+    public String counterToJson() {
+        return counter.toJson();
+    }
+
+    @Benchmark
+    public int profileWriteTo() {
+        buffer.clear();
+        profile.writeTo(buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int balanceWriteTo() {
+        buffer.clear();
+        balance.writeTo(buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int counterWriteTo() {
+        buffer.clear();
+        counter.writeTo(buffer);
+        return buffer.position();
+    }
+}
@@ -0,0 +1,60 @@
+package qabilling.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import qabilling.core.assertions.ResponseSchemas;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Проверка ответа по JSON Schema: скомпилированная схема из реестра против сборки на каждый ответ
+ *
+ * compileEachTime - то, во что обошлась бы схема, читаемая заново при каждом вызове
+ * (как matchesJsonSchemaInClasspath в каждом тесте).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SchemaValidationBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonNode profile;
+    private JsonNode schema;
+
+    @Setup
+    public void setUp() throws IOException {
+        profile = MAPPER.readTree("{\"code\":\"OK\",\"content\":{\"id\":1,\"msisdn\":\"996801000001\","
+            + "\"user\":{\"id\":1},\"pricePlan\":{\"id\":3}}}");
+        schema = MAPPER.readTree("{\"type\":\"object\",\"required\":[\"content\"],\"properties\":"
+            + "{\"code\":{\"type\":\"string\"},\"content\":{\"$ref\":\"resource:/schemas/profile.json#\"}}}");
+        ResponseSchemas.check("GET", "/api/admin/profile/1", 200, profile);
+    }
+
+    @Benchmark
+    public JsonNode precompiled() {
+        ResponseSchemas.check("GET", "/api/admin/profile/1", 200, profile);
+        return profile;
+    }
+
+    @Benchmark
+    public boolean compileEachTime() throws ProcessingException {
+        return JsonSchemaFactory.byDefault().getJsonSchema(schema).validInstance(profile);
+    }
+}
@@ -0,0 +1,47 @@
+package qabilling.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import qabilling.core.ApiConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Получение токена из кэша (ApiConfig.getToken)
+ *
+ * Логин выполняется один раз в @Setup против встроенного сервера,
+ * дальше меряется только чтение из кэша - в один и в 4 потока.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Dqabilling.baseUrl=embedded")
+@State(Scope.Benchmark)
+public class TokenLookupBenchmark {
+
+    @Setup
+    public void login() {
+        ApiConfig.getToken();
+    }
+
+    @Benchmark
+    public String getToken() {
+        return ApiConfig.getToken();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getTokenContended() {
+        return ApiConfig.getToken();
+    }
+}
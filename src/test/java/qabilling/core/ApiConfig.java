@@ -1,50 +1,128 @@
 package qabilling.core;
 
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import qabilling.core.assertions.ResponseSchemas;
+import qabilling.core.cassette.Cassette;
+import qabilling.core.http.HttpPool;
+import qabilling.core.logging.TestLog;
+import qabilling.core.metrics.ApiMetrics;
+import qabilling.core.server.EmbeddedBillingServer;
 import qabilling.core.utils.AuthUtils;
+import qabilling.core.utils.TokenCache;
+
+import java.time.Duration;
 
 /**
  * ⚙️ КОНФИГУРАЦИЯ API
  * 
  * Централизованное хранилище:
- * - URL базы API
+ * - URL базы API (переопределяется -Dqabilling.baseUrl или API_BASE_URL)
  * - Credentials для авторизации
- * - Content-Type
- * - ThreadLocal для управления токенами (thread-safe)
+ * - Content-Type и таймаут ответа
+ * - Общий на процесс кэш токена ({@link TokenCache}, single-flight логин)
+ * - Спецификацию RestAssured запроса со всеми фильтрами ({@link #requestSpec()})
  */
 public class ApiConfig {
     
-    public static final String BASE_URL = "http://195.38.164.168:7173";
+    /** Стенд по умолчанию */
+    public static final String DEFAULT_BASE_URL = "http://195.38.164.168:7173";
+    
+    /** Системное свойство для переопределения URL ("embedded" = встроенный сервер) */
+    public static final String BASE_URL_PROPERTY = "qabilling.baseUrl";
+    
+    public static final String BASE_URL = resolveBaseUrl();
+    
+    /**
+     * Цель прогона для истории и отчётов: "embedded" или URL стенда
+     * (у встроенного сервера порт случайный - в ключ он не идёт)
+     */
+    public static final String TARGET = isEmbedded() ? "embedded" : BASE_URL;
     public static final String CONTENT_TYPE = "application/json";
+    
+    /** Сколько ждать байт ответа (-Dqabilling.http.readTimeoutMs, то же свойство, что у HttpPool) */
+    public static final Duration READ_TIMEOUT =
+        Duration.ofMillis(Integer.getInteger("qabilling.http.readTimeoutMs", 30_000));
     public static final String USERNAME = "superuser";
     public static final String PASSWORD = "Admin123!@#";
     
-    // ✅ ThreadLocal = каждый тест-поток имеет свой токен (thread-safe)
-    private static final ThreadLocal<String> cachedToken = new ThreadLocal<>();
+    // ✅ Один токен на все потоки: обновляется в фоне за N секунд до exp
+    private static final TokenCache tokenCache = new TokenCache(
+        AuthUtils::getFreshToken,
+        Duration.ofSeconds(Long.getLong("qabilling.token.refreshAheadSeconds", 60)));
+    
+    /**
+     * Общий пул + фильтры в порядке снаружи внутрь: задержки по эндпоинтам (ApiMetrics),
+     * JSON Schema ответа, лог теста в памяти (TestLog), кассета, дочитывание тела (соединение в пул).
+     * Держатель - отдельный класс: фильтры (Cassette) сами читают ApiConfig при инициализации
+     */
+    private static final class RequestSpecHolder {
+        static final RequestSpecification SPEC = new RequestSpecBuilder()
+            .addRequestSpecification(HttpPool.spec())
+            .addFilter(ApiMetrics.filter())
+            .addFilter(ResponseSchemas.filter())
+            .addFilter(TestLog.filter())
+            .addFilter(Cassette.filter())
+            .addFilter(HttpPool.drain())
+            .build();
+    }
+    
+    /**
+     * Определить URL API: системное свойство → переменная окружения → стенд
+     * Значение "embedded" поднимает встроенный сервер в этой JVM
+     */
+    private static String resolveBaseUrl() {
+        String configured = System.getProperty(BASE_URL_PROPERTY, System.getenv("API_BASE_URL"));
+        if (configured == null || configured.isBlank()) {
+            return DEFAULT_BASE_URL;
+        }
+        if (isEmbedded()) {
+            return EmbeddedBillingServer.shared().getBaseUrl();
+        }
+        return configured.endsWith("/") ? configured.substring(0, configured.length() - 1) : configured;
+    }
+    
+    /**
+     * Идут ли запросы во встроенный сервер этой JVM (-Dqabilling.baseUrl=embedded)
+     */
+    public static boolean isEmbedded() {
+        return "embedded".equalsIgnoreCase(System.getProperty(BASE_URL_PROPERTY, System.getenv("API_BASE_URL")));
+    }
+    
+    /**
+     * Спецификация для всех RestAssured запросов к API (тесты, фикстуры, логин)
+     * Используй: given(ApiConfig.requestSpec()).header(...).get(...)
+     */
+    public static RequestSpecification requestSpec() {
+        return RequestSpecHolder.SPEC;
+    }
     
     /**
      * Получить токен авторизации (с кешированием)
      * Если уже есть - вернёт его, если нет - получит новый
      */
     public static String getToken() {
-        String token = cachedToken.get();
-        if (token == null) {
-            token = AuthUtils.getFreshToken();
-            cachedToken.set(token);
-        }
-        return token;
+        return tokenCache.get();
     }
     
     /**
      * Сбросить токен (если он устарел)
      */
     public static void resetToken() {
-        cachedToken.remove();
+        tokenCache.invalidate();
     }
     
     /**
      * Проверить есть ли токен
      */
     public static boolean hasToken() {
-        return cachedToken.get() != null;
+        return tokenCache.hasToken();
+    }
+    
+    /**
+     * Счётчики кэша токена (hit/miss/fetch/refresh)
+     */
+    public static TokenCache.Stats tokenStats() {
+        return tokenCache.stats();
     }
 }
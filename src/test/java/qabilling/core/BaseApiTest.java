@@ -1,23 +1,53 @@
 package qabilling.core;
 
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import qabilling.core.dto.ProfileDto;
+import qabilling.core.fixtures.CleanupRegistry;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.fixtures.SubscriberFixtures;
+import qabilling.core.fixtures.SubscriberPool;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.core.http.HttpPool;
+import qabilling.core.logging.TestLogExtension;
+import qabilling.testdata.TestDataGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 📚 БАЗОВЫЙ КЛАСС ДЛЯ ВСЕХ ТЕСТОВ
- * 
+ *
  * Содержит:
- * - Логирование (автоматически показывает имя подкласса)
+ * - Логирование (автоматически показывает имя подкласса); DEBUG строки и запросы теста
+ *   держатся в памяти и попадают в logs/failures только если тест упал (TestLogExtension)
  * - Получение заголовка авторизации (Bearer токен)
- * 
+ * - Общую спецификацию запроса с пулом keep-alive соединений, замером задержек
+ *   и проверкой каждого ответа по JSON Schema эндпоинта (api())
+ * - Неблокирующий клиент для параллельных сценариев (async())
+ * - Изолированные фикстуры: свой профиль/баланс/счётчик на каждый тест
+ * - Регистрацию созданных тестом профилей на удаление (cleanupCreatedProfile())
+ *
+ * Тесты запускаются параллельно (junit-platform.properties), поэтому
+ * не используй общие ID вроде 1 для изменяющих запросов - бери leaseSubscriber().
+ *
  * Используй:
  *   public class MyTest extends BaseApiTest { ... }
  */
+@ExtendWith(TestLogExtension.class)
 public abstract class BaseApiTest {
-    
+
     // ✅ Instance logger (показывает правильное имя класса, не BaseApiTest)
     protected final Logger log = LoggerFactory.getLogger(getClass());
-    
+
+    // JUnit создаёт новый экземпляр на каждый тест - список принадлежит одному тесту
+    private final List<Subscriber> leased = new ArrayList<>();
+
     /**
      * Получить готовый заголовок авторизации
      * @return "Bearer <token>"
@@ -25,4 +55,68 @@ public abstract class BaseApiTest {
     protected String getAuthHeader() {
         return "Bearer " + ApiConfig.getToken();
     }
+
+    /**
+     * Спецификация с общим пулом соединений, таймаутами и всеми фильтрами ({@link ApiConfig#requestSpec()})
+     * Используй: given(api()).header(...).get(...)
+     */
+    protected RequestSpecification api() {
+        return ApiConfig.requestSpec();
+    }
+
+    /**
+     * Неблокирующий клиент: независимые сценарии-цепочки идут одновременно
+     * Используй: async().getProfile(id).thenApply(r -> r.expectStatus(200)).join()
+     */
+    protected AsyncBillingClient async() {
+        return AsyncBillingClient.shared();
+    }
+
+    /**
+     * Создать абонента только для этого теста (удаляется после теста)
+     * @return ID профиля, баланса и счётчика
+     */
+    protected Subscriber leaseSubscriber() {
+        // Готовый абонент из фонового пула - создание профиля не на критическом пути теста
+        Subscriber subscriber = SubscriberPool.isEnabled()
+            ? SubscriberPool.shared().lease()
+            : SubscriberFixtures.create(TestDataGenerator.Profile.valid());
+        leased.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Создать абонента с заданными данными только для этого теста
+     */
+    protected Subscriber leaseSubscriber(ProfileDto profile) {
+        Subscriber subscriber = SubscriberFixtures.create(profile);
+        leased.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Отдать профиль из ответа на /profile/create на фоновое удаление (если он создался)
+     * Вызывай до проверок ответа - упавшая проверка не должна оставлять мусор
+     */
+    protected Response cleanupCreatedProfile(Response response) {
+        if (response.getStatusCode() < 300 && response.path("content.id") instanceof Integer profileId) {
+            CleanupRegistry.shared().registerProfile(profileId);
+        }
+        return response;
+    }
+
+    @AfterEach
+    void releaseLeasedSubscribers() {
+        // Удаление идёт в фоне (CleanupRegistry) - не на критическом пути следующего теста
+        for (Subscriber subscriber : leased) {
+            CleanupRegistry.shared().registerProfile(subscriber.profileId());
+        }
+        leased.clear();
+    }
+
+    @AfterAll
+    static void logConnectionPool() {
+        // Видно в отчёте, переиспользуются ли соединения (reuse) и хватает ли пула (waits)
+        LoggerFactory.getLogger(BaseApiTest.class).info("HTTP пул: {}", HttpPool.stats());
+    }
 }
@@ -0,0 +1,145 @@
+package qabilling.core.assertions;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 🧩 Ожидаемая форма JSON объекта для потоковой проверки
+ *
+ * Проверяется прямо по токенам {@link JsonParser}, без построения дерева:
+ * обязательные поля, их типы, шаблон строк и вложенные объекты.
+ * Лишние поля допускаются и пропускаются через skipChildren().
+ *
+ * Используй:
+ *   JsonShape profile = JsonShape.object()
+ *       .integer("id")
+ *       .string("msisdn", Pattern.compile("^99680\\d{7}$"))
+ *       .object("user", JsonShape.object().integer("id"));
+ */
+public final class JsonShape {
+
+    /** Допустимые типы значений поля */
+    public enum Kind { INTEGER, NUMBER, STRING, BOOLEAN, OBJECT, ARRAY }
+
+    private record Field(String name, Kind kind, Pattern pattern, JsonShape nested) { }
+
+    private final List<Field> fields = new ArrayList<>();
+
+    private JsonShape() {
+    }
+
+    public static JsonShape object() {
+        return new JsonShape();
+    }
+
+    public JsonShape integer(String name) {
+        return field(new Field(name, Kind.INTEGER, null, null));
+    }
+
+    /** Целое или дробное число */
+    public JsonShape number(String name) {
+        return field(new Field(name, Kind.NUMBER, null, null));
+    }
+
+    public JsonShape string(String name) {
+        return field(new Field(name, Kind.STRING, null, null));
+    }
+
+    /** Строка, целиком совпадающая с шаблоном */
+    public JsonShape string(String name, Pattern pattern) {
+        return field(new Field(name, Kind.STRING, pattern, null));
+    }
+
+    public JsonShape bool(String name) {
+        return field(new Field(name, Kind.BOOLEAN, null, null));
+    }
+
+    /** Любой вложенный объект */
+    public JsonShape object(String name) {
+        return field(new Field(name, Kind.OBJECT, null, null));
+    }
+
+    /** Вложенный объект заданной формы */
+    public JsonShape object(String name, JsonShape nested) {
+        return field(new Field(name, Kind.OBJECT, null, nested));
+    }
+
+    public JsonShape array(String name) {
+        return field(new Field(name, Kind.ARRAY, null, null));
+    }
+
+    private JsonShape field(Field field) {
+        fields.add(field);
+        return this;
+    }
+
+    /**
+     * Проверить объект, на START_OBJECT которого стоит парсер
+     * После вызова парсер стоит на END_OBJECT этого объекта (если форма совпала).
+     *
+     * @return null если форма совпала, иначе описание первого нарушения
+     */
+    String violation(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return "ожидался объект, а пришло " + parser.currentToken();
+        }
+        boolean[] seen = new boolean[fields.size()];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            int index = indexOf(name);
+            if (index < 0) {
+                parser.skipChildren();
+                continue;
+            }
+            seen[index] = true;
+            String problem = check(fields.get(index), value, parser);
+            if (problem != null) {
+                return problem;
+            }
+        }
+        for (int i = 0; i < seen.length; i++) {
+            if (!seen[i]) {
+                return "нет обязательного поля '" + fields.get(i).name() + "'";
+            }
+        }
+        return null;
+    }
+
+    private String check(Field field, JsonToken value, JsonParser parser) throws IOException {
+        boolean matches = switch (field.kind()) {
+            case INTEGER -> value == JsonToken.VALUE_NUMBER_INT;
+            case NUMBER -> value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT;
+            case STRING -> value == JsonToken.VALUE_STRING;
+            case BOOLEAN -> value == JsonToken.VALUE_TRUE || value == JsonToken.VALUE_FALSE;
+            case OBJECT -> value == JsonToken.START_OBJECT;
+            case ARRAY -> value == JsonToken.START_ARRAY;
+        };
+        if (!matches) {
+            return "поле '" + field.name() + "' должно быть " + field.kind() + ", а пришло " + value;
+        }
+        if (field.pattern() != null && !field.pattern().matcher(parser.getText()).matches()) {
+            return "поле '" + field.name() + "' = '" + parser.getText() + "' не совпадает с " + field.pattern();
+        }
+        if (field.nested() != null) {
+            String nested = field.nested().violation(parser);
+            return nested == null ? null : field.name() + ": " + nested;
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,214 @@
+package qabilling.core.assertions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import qabilling.core.metrics.EndpointTemplates;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 📐 Проверка каждого успешного ответа по JSON Schema его эндпоинта
+ *
+ * Реестр: шаблон эндпоинта ({@link EndpointTemplates}) → схема содержимого из
+ * src/test/resources/schemas. Ответ в обёртке {"code": ..., "content": ...} -
+ * обёртку реестр строит сам, файлы описывают только сущности.
+ * - схемы читаются и компилируются один раз на JVM (при первом ответе эндпоинта) и кэшируются
+ * - проверяются только 2xx: тела ошибок у стенда нестабильны (см. API_ISSUES_REPORT.md)
+ * - тела больше qabilling.schema.maxBytes (1 МБ) пропускаются - большие списки проверяет
+ *   {@link StreamingListAssert} без построения дерева
+ * - выключить: -Dqabilling.schema.enabled=false
+ *
+ * Подключение: RestAssured - {@link #filter()} (в BaseApiTest.api()), AsyncBillingClient - {@link #check},
+ * StreamingListAssert - {@link #checkElement} для каждого элемента списка.
+ */
+public final class ResponseSchemas {
+
+    private static final boolean ENABLED =
+        Boolean.parseBoolean(System.getProperty("qabilling.schema.enabled", "true"));
+    private static final int MAX_BYTES = Integer.getInteger("qabilling.schema.maxBytes", 1024 * 1024);
+    private static final int MAX_REPORTED_ERRORS = 5;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final JsonSchemaFactory FACTORY = JsonSchemaFactory.byDefault();
+
+    /** Шаблон эндпоинта → как выглядит content */
+    private static final Map<String, JsonNode> CONTENT = Map.ofEntries(
+        Map.entry("POST /api/auth/sign_in", ref("token")),
+        Map.entry("POST /api/admin/profile/create", ref("profile")),
+        Map.entry("GET /api/admin/profile/{id}", ref("profile")),
+        Map.entry("GET /api/admin/profile/getByMsisdn/{msisdn}", ref("profile")),
+        Map.entry("PUT /api/admin/profile/update/{id}", ref("profile")),
+        Map.entry("GET /api/admin/profile/all", arrayOf("profile")),
+        Map.entry("GET /api/balance/{id}", ref("balance")),
+        Map.entry("PUT /api/balance/update/{id}", ref("balance")),
+        Map.entry("GET /api/balance/all", arrayOf("balance")),
+        Map.entry("GET /api/counter/{id}", ref("counter")),
+        Map.entry("GET /api/counter/active", arrayOf("counter")),
+        Map.entry("GET /api/admin/counter/all-active", arrayOf("counter")));
+
+    private static final ConcurrentMap<String, JsonSchema> COMPILED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, JsonSchema> ELEMENTS = new ConcurrentHashMap<>();
+    private static final Filter FILTER = new SchemaFilter();
+
+    private ResponseSchemas() {
+    }
+
+    /** RestAssured фильтр: проверяет 2xx ответ по схеме эндпоинта */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Есть ли схема для эндпоинта (шаблон вида "GET /api/balance/{id}")
+     */
+    public static boolean covers(String template) {
+        return CONTENT.containsKey(template);
+    }
+
+    /**
+     * Проверить тело ответа
+     * @throws AssertionError если ответ не соответствует схеме
+     */
+    public static void check(String method, String uri, int status, JsonNode body) {
+        if (!ENABLED || status < 200 || status >= 300) {
+            return;
+        }
+        String template = EndpointTemplates.of(method, uri);
+        JsonSchema schema = schemaFor(template);
+        if (schema == null) {
+            return;
+        }
+        ProcessingReport report;
+        try {
+            report = schema.validate(body);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Схема " + template + " не применима: " + e.getMessage(), e);
+        }
+        if (!report.isSuccess()) {
+            throw new AssertionError("Ответ " + template + " (HTTP " + status + ") не соответствует схеме:"
+                + describe(report));
+        }
+    }
+
+    /**
+     * Есть ли у списочного эндпоинта схема элемента (и включена ли проверка)
+     */
+    public static boolean coversElements(String template) {
+        return ENABLED && CONTENT.containsKey(template) && CONTENT.get(template).has("items");
+    }
+
+    /**
+     * Проверить один элемент списка по схеме сущности: список целиком в дерево не читается
+     * @param index номер элемента в content (для сообщения)
+     * @throws AssertionError если элемент не соответствует схеме
+     */
+    public static void checkElement(String template, long index, JsonNode element) {
+        JsonNode items = CONTENT.get(template).get("items");
+        JsonSchema schema = ELEMENTS.computeIfAbsent(template, ignored -> compileElement(items));
+        ProcessingReport report;
+        try {
+            report = schema.validate(element);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Схема элемента " + template + " не применима: " + e.getMessage(), e);
+        }
+        if (!report.isSuccess()) {
+            throw new AssertionError("Элемент content[" + index + "] ответа " + template + " не соответствует схеме:"
+                + describe(report));
+        }
+    }
+
+    /**
+     * Скомпилированная схема эндпоинта (null - эндпоинт не в реестре)
+     */
+    static JsonSchema schemaFor(String template) {
+        JsonNode content = CONTENT.get(template);
+        return content == null ? null : COMPILED.computeIfAbsent(template, ignored -> compile(content));
+    }
+
+    private static JsonSchema compile(JsonNode content) {
+        ObjectNode envelope = JsonNodeFactory.instance.objectNode().put("type", "object");
+        envelope.putArray("required").add("content");
+        ObjectNode properties = envelope.putObject("properties");
+        properties.putObject("code").put("type", "string");
+        properties.set("content", content);
+        try {
+            return FACTORY.getJsonSchema(envelope);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Не удалось скомпилировать схему " + content, e);
+        }
+    }
+
+    private static JsonSchema compileElement(JsonNode items) {
+        try {
+            return FACTORY.getJsonSchema(items);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Не удалось скомпилировать схему " + items, e);
+        }
+    }
+
+    private static JsonNode ref(String entity) {
+        return JsonNodeFactory.instance.objectNode().put("$ref", "resource:/schemas/" + entity + ".json#");
+    }
+
+    private static JsonNode arrayOf(String entity) {
+        ObjectNode array = JsonNodeFactory.instance.objectNode().put("type", "array");
+        array.set("items", ref(entity));
+        return array;
+    }
+
+    private static String describe(ProcessingReport report) {
+        StringBuilder text = new StringBuilder();
+        int shown = 0;
+        for (ProcessingMessage message : report) {
+            if (shown++ == MAX_REPORTED_ERRORS) {
+                text.append(System.lineSeparator()).append("  ...");
+                break;
+            }
+            String pointer = message.asJson().path("instance").path("pointer").asText();
+            text.append(System.lineSeparator()).append("  ").append(pointer.isEmpty() ? "/" : pointer)
+                .append(": ").append(message.getMessage());
+        }
+        return text.toString();
+    }
+
+    private static final class SchemaFilter implements Filter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification request,
+                               FilterableResponseSpecification response, FilterContext context) {
+            Response result = context.next(request, response);
+            int status = result.getStatusCode();
+            if (!ENABLED || status < 200 || status >= 300 || !covers(EndpointTemplates.of(request.getMethod(), request.getURI()))) {
+                return result;
+            }
+            byte[] body = result.asByteArray();
+            if (body.length > MAX_BYTES) {
+                return result;
+            }
+            JsonNode json;
+            try {
+                json = JSON.readTree(body);
+            } catch (IOException e) {
+                throw new AssertionError("Ответ " + request.getMethod() + " " + request.getURI() + " - не JSON: " + e.getMessage());
+            }
+            check(request.getMethod(), request.getURI(), status, json == null ? MissingNode.getInstance() : json);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package qabilling.core.assertions;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import qabilling.core.ApiConfig;
+import qabilling.core.cassette.Interaction;
+import qabilling.core.http.HttpPool;
+import qabilling.core.http.ObservedExchange;
+import qabilling.core.logging.TestLog;
+import qabilling.core.metrics.EndpointTemplates;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 🌊 Потоковая проверка больших списков ({"code": "OK", "content": [...]})
+ *
+ * Ответ читается pull-парсером по мере прихода байт: элементы content
+ * считаются и проверяются по одному, тело целиком в памяти не держится.
+ * На первом нарушении проверка падает и обрывает соединение,
+ * не дочитывая остаток ответа.
+ *
+ * Запрос идёт тем же путём, что и RestAssured, только без буферизации тела:
+ * - соединение из общего пула {@link HttpPool}, ожидание байт - не дольше ApiConfig.READ_TIMEOUT
+ * - метрики, JFR, кольцо {@link TestLog} (начало тела) и кассета - через {@link ObservedExchange},
+ *   как у AsyncBillingClient; при записи и воспроизведении кассеты тело целиком в памяти
+ * - каждый элемент - по JSON Schema сущности ({@link ResponseSchemas#checkElement}), если она есть в реестре
+ *
+ * Используй:
+ *   long size = StreamingListAssert.get(ApiConfig.BASE_URL + "/api/admin/profile/all")
+ *       .header("Authorization", getAuthHeader())
+ *       .hasStatus(200)
+ *       .hasCode("OK")
+ *       .eachElement(JsonShape.object().integer("id").string("msisdn"))
+ *       .hasSizeGreaterThan(0)
+ *       .verify();
+ */
+public final class StreamingListAssert {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpGet request;
+    private int expectedStatus = 200;
+    private String expectedCode;
+    private String arrayField = "content";
+    private JsonShape elementShape;
+    private long minSizeExclusive = -1;
+    /** Шаблон эндпоинта, если элементы проверяются по схеме (null - не проверяются) */
+    private String schemaTemplate;
+
+    private StreamingListAssert(HttpGet request) {
+        this.request = request;
+    }
+
+    /** GET запрос к списочному эндпоинту */
+    public static StreamingListAssert get(String url) {
+        return new StreamingListAssert(new HttpGet(url));
+    }
+
+    public StreamingListAssert header(String name, String value) {
+        request.addHeader(name, value);
+        return this;
+    }
+
+    public StreamingListAssert hasStatus(int status) {
+        this.expectedStatus = status;
+        return this;
+    }
+
+    /** Значение поля "code" верхнего уровня */
+    public StreamingListAssert hasCode(String code) {
+        this.expectedCode = code;
+        return this;
+    }
+
+    /** Имя поля с массивом (по умолчанию "content") */
+    public StreamingListAssert arrayField(String field) {
+        this.arrayField = field;
+        return this;
+    }
+
+    /** Каждый элемент массива должен соответствовать форме */
+    public StreamingListAssert eachElement(JsonShape shape) {
+        this.elementShape = shape;
+        return this;
+    }
+
+    public StreamingListAssert hasSizeGreaterThan(long size) {
+        this.minSizeExclusive = size;
+        return this;
+    }
+
+    /**
+     * Выполнить запрос и проверить ответ
+     * @return количество элементов в массиве
+     */
+    public long verify() {
+        String uri = request.getURI().toString();
+        String template = EndpointTemplates.of(request.getMethod(), uri);
+        schemaTemplate = arrayField.equals("content") && ResponseSchemas.coversElements(template) ? template : null;
+        ObservedExchange exchange = ObservedExchange.start("streaming", TestLog.current(), request.getMethod(), uri,
+            authorization(), null);
+        Interaction recorded = exchange.replay();
+        if (recorded != null) {
+            expectStatus(recorded.status(), uri);
+            return verifyBytes(recorded.body());
+        }
+
+        int status = -1;
+        boolean transportError = false;
+        boolean complete = false;
+        BodyTap body = null;
+        String error = null;
+        try {
+            HttpResponse response = HttpPool.execute(request, ApiConfig.READ_TIMEOUT);
+            status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            InputStream content = entity == null ? InputStream.nullInputStream() : entity.getContent();
+            if (exchange.recording()) {
+                // Запись кассеты: тело нужно целиком
+                byte[] bytes = content.readAllBytes();
+                exchange.record(status,
+                    entity == null || entity.getContentType() == null ? "" : entity.getContentType().getValue(), bytes);
+                content = new ByteArrayInputStream(bytes);
+            }
+            body = new BodyTap(content, TestLog.maxBodyBytes());
+            expectStatus(status, uri);
+            long count = verify(body);
+            complete = true;
+            return count;
+        } catch (IOException e) {
+            transportError = true;
+            error = e.toString();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | AssertionError e) {
+            error = e.toString();
+            throw e;
+        } finally {
+            if (!complete) {
+                // Нарушение или таймаут: остаток тела не дочитываем, соединение в пул не вернётся
+                request.abort();
+            }
+            if (body != null) {
+                body.release();
+            }
+            exchange.finish(transportError ? -1 : status, body == null ? 0 : body.bytes,
+                body == null ? null : body.head(), error);
+        }
+    }
+
+    private String authorization() {
+        return request.getFirstHeader("Authorization") == null ? null : request.getFirstHeader("Authorization").getValue();
+    }
+
+    private void expectStatus(int status, String uri) {
+        if (status != expectedStatus) {
+            throw new AssertionError("Ожидался HTTP " + expectedStatus + ", а пришёл " + status + " от " + uri);
+        }
+    }
+
+    private long verifyBytes(byte[] body) {
+        try {
+            return verify(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Проверить уже полученное тело ответа (например, из RestAssured extract().asInputStream())
+     * @return количество элементов в массиве
+     */
+    public long verify(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new AssertionError("Ответ должен быть JSON объектом");
+            }
+            long count = -1;
+            boolean codeSeen = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(arrayField)) {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new AssertionError("Поле '" + arrayField + "' должно быть массивом, а пришло " + value);
+                    }
+                    count = walkArray(parser);
+                } else if (field.equals("code") && expectedCode != null) {
+                    codeSeen = true;
+                    if (!expectedCode.equals(parser.getValueAsString())) {
+                        throw new AssertionError("Ожидался code=" + expectedCode + ", а пришёл " + parser.getValueAsString());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (count < 0) {
+                throw new AssertionError("В ответе нет массива '" + arrayField + "'");
+            }
+            if (expectedCode != null && !codeSeen) {
+                throw new AssertionError("В ответе нет поля code");
+            }
+            if (count <= minSizeExclusive) {
+                throw new AssertionError("Ожидалось больше " + minSizeExclusive + " элементов, а пришло " + count);
+            }
+            return count;
+        }
+    }
+
+    private long walkArray(JsonParser parser) throws IOException {
+        long index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (schemaTemplate != null) {
+                // Один элемент в дерево - для JSON Schema; весь список по-прежнему не в памяти
+                JsonNode element = JSON.readTree(parser);
+                ResponseSchemas.checkElement(schemaTemplate, index, element);
+                if (elementShape != null) {
+                    try (JsonParser tree = element.traverse()) {
+                        tree.nextToken();
+                        checkShape(tree, index);
+                    }
+                }
+            } else if (elementShape != null) {
+                checkShape(parser, index);
+            } else {
+                parser.skipChildren();
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private void checkShape(JsonParser parser, long index) throws IOException {
+        String problem = elementShape.violation(parser);
+        if (problem != null) {
+            throw new AssertionError(arrayField + "[" + index + "]: " + problem);
+        }
+    }
+
+    /**
+     * Поток тела: считает байты и хранит их начало для кольца TestLog.
+     * close() от парсера не закрывает соединение - это делает {@link #release()} после abort при ошибке
+     */
+    private static final class BodyTap extends FilterInputStream {
+
+        private final ByteArrayOutputStream head;
+        private final int limit;
+        private long bytes;
+
+        BodyTap(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+            this.head = new ByteArrayOutputStream(Math.min(limit, 8192));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                tap(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                tap(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void release() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // Соединение уже оборвано abort()
+            }
+        }
+
+        byte[] head() {
+            return head.toByteArray();
+        }
+
+        private void tap(byte[] buffer, int offset, int length) {
+            bytes += length;
+            int room = limit - head.size();
+            if (room > 0) {
+                head.write(buffer, offset, Math.min(room, length));
+            }
+        }
+    }
+}
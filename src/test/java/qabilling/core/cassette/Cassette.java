@@ -0,0 +1,119 @@
+package qabilling.core.cassette;
+
+import io.restassured.filter.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 📼 Запись и воспроизведение ответов API ("кассеты")
+ *
+ * -Dqabilling.cassette.mode:
+ * - off (по умолчанию) - обычные запросы
+ * - record - запросы идут в API, ответы пишутся в кассету
+ * - replay - ответы берутся из кассеты, сеть и ApiConfig.BASE_URL не трогаются
+ *
+ * Кассета - пара файлов qabilling.cassette.file (cassettes/qabilling) + .cas/.idx ({@link CassetteFormat}).
+ * Ключ запроса - метод, путь с query (без хоста), Authorization и тело. Чтобы тела совпадали
+ * между записью и воспроизведением, данные генерируются с -Dqabilling.testdata.seed,
+ * а тесты идут последовательно - это настраивают профили cassette-record / cassette-replay.
+ *
+ * Подключение: RestAssured - {@link #filter()}, JDK HttpClient - {@link #active()} вручную
+ * (StreamingListAssert, AsyncBillingClient). Кассету закрывает {@link CassetteListener}.
+ */
+public final class Cassette {
+
+    private static final Logger log = LoggerFactory.getLogger(Cassette.class);
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    public static final Mode MODE = Mode.valueOf(
+        System.getProperty("qabilling.cassette.mode", "off").trim().toUpperCase(Locale.ROOT));
+
+    private static final Filter FILTER = new CassetteFilter();
+
+    private static Cassette shared;
+
+    private final Path base;
+    private final CassetteWriter writer;
+    private final CassetteReader reader;
+
+    private Cassette(Path base, Mode mode) {
+        this.base = base;
+        this.writer = mode == Mode.RECORD ? new CassetteWriter(base) : null;
+        this.reader = mode == Mode.REPLAY ? new CassetteReader(base) : null;
+    }
+
+    /**
+     * Кассета этого прогона (null - режим off)
+     */
+    public static synchronized Cassette active() {
+        if (MODE == Mode.OFF) {
+            return null;
+        }
+        if (shared == null) {
+            Path base = Path.of(System.getProperty("qabilling.cassette.file", "cassettes/qabilling"));
+            shared = new Cassette(base, MODE);
+            log.info("Кассета {}: {}", MODE == Mode.RECORD ? "запись" : "воспроизведение", base.toAbsolutePath());
+        }
+        return shared;
+    }
+
+    /**
+     * Закрыть кассету (при записи - сохранить индекс и подменить файлы)
+     */
+    public static synchronized void closeActive() {
+        if (shared == null) {
+            return;
+        }
+        if (shared.writer != null) {
+            shared.writer.close();
+            log.info("Кассета записана: {} ответов в {}", shared.writer.size(), shared.base.toAbsolutePath());
+        } else {
+            shared.reader.close();
+        }
+        shared = null;
+    }
+
+    /** RestAssured фильтр: записывает или подменяет ответ (в режиме off - прозрачный) */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    public boolean isReplaying() {
+        return reader != null;
+    }
+
+    /**
+     * Ключ запроса: метод, путь с query (хост не важен - кассета переносится между стендами),
+     * Authorization и тело
+     */
+    public static String key(String method, String uri, String authorization, byte[] body) {
+        URI parsed = URI.create(uri);
+        String path = parsed.getRawQuery() == null ? parsed.getRawPath() : parsed.getRawPath() + "?" + parsed.getRawQuery();
+        return method.toUpperCase(Locale.ROOT) + " " + path + "\n"
+            + (authorization == null ? "" : authorization) + "\n"
+            + (body == null ? "" : new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Записанный ответ на запрос
+     * @throws IllegalStateException если такой запрос не записывался
+     */
+    public Interaction replay(String key) {
+        Interaction interaction = reader.next(key);
+        if (interaction == null) {
+            throw new IllegalStateException("В кассете " + base + " нет ответа на " + key.substring(0, key.indexOf('\n'))
+                + " с таким телом/токеном - перезапиши кассету (-Pcassette-record)");
+        }
+        return interaction;
+    }
+
+    public void record(String key, Interaction interaction) {
+        writer.append(key, interaction);
+    }
+}
@@ -0,0 +1,51 @@
+package qabilling.core.cassette;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 📼 RestAssured фильтр кассеты: в replay отвечает из кассеты, не вызывая HTTP клиент
+ */
+final class CassetteFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification request,
+                           FilterableResponseSpecification response, FilterContext context) {
+        Cassette cassette = Cassette.active();
+        if (cassette == null) {
+            return context.next(request, response);
+        }
+        String key = Cassette.key(request.getMethod(), request.getURI(),
+            request.getHeaders().getValue("Authorization"), body(request.getBody()));
+        if (cassette.isReplaying()) {
+            Interaction recorded = cassette.replay(key);
+            return new ResponseBuilder()
+                .setStatusCode(recorded.status())
+                .setStatusLine("HTTP/1.1 " + recorded.status())
+                .setContentType(recorded.contentType())
+                .setBody(recorded.body())
+                .build();
+        }
+        Response actual = context.next(request, response);
+        String contentType = actual.getContentType();
+        cassette.record(key, new Interaction(actual.getStatusCode(), contentType == null ? "" : contentType,
+            actual.asByteArray()));
+        return actual;
+    }
+
+    private static byte[] body(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
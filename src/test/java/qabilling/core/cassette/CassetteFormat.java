@@ -0,0 +1,44 @@
+package qabilling.core.cassette;
+
+import java.nio.file.Path;
+
+/**
+ * 📐 Формат кассеты на диске (два файла рядом)
+ *
+ * &lt;base&gt;.cas - данные, записи подряд в порядке запросов:
+ *   magic, version, затем [int keyLen, key UTF-8, int status, short ctLen, contentType, int bodyLen, body]...
+ * &lt;base&gt;.idx - индекс, отсортированный по хэшу ключа (при равных - по порядку записи):
+ *   magic, version, int count, затем [long hash, long offset]...
+ *
+ * Индекс отображается в память целиком ({@link CassetteReader}), поиск - бинарный,
+ * на куче держатся только ключи, к которым уже обращались.
+ */
+final class CassetteFormat {
+
+    static final int DATA_MAGIC = 0x51424341;   // "QBCA"
+    static final int INDEX_MAGIC = 0x51424349;  // "QBCI"
+    static final int VERSION = 1;
+    static final int INDEX_HEADER = 12;
+    static final int INDEX_ENTRY = 16;
+
+    private CassetteFormat() {
+    }
+
+    static Path dataFile(Path base) {
+        return base.resolveSibling(base.getFileName() + ".cas");
+    }
+
+    static Path indexFile(Path base) {
+        return base.resolveSibling(base.getFileName() + ".idx");
+    }
+
+    /** FNV-1a 64: быстрый и стабильный между JVM хэш ключа */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,19 @@
+package qabilling.core.cassette;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * 📼 Закрывает кассету после прогона
+ *
+ * Стоит в META-INF/services перед остальными (после только JFR записи): JUnit вызывает
+ * testPlanExecutionFinished в обратном порядке, так что кассета закрывается после
+ * удаления фикстур ({@code FixturesListener}), чьи запросы тоже записываются.
+ */
+public class CassetteListener implements TestExecutionListener {
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        Cassette.closeActive();
+    }
+}
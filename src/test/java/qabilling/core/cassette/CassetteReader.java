@@ -0,0 +1,159 @@
+package qabilling.core.cassette;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ▶️ Чтение кассеты через отображённые в память файлы
+ *
+ * - индекс (.idx) отображается целиком, поиск ключа - бинарный по хэшу
+ * - данные (.cas) отображаются целиком, если меньше 2 ГБ, иначе читаются позиционно
+ * - один и тот же запрос, записанный несколько раз, отдаётся в порядке записи;
+ *   когда записи кончились, повторяется последняя (токен, повторные GET и т.п.)
+ */
+final class CassetteReader implements AutoCloseable {
+
+    /** Смещения записей одного ключа и сколько из них уже отдано */
+    private record Takes(long[] offsets, AtomicInteger next) { }
+
+    private final Path data;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer dataMap;
+    private final MappedByteBuffer indexMap;
+    private final int count;
+    private final ConcurrentMap<String, Takes> takes = new ConcurrentHashMap<>();
+
+    CassetteReader(Path base) {
+        this.data = CassetteFormat.dataFile(base);
+        Path index = CassetteFormat.indexFile(base);
+        try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ)) {
+            if (indexChannel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Индекс кассеты больше 2 ГБ: " + index);
+            }
+            this.indexMap = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+            if (indexMap.getInt(0) != CassetteFormat.INDEX_MAGIC || indexMap.getInt(4) != CassetteFormat.VERSION) {
+                throw new IllegalStateException("Не индекс кассеты (или другая версия): " + index);
+            }
+            this.count = indexMap.getInt(8);
+            this.dataChannel = FileChannel.open(data, StandardOpenOption.READ);
+            long size = dataChannel.size();
+            this.dataMap = size <= Integer.MAX_VALUE ? dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            if (read(0, 4).getInt() != CassetteFormat.DATA_MAGIC) {
+                throw new IllegalStateException("Не файл кассеты: " + data);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть кассету " + data
+                + " (запиши её: -Dqabilling.cassette.mode=record)", e);
+        }
+    }
+
+    /**
+     * Следующий записанный ответ на запрос с ключом key (null - такой запрос не записывался)
+     */
+    Interaction next(String key) {
+        Takes forKey = takes.computeIfAbsent(key, this::find);
+        if (forKey.offsets().length == 0) {
+            return null;
+        }
+        int take = Math.min(forKey.next().getAndIncrement(), forKey.offsets().length - 1);
+        return readInteraction(forKey.offsets()[take]);
+    }
+
+    int size() {
+        return count;
+    }
+
+    private Takes find(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = CassetteFormat.hash(keyBytes);
+        // Первая запись с таким хэшем
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compare(hashAt(middle), hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long[] offsets = new long[0];
+        for (int i = low; i < count && hashAt(i) == hash; i++) {
+            long offset = offsetAt(i);
+            // Разные ключи с одним хэшем - сверяем сам ключ
+            if (Arrays.equals(keyAt(offset), keyBytes)) {
+                offsets = Arrays.copyOf(offsets, offsets.length + 1);
+                offsets[offsets.length - 1] = offset;
+            }
+        }
+        return new Takes(offsets, new AtomicInteger());
+    }
+
+    private long hashAt(int i) {
+        return indexMap.getLong(CassetteFormat.INDEX_HEADER + i * CassetteFormat.INDEX_ENTRY);
+    }
+
+    private long offsetAt(int i) {
+        return indexMap.getLong(CassetteFormat.INDEX_HEADER + i * CassetteFormat.INDEX_ENTRY + 8);
+    }
+
+    private byte[] keyAt(long offset) {
+        int length = read(offset, 4).getInt();
+        return bytes(read(offset + 4, length), length);
+    }
+
+    private Interaction readInteraction(long offset) {
+        long position = offset + 4 + read(offset, 4).getInt();
+        ByteBuffer head = read(position, 6);
+        int status = head.getInt();
+        int contentTypeLength = head.getShort() & 0xffff;
+        position += 6;
+        String contentType = new String(bytes(read(position, contentTypeLength), contentTypeLength), StandardCharsets.UTF_8);
+        position += contentTypeLength;
+        int bodyLength = read(position, 4).getInt();
+        byte[] body = bytes(read(position + 4, bodyLength), bodyLength);
+        return new Interaction(status, contentType, body);
+    }
+
+    private ByteBuffer read(long offset, int length) {
+        if (dataMap != null) {
+            return dataMap.slice((int) offset, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (dataChannel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IllegalStateException("Кассета обрезана: " + data);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать кассету " + data, e);
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            dataChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
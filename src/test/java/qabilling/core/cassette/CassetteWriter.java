@@ -0,0 +1,102 @@
+package qabilling.core.cassette;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ⏺️ Запись кассеты: данные дописываются по мере запросов, индекс - при закрытии
+ *
+ * Пишем во временные файлы и подменяем кассету только в {@link #close()} -
+ * оборванная запись не портит предыдущую кассету.
+ */
+final class CassetteWriter implements AutoCloseable {
+
+    private record IndexEntry(long hash, long offset) { }
+
+    private final Path data;
+    private final Path index;
+    private final Path dataTmp;
+    private final Path indexTmp;
+    private final DataOutputStream out;
+    private final List<IndexEntry> entries = new ArrayList<>();
+    private long offset;
+
+    CassetteWriter(Path base) {
+        this.data = CassetteFormat.dataFile(base);
+        this.index = CassetteFormat.indexFile(base);
+        this.dataTmp = data.resolveSibling(data.getFileName() + ".tmp");
+        this.indexTmp = index.resolveSibling(index.getFileName() + ".tmp");
+        try {
+            Path parent = data.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataTmp), 64 * 1024));
+            out.writeInt(CassetteFormat.DATA_MAGIC);
+            out.writeInt(CassetteFormat.VERSION);
+            offset = out.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать кассету " + data, e);
+        }
+    }
+
+    /**
+     * Дописать ответ на запрос с ключом key
+     */
+    synchronized void append(String key, Interaction interaction) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] contentType = interaction.contentType().getBytes(StandardCharsets.UTF_8);
+        try {
+            entries.add(new IndexEntry(CassetteFormat.hash(keyBytes), offset));
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+            out.writeInt(interaction.status());
+            out.writeShort(contentType.length);
+            out.write(contentType);
+            out.writeInt(interaction.body().length);
+            out.write(interaction.body());
+            offset += 4 + keyBytes.length + 4 + 2 + contentType.length + 4 + interaction.body().length;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать в кассету " + dataTmp, e);
+        }
+    }
+
+    /**
+     * Записать отсортированный индекс и подменить кассету
+     */
+    @Override
+    public synchronized void close() {
+        // Сортировка устойчивая: записи одного ключа остаются в порядке запросов
+        entries.sort(Comparator.comparingLong(IndexEntry::hash));
+        try {
+            out.close();
+            try (DataOutputStream indexOut = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(indexTmp), 64 * 1024))) {
+                indexOut.writeInt(CassetteFormat.INDEX_MAGIC);
+                indexOut.writeInt(CassetteFormat.VERSION);
+                indexOut.writeInt(entries.size());
+                for (IndexEntry entry : entries) {
+                    indexOut.writeLong(entry.hash());
+                    indexOut.writeLong(entry.offset());
+                }
+            }
+            Files.move(dataTmp, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить кассету " + data, e);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,11 @@
+package qabilling.core.cassette;
+
+/**
+ * 📼 Записанный ответ API
+ *
+ * @param status      HTTP код
+ * @param contentType Content-Type ответа (пустая строка, если его не было)
+ * @param body        тело ответа как есть
+ */
+public record Interaction(int status, String contentType, byte[] body) {
+}
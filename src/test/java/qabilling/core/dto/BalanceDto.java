@@ -1,7 +1,8 @@
 package qabilling.core.dto;
 
-import java.util.Locale;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.random.RandomGenerator;
 
 /**
  * 💰 DTO для работы с балансами абонентов
@@ -10,6 +11,8 @@ import java.util.Objects;
  */
 public class BalanceDto extends BaseDto {
     
+    private static final byte[] AMOUNT = JsonEncoding.ascii("{\"amount\": ");
+    
     /** Сумма баланса (должна быть положительной) */
     private final double amount;
     
@@ -50,9 +53,11 @@ public class BalanceDto extends BaseDto {
     }
     
     @Override
-    public String toJson() {
-        // Используем US локаль для правильного формата чисел (с точкой, а не запятой)
-        return String.format(Locale.US, "{\"amount\": %.2f}", amount);
+    public void writeTo(ByteBuffer out) {
+        // Фиксированная точка, 2 знака: всегда с точкой, без Locale и String.format
+        JsonEncoding.writeRaw(out, AMOUNT);
+        JsonEncoding.writeFixedPoint(out, amount, 2);
+        out.put((byte) '}');
     }
     
     /** Геттер для суммы */
@@ -75,10 +80,11 @@ public class BalanceDto extends BaseDto {
      * Фабричный метод для создания валидного DTO со случайной суммой
      * Полезен для позитивных тестов
      * 
+     * @param random источник случайных чисел - в тестах TestDataGenerator.random() (учитывает qabilling.testdata.seed)
      * @return BalanceDto с валидной случайной суммой от 10.00 до 1000.00
      */
-    public static BalanceDto createValidRandom() {
-        double randomAmount = 10.0 + (Math.random() * 990.0);
+    public static BalanceDto createValidRandom(RandomGenerator random) {
+        double randomAmount = 10.0 + random.nextDouble() * 990.0;
         return new BalanceDto(Math.round(randomAmount * 100.0) / 100.0); // Округляем до 2 знаков
     }
     
@@ -1,5 +1,14 @@
 package qabilling.core.dto;
 
+import qabilling.core.jfr.DtoSerializationEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
  * 📦 БАЗОВЫЙ КЛАСС ДЛЯ ВСЕХ DTO ОБЪЕКТОВ
  * 
@@ -9,10 +18,13 @@ package qabilling.core.dto;
  * Этот базовый класс определяет контракт для всех DTO.
  * Все DTO-ки (ProfileDto, BalanceDto, CounterDto) наследуют этот класс.
  * 
+ * Метод writeTo(ByteBuffer):
+ * - Пишет JSON сразу в UTF-8 байты, без String.format и промежуточных объектов
+ * - КАЖДЫЙ потомок должен реализовать свой writeTo() (через {@link JsonEncoding})
+ *
  * Метод toJson():
- * - Конвертирует DTO в JSON для отправки в API
- * - КАЖДЫЙ потомок должен реализовать свой toJson()
- * - Пример: ProfileDto.toJson() → {"msisdn":"996800123456","userId":1,"pricePlanId":3}
+ * - Удобная обёртка над writeTo() для отправки в API и логов
+ * - Пример: ProfileDto.toJson() → {"msisdn": "996800123456", "userId": 1, "pricePlanId": 3}
  * 
  * Метод toString():
  * - Переопределён для красивого вывода в логах
@@ -23,7 +35,7 @@ package qabilling.core.dto;
  * {@code
  *   ProfileDto profile = new ProfileDto("996800123456", 1, 3);
  *   String json = profile.toJson();  // Получить JSON
- *   System.out.println(profile);  // Красивый вывод
+ *   log.debug("Профиль: {}", profile);  // Красивый вывод (toJson - только если строка выводится)
  * }
  * 
  * @author QABilling Test Framework
@@ -32,6 +44,25 @@ package qabilling.core.dto;
  */
 public abstract class BaseDto {
     
+    /** Буфер на поток для toJson()/writeTo(OutputStream); растёт, если DTO не поместился */
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+    
+    /**
+     * ⚡ Записать JSON представление в буфер (UTF-8, без аллокаций)
+     * 
+     * @param out буфер с позицией, с которой начинать запись
+     * @throws BufferOverflowException если в буфере не хватило места
+     */
+    public abstract void writeTo(ByteBuffer out);
+    
+    /**
+     * ⚡ Записать JSON в поток (через переиспользуемый буфер потока)
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        ByteBuffer buffer = encode();
+        out.write(buffer.array(), 0, buffer.position());
+    }
+    
     /**
      * 🔄 Конвертировать DTO в JSON строку
      * 
@@ -41,10 +72,43 @@ public abstract class BaseDto {
      * {@code
      *   ProfileDto profile = new ProfileDto("996800123456", 1, 3);
      *   String json = profile.toJson();
-     *   // Результат: {"msisdn":"996800123456","userId":1,"pricePlanId":3}
+     *   // Результат: {"msisdn": "996800123456", "userId": 1, "pricePlanId": 3}
      * }
      */
-    public abstract String toJson();
+    public String toJson() {
+        ByteBuffer buffer = encode();
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 🔄 JSON в виде UTF-8 байт (тело запроса без перекодирования строки)
+     */
+    public byte[] toJsonBytes() {
+        ByteBuffer buffer = encode();
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+    
+    private ByteBuffer encode() {
+        DtoSerializationEvent event = new DtoSerializationEvent();
+        event.begin();
+        ByteBuffer buffer = SCRATCH.get();
+        while (true) {
+            buffer.clear();
+            try {
+                writeTo(buffer);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.dto = getClass().getSimpleName();
+                    event.bytes = buffer.position();
+                    event.commit();
+                }
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                SCRATCH.set(buffer);
+            }
+        }
+    }
     
     /**
      * 📝 Переопределённый toString для красивого вывода
@@ -53,7 +117,7 @@ public abstract class BaseDto {
      * 
      * Пример:
      * {@code
-     *   System.out.println(profile);
+     *   log.debug("{}", profile);
      *   // Вывод: ProfileDto -> {"msisdn":"996800123456","userId":1,"pricePlanId":3}
      * }
      */
@@ -1,5 +1,6 @@
 package qabilling.core.dto;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -9,6 +10,14 @@ import java.util.Objects;
  */
 public class CounterDto extends BaseDto {
     
+    private static final byte[] ID = JsonEncoding.ascii("{\"id\": ");
+    private static final byte[] STATE = JsonEncoding.ascii(", \"state\": ");
+    private static final byte[] MEGABYTE_COUNT = JsonEncoding.ascii(", \"megabyteCount\": ");
+    private static final byte[] SECONDS_COUNT = JsonEncoding.ascii(", \"secondsCount\": ");
+    private static final byte[] SMS_COUNT = JsonEncoding.ascii(", \"smsCount\": ");
+    private static final byte[] START_DATE = JsonEncoding.ascii(", \"startDate\": ");
+    private static final byte[] END_DATE = JsonEncoding.ascii(", \"endDate\": ");
+    
     /** ID счётчика */
     private final int id;
     
@@ -114,11 +123,22 @@ public class CounterDto extends BaseDto {
     }
     
     @Override
-    public String toJson() {
-        return String.format(
-            "{\"id\": %d, \"state\": %b, \"megabyteCount\": %d, \"secondsCount\": %d, \"smsCount\": %d, \"startDate\": \"%s\", \"endDate\": \"%s\"}",
-            id, state, megabyteCount, secondsCount, smsCount, startDate, endDate
-        );
+    public void writeTo(ByteBuffer out) {
+        JsonEncoding.writeRaw(out, ID);
+        JsonEncoding.writeLong(out, id);
+        JsonEncoding.writeRaw(out, STATE);
+        JsonEncoding.writeBoolean(out, state);
+        JsonEncoding.writeRaw(out, MEGABYTE_COUNT);
+        JsonEncoding.writeLong(out, megabyteCount);
+        JsonEncoding.writeRaw(out, SECONDS_COUNT);
+        JsonEncoding.writeLong(out, secondsCount);
+        JsonEncoding.writeRaw(out, SMS_COUNT);
+        JsonEncoding.writeLong(out, smsCount);
+        JsonEncoding.writeRaw(out, START_DATE);
+        JsonEncoding.writeString(out, startDate);
+        JsonEncoding.writeRaw(out, END_DATE);
+        JsonEncoding.writeString(out, endDate);
+        out.put((byte) '}');
     }
     
     // ✅ Геттеры для доступа к полям
@@ -0,0 +1,155 @@
+package qabilling.core.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 🔤 Запись JSON примитивов прямо в UTF-8 байты
+ *
+ * Используется в {@link BaseDto#writeTo(ByteBuffer)}: никаких String.format,
+ * боксинга и промежуточных строк - только put() в буфер.
+ * Если места в буфере не хватает - {@link java.nio.BufferOverflowException}.
+ */
+public final class JsonEncoding {
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final byte[] MIN_LONG = ascii(Long.toString(Long.MIN_VALUE));
+    // До 2^40 у value * 10^scale дробная часть точна до 2^-12 - хватает, чтобы округлить через long
+    private static final double FAST_LIMIT = 0x1p40;
+    // Ближе к .5 ошибка умножения может перевернуть округление - такие значения идут через BigDecimal
+    private static final double TIE_BAND = 1e-3;
+
+    private JsonEncoding() {
+    }
+
+    /** Байты ASCII-константы (фрагменты JSON вида {"msisdn": ) */
+    public static byte[] ascii(String constant) {
+        return constant.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void writeRaw(ByteBuffer out, byte[] fragment) {
+        out.put(fragment);
+    }
+
+    public static void writeBoolean(ByteBuffer out, boolean value) {
+        out.put(value ? TRUE : FALSE);
+    }
+
+    public static void writeLong(ByteBuffer out, long value) {
+        if (value == Long.MIN_VALUE) {
+            out.put(MIN_LONG);
+            return;
+        }
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        if (out.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+        int end = out.position() + digits;
+        for (int i = end - 1; i >= out.position(); i--) {
+            out.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(end);
+    }
+
+    /**
+     * Число с фиксированной точкой: unscaled=12575, scale=2 → 125.75
+     */
+    public static void writeFixedPoint(ByteBuffer out, long unscaled, int scale) {
+        if (unscaled == Long.MIN_VALUE) {
+            out.put(ascii(BigDecimal.valueOf(unscaled, scale).toPlainString()));
+            return;
+        }
+        if (unscaled < 0) {
+            out.put((byte) '-');
+            unscaled = -unscaled;
+        }
+        long divisor = 1;
+        for (int i = 0; i < scale; i++) {
+            divisor *= 10;
+        }
+        writeLong(out, unscaled / divisor);
+        if (scale == 0) {
+            return;
+        }
+        out.put((byte) '.');
+        long fraction = unscaled % divisor;
+        for (long d = divisor / 10; d > 0; d /= 10) {
+            out.put((byte) ('0' + fraction / d % 10));
+        }
+    }
+
+    /**
+     * double с округлением до scale знаков, половина - от нуля (как %.{scale}f)
+     *
+     * Обычные суммы - через long; огромные значения и почти ровно .5 - через BigDecimal.
+     * "-0.00" не пишется: всё, что округлилось в ноль, - 0.00.
+     *
+     * @throws IllegalArgumentException для NaN и бесконечностей - в JSON таких чисел нет
+     */
+    public static void writeFixedPoint(ByteBuffer out, double value, int scale) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Не число JSON: " + value);
+        }
+        double factor = 1;
+        for (int i = 0; i < scale; i++) {
+            factor *= 10;
+        }
+        double scaled = Math.abs(value) * factor;
+        double fraction = scaled - Math.floor(scaled);
+        if (scaled < FAST_LIMIT && Math.abs(fraction - 0.5) > TIE_BAND) {
+            long unscaled = Math.round(scaled);
+            writeFixedPoint(out, value < 0 ? -unscaled : unscaled, scale);
+            return;
+        }
+        BigDecimal rounded = BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+        out.put(ascii((rounded.signum() == 0 ? rounded.abs() : rounded).toPlainString()));
+    }
+
+    /**
+     * Строка в кавычках с экранированием; null → JSON null (не строка "null")
+     */
+    public static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.put(NULL);
+            return;
+        }
+        out.put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.put((byte) '\\').put((byte) c);
+            } else if (c < 0x20) {
+                out.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                    .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                    .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        out.put((byte) '"');
+    }
+}
@@ -0,0 +1,106 @@
+package qabilling.core.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 🔤 JsonEncoding без стенда: фиксированная точка, граничные double, null-строки
+ */
+class JsonEncodingTest {
+
+    @Test
+    void shouldRoundHalfAwayFromZeroLikeFormat() {
+        assertEquals("125.75", fixedPoint(125.75));
+        assertEquals("0.01", fixedPoint(0.005));
+        assertEquals("1.01", fixedPoint(1.005));
+        assertEquals("2.68", fixedPoint(2.675));
+        assertEquals("100.00", fixedPoint(99.999));
+        assertEquals("10.00", fixedPoint(10));
+    }
+
+    @Test
+    void shouldKeepSignForNegativeValues() {
+        assertEquals("-125.75", fixedPoint(-125.75));
+        assertEquals("-0.01", fixedPoint(-0.005));
+        assertEquals("-1.01", fixedPoint(-1.005));
+        assertEquals("0.00", fixedPoint(-0.001), "Округлённый в ноль минус не пишется");
+        assertEquals("0.00", fixedPoint(-0.0));
+    }
+
+    @Test
+    void shouldWriteHugeValuesWithoutClamping() {
+        assertEquals("100000000000000000.00", fixedPoint(1e17));
+        assertEquals("-100000000000000000.00", fixedPoint(-1e17));
+        assertEquals(BigDecimal.valueOf(Double.MAX_VALUE).setScale(2).toPlainString(), fixedPoint(Double.MAX_VALUE),
+            "Как %.2f: кратчайшая десятичная запись double, без хвоста двоичного значения");
+        assertEquals("90071992547409.92", fixedPoint(0x1p53 / 100), "2^53 в копейках - уже медленный путь");
+    }
+
+    @Test
+    void shouldRejectNonFiniteValues() {
+        assertThrows(IllegalArgumentException.class, () -> fixedPoint(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> fixedPoint(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> fixedPoint(Double.NEGATIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> new BalanceDto(Double.NaN).toJson());
+    }
+
+    @Test
+    void shouldMatchBigDecimalOnRandomAmounts() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Половина - ровно на границе округления (x.xx5), остальные - случайные суммы любого порядка
+            double value = i % 2 == 0
+                ? (random.nextLong(-10_000_000, 10_000_000) * 10 + 5) / 1000.0
+                : random.nextDouble(-1, 1) * Math.pow(10, random.nextInt(0, 20));
+            BigDecimal expected = BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+            String text = (expected.signum() == 0 ? expected.abs() : expected).toPlainString();
+            assertEquals(text, fixedPoint(value), "value=" + value);
+        }
+    }
+
+    @Test
+    void shouldWriteLongFixedPointIncludingMinValue() {
+        assertEquals("-0.05", longFixedPoint(-5, 2));
+        assertEquals("42", longFixedPoint(42, 0));
+        assertEquals("-92233720368547758.08", longFixedPoint(Long.MIN_VALUE, 2));
+    }
+
+    @Test
+    void shouldSerializeNullMsisdnAsJsonNull() {
+        assertEquals("{\"msisdn\": null, \"userId\": 1, \"pricePlanId\": 4}",
+            ProfileDto.builder().userId(1).pricePlanId(4).build().toJson());
+        assertEquals("{\"msisdn\": \"996800000001\", \"userId\": 1, \"pricePlanId\": 4}",
+            new ProfileDto("996800000001", 1, 4).toJson());
+    }
+
+    @Test
+    void shouldEscapeStrings() {
+        ByteBuffer out = ByteBuffer.allocate(64);
+        JsonEncoding.writeString(out, "a\"b\\c\né😀");
+        assertEquals("\"a\\\"b\\\\c\\u000aé😀\"", text(out));
+    }
+
+    private static String fixedPoint(double value) {
+        ByteBuffer out = ByteBuffer.allocate(512);
+        JsonEncoding.writeFixedPoint(out, value, 2);
+        return text(out);
+    }
+
+    private static String longFixedPoint(long unscaled, int scale) {
+        ByteBuffer out = ByteBuffer.allocate(64);
+        JsonEncoding.writeFixedPoint(out, unscaled, scale);
+        return text(out);
+    }
+
+    private static String text(ByteBuffer out) {
+        return new String(out.array(), 0, out.position(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,6 @@
 package qabilling.core.dto;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -9,6 +10,10 @@ import java.util.Objects;
  */
 public class ProfileDto extends BaseDto {
     
+    private static final byte[] MSISDN = JsonEncoding.ascii("{\"msisdn\": ");
+    private static final byte[] USER_ID = JsonEncoding.ascii(", \"userId\": ");
+    private static final byte[] PRICE_PLAN_ID = JsonEncoding.ascii(", \"pricePlanId\": ");
+    
     private final String msisdn;
     private final int userId;
     
@@ -79,10 +84,19 @@ public class ProfileDto extends BaseDto {
         }
     }
     
+    /**
+     * msisdn == null пишется как JSON null: {"msisdn": null, ...}.
+     * Старый String.format давал строку "null", то есть проверял не отсутствие номера, а неверный формат
+     */
     @Override
-    public String toJson() {
-        return String.format("{\"msisdn\": \"%s\", \"userId\": %d, \"pricePlanId\": %d}",
-            msisdn, userId, pricePlanId);
+    public void writeTo(ByteBuffer out) {
+        JsonEncoding.writeRaw(out, MSISDN);
+        JsonEncoding.writeString(out, msisdn);
+        JsonEncoding.writeRaw(out, USER_ID);
+        JsonEncoding.writeLong(out, userId);
+        JsonEncoding.writeRaw(out, PRICE_PLAN_ID);
+        JsonEncoding.writeLong(out, pricePlanId);
+        out.put((byte) '}');
     }
     
     // ✅ Геттеры для доступа к полям (нужны для тестов и отладки)
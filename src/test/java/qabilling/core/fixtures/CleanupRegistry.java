@@ -0,0 +1,229 @@
+package qabilling.core.fixtures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 🧹 Реестр созданных за прогон профилей и их фоновое удаление
+ *
+ * Тесты (и пул абонентов) регистрируют ID созданных профилей, реестр удаляет их
+ * через /api/admin/profile/delete/{id}:
+ * - не более concurrency удалений одновременно (платформенные потоки, как в {@link SubscriberPool})
+ * - 404 - профиль уже удалён (тестом), это не ошибка
+ * - 408/429/5xx и сетевые ошибки повторяются с экспоненциальной паузой
+ * - в конце прогона ({@link #close()}) ждём хвост очереди и пишем итог
+ *
+ * По умолчанию удаляем сразу после регистрации (регистрируй профиль, который тесту
+ * больше не нужен); qabilling.cleanup.deferred=true -
+ * копить до конца прогона (не нагружать стенд во время замеров задержек).
+ * После close() реестр не пропадает: регистрация удаляет профиль сразу, на потоке вызывающего.
+ *
+ * Настройки: qabilling.cleanup.concurrency (4), qabilling.cleanup.attempts (3),
+ * qabilling.cleanup.backoffMs (200), qabilling.cleanup.timeoutSeconds (60).
+ */
+public class CleanupRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CleanupRegistry.class);
+
+    // В итоге перечисляем не больше стольких неудалённых ID
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    /** Итог очистки: сколько зарегистрировано, удалено, уже не было, не удалось и сколько было повторов */
+    public record Summary(long registered, long deleted, long alreadyGone, long failed, long retries,
+                          List<Integer> failedIds) { }
+
+    private static CleanupRegistry shared;
+
+    private final IntUnaryOperator deleter;
+    private final int attempts;
+    private final long backoffMillis;
+    private final long timeoutSeconds;
+    private final boolean deferred;
+    private final ExecutorService workers;
+    private final Set<Integer> registeredIds = ConcurrentHashMap.newKeySet();
+    // Под lifecycle: проверка closed + постановка в очередь атомарны с закрытием и разбором postponed
+    private final Object lifecycle = new Object();
+    private final List<Integer> postponed = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Integer> failedIds = new ConcurrentLinkedQueue<>();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder alreadyGone = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private boolean closed;
+
+    /**
+     * @param deleter удаление профиля по ID, возвращает HTTP код
+     */
+    public CleanupRegistry(IntUnaryOperator deleter, int concurrency, int attempts,
+                           long backoffMillis, long timeoutSeconds, boolean deferred) {
+        if (concurrency < 1 || attempts < 1) {
+            throw new IllegalArgumentException("Нужно concurrency >= 1 и attempts >= 1");
+        }
+        this.deleter = deleter;
+        this.attempts = attempts;
+        this.backoffMillis = backoffMillis;
+        this.timeoutSeconds = timeoutSeconds;
+        this.deferred = deferred;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "cleanup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Общий реестр на прогон (удаляет через {@link SubscriberFixtures#delete(int)})
+     */
+    public static synchronized CleanupRegistry shared() {
+        if (shared == null) {
+            shared = fromProperties(Boolean.getBoolean("qabilling.cleanup.deferred"));
+        }
+        return shared;
+    }
+
+    /**
+     * Отдельный реестр с настройками qabilling.cleanup.* (удаляет через {@link SubscriberFixtures#delete(int)})
+     * @param deferred копить удаления до close() - например, чтобы не мешать замеру нагрузки
+     */
+    public static CleanupRegistry fromProperties(boolean deferred) {
+        return new CleanupRegistry(SubscriberFixtures::delete,
+            Integer.getInteger("qabilling.cleanup.concurrency", 4),
+            Integer.getInteger("qabilling.cleanup.attempts", 3),
+            Long.getLong("qabilling.cleanup.backoffMs", 200L),
+            Long.getLong("qabilling.cleanup.timeoutSeconds", 60L),
+            deferred);
+    }
+
+    /**
+     * Дочистить и закрыть общий реестр, если он создавался (после прогона).
+     * Реестр остаётся общим: поздние регистрации (хвосты async цепочек) удаляются синхронно
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+        }
+    }
+
+    /**
+     * Зарегистрировать созданный профиль на удаление (повторная регистрация игнорируется)
+     */
+    public void registerProfile(int profileId) {
+        if (!registeredIds.add(profileId)) {
+            return;
+        }
+        synchronized (lifecycle) {
+            if (!closed) {
+                if (deferred) {
+                    postponed.add(profileId);
+                } else {
+                    workers.execute(() -> delete(profileId));
+                }
+                return;
+            }
+        }
+        // Прогон уже закрыт - удаляем сразу, чтобы не потерять профиль
+        delete(profileId);
+    }
+
+    public Summary summary() {
+        List<Integer> failures = new ArrayList<>(failedIds);
+        return new Summary(registeredIds.size(), deleted.sum(), alreadyGone.sum(), failed.sum(), retries.sum(),
+            failures.subList(0, Math.min(failures.size(), MAX_REPORTED_FAILURES)));
+    }
+
+    private void delete(int profileId) {
+        for (int attempt = 1; ; attempt++) {
+            String problem;
+            try {
+                int status = deleter.applyAsInt(profileId);
+                if (status >= 200 && status < 300) {
+                    deleted.increment();
+                    return;
+                }
+                if (status == 404) {
+                    alreadyGone.increment();
+                    return;
+                }
+                problem = "HTTP " + status;
+                if (!isTransient(status)) {
+                    fail(profileId, problem);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Обрыв соединения/таймаут - тоже временная ошибка
+                problem = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            if (attempt >= attempts || !pause(attempt)) {
+                fail(profileId, problem);
+                return;
+            }
+            retries.increment();
+        }
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    private boolean pause(int attempt) {
+        try {
+            Thread.sleep(backoffMillis << (attempt - 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void fail(int profileId, String problem) {
+        failed.increment();
+        failedIds.add(profileId);
+        log.warn("Очистка: не удалось удалить профиль {}: {}", profileId, problem);
+    }
+
+    /**
+     * Запустить отложенные удаления, дождаться очереди и записать итог в лог
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycle) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (int profileId : postponed) {
+                workers.execute(() -> delete(profileId));
+            }
+            postponed.clear();
+            workers.shutdown();
+        }
+        try {
+            if (!workers.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Очистка не уложилась в {} с - оставшиеся удаления прерваны", timeoutSeconds);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        Summary summary = summary();
+        if (summary.failed() > 0) {
+            log.warn("Очистка тестовых данных: {}", summary);
+        } else {
+            log.info("Очистка тестовых данных: {}", summary);
+        }
+    }
+}
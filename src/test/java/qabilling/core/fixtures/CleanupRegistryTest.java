@@ -0,0 +1,55 @@
+package qabilling.core.fixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 🧹 CleanupRegistry без стенда: удаление - запись ID в множество
+ */
+class CleanupRegistryTest {
+
+    private final Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+
+    private int delete(int profileId) {
+        deleted.add(profileId);
+        return 200;
+    }
+
+    @Test
+    void shouldDeleteSynchronouslyAfterClose() {
+        CleanupRegistry registry = new CleanupRegistry(this::delete, 1, 1, 0, 10, false);
+        registry.close();
+
+        registry.registerProfile(42);
+
+        assertTrue(deleted.contains(42), "После close() удаление идёт на потоке вызывающего");
+        assertEquals(1, registry.summary().deleted());
+    }
+
+    @Test
+    void shouldDeletePostponedProfilesOnClose() throws Exception {
+        CountDownLatch deleting = new CountDownLatch(3);
+        CleanupRegistry registry = new CleanupRegistry(id -> {
+            deleting.countDown();
+            return delete(id);
+        }, 2, 1, 0, 10, true);
+        registry.registerProfile(1);
+        registry.registerProfile(2);
+        registry.registerProfile(2);
+        registry.registerProfile(3);
+        assertTrue(deleted.isEmpty(), "Отложенный режим копит до close()");
+
+        registry.close();
+
+        assertTrue(deleting.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of(1, 2, 3), deleted);
+        assertEquals(3, registry.summary().registered());
+    }
+}
@@ -0,0 +1,53 @@
+package qabilling.core.fixtures;
+
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import qabilling.core.BaseApiTest;
+
+/**
+ * 🏊 Жизненный цикл фикстур на весь прогон
+ *
+ * - старт: запускает заполнение {@link SubscriberPool}, если в плане есть API тесты
+ *   (наследники {@link BaseApiTest}); юнит-тесты вроде TokenCacheTest стенд не трогают
+ * - конец: закрывает пул (невыданные абоненты уходят в {@link CleanupRegistry}),
+ *   затем дочищает реестр - порядок важен, поэтому оба в одном слушателе
+ *
+ * Подключается через META-INF/services. Выключить пул: -Dqabilling.pool.enabled=false
+ */
+public class FixturesListener implements TestExecutionListener {
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if (SubscriberPool.isEnabled() && containsApiTests(testPlan)) {
+            SubscriberPool.shared().prefill();
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        SubscriberPool.shutdownShared();
+        CleanupRegistry.shutdownShared();
+    }
+
+    private static boolean containsApiTests(TestPlan testPlan) {
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                if (identifier.getSource().orElse(null) instanceof ClassSource source && isApiTest(source)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isApiTest(ClassSource source) {
+        try {
+            return BaseApiTest.class.isAssignableFrom(Class.forName(source.getClassName(), false,
+                Thread.currentThread().getContextClassLoader()));
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package qabilling.core.fixtures;
+
+import qabilling.core.dto.ProfileDto;
+
+/**
+ * 👤 Абонент, созданный специально для одного теста
+ *
+ * Баланс и счётчик создаются вместе с профилем; если API не вернул их ID,
+ * считаем что они совпадают с ID профиля (так устроен QABilling).
+ *
+ * @param profileId ID профиля
+ * @param balanceId ID баланса абонента
+ * @param counterId ID счётчика абонента
+ * @param profile   данные, с которыми профиль создавался
+ */
+public record Subscriber(int profileId, int balanceId, int counterId, ProfileDto profile) {
+
+    /** MSISDN абонента */
+    public String msisdn() {
+        return profile.getMsisdn();
+    }
+}
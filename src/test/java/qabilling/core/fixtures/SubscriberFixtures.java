@@ -0,0 +1,59 @@
+package qabilling.core.fixtures;
+
+import io.restassured.path.json.JsonPath;
+import qabilling.core.ApiConfig;
+import qabilling.core.dto.ProfileDto;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * 🧱 Создание и удаление изолированных фикстур через API
+ *
+ * Подготовка данных не является предметом теста, поэтому принимаем любой 2xx
+ * (стенд отвечает 201 на create - см. API_ISSUES_REPORT.md).
+ */
+public final class SubscriberFixtures {
+
+    private SubscriberFixtures() {
+    }
+
+    /**
+     * Создать профиль (а с ним баланс и счётчик)
+     */
+    public static Subscriber create(ProfileDto profile) {
+        JsonPath content = given(ApiConfig.requestSpec())
+            .header("Authorization", "Bearer " + ApiConfig.getToken())
+            .contentType(ApiConfig.CONTENT_TYPE)
+            .body(profile.toJson())
+        .when()
+            .post(ApiConfig.BASE_URL + "/api/admin/profile/create")
+        .then()
+            .statusCode(both(greaterThanOrEqualTo(200)).and(lessThan(300)))
+            .extract().jsonPath().setRootPath("content");
+
+        int profileId = content.getInt("id");
+        Integer balanceId = content.get("balance.id");
+        Integer counterId = content.get("counter.id");
+        return new Subscriber(
+            profileId,
+            balanceId != null ? balanceId : profileId,
+            counterId != null ? counterId : profileId,
+            profile);
+    }
+
+    /**
+     * Удалить профиль; 404 не ошибка (тест мог удалить его сам)
+     * @return HTTP код ответа
+     */
+    public static int delete(int profileId) {
+        return given(ApiConfig.requestSpec())
+            .header("Authorization", "Bearer " + ApiConfig.getToken())
+        .when()
+            .delete(ApiConfig.BASE_URL + "/api/admin/profile/delete/" + profileId)
+        .then()
+            .extract().statusCode();
+    }
+}
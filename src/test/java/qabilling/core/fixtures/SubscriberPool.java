@@ -0,0 +1,183 @@
+package qabilling.core.fixtures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.dto.ProfileDto;
+import qabilling.testdata.TestDataGenerator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 🏊 Пул заранее созданных абонентов
+ *
+ * Создание профиля - самая долгая часть большинства тестов. Пул создаёт
+ * абонентов в фоне (до concurrency платформенных потоков: Apache HttpClient внутри
+ * RestAssured блокируется в synchronized и на виртуальных потоках занимал бы carrier)
+ * и выдаёт тестам готовых:
+ * - ready опустился ниже low → фоновые потоки доливают до high
+ * - пул пуст → абонент создаётся прямо в вызывающем потоке (тест ждёт только в этом случае)
+ * - после прогона невыданные абоненты уходят на удаление в {@link CleanupRegistry} ({@link #close()})
+ *
+ * Настройки: qabilling.pool.enabled (true), qabilling.pool.low (4),
+ * qabilling.pool.high (12), qabilling.pool.concurrency (4).
+ */
+public class SubscriberPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriberPool.class);
+
+    /** Счётчики пула: hits - выдано готовых, misses - создано в потоке теста */
+    public record Stats(long hits, long misses, long created, long failures, int ready) { }
+
+    private static SubscriberPool shared;
+
+    private final Supplier<ProfileDto> profiles;
+    private final Function<ProfileDto, Subscriber> creator;
+    private final int low;
+    private final int high;
+    private final int concurrency;
+    private final LinkedBlockingQueue<Subscriber> ready = new LinkedBlockingQueue<>();
+    private final ExecutorService fillers;
+    private final AtomicInteger activeFillers = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean closed;
+
+    public SubscriberPool(Supplier<ProfileDto> profiles, Function<ProfileDto, Subscriber> creator,
+                          int low, int high, int concurrency) {
+        if (low < 0 || high < low || concurrency < 1) {
+            throw new IllegalArgumentException("Нужно 0 <= low <= high и concurrency >= 1");
+        }
+        this.profiles = profiles;
+        this.creator = creator;
+        this.low = low;
+        this.high = high;
+        this.concurrency = concurrency;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.fillers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "subscriber-pool-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Общий пул на прогон (создаёт через API, данные - TestDataGenerator.Profile.valid())
+     */
+    public static synchronized SubscriberPool shared() {
+        if (shared == null) {
+            shared = new SubscriberPool(TestDataGenerator.Profile::valid, SubscriberFixtures::create,
+                Integer.getInteger("qabilling.pool.low", 4),
+                Integer.getInteger("qabilling.pool.high", 12),
+                Integer.getInteger("qabilling.pool.concurrency", 4));
+        }
+        return shared;
+    }
+
+    /**
+     * Закрыть общий пул, если он создавался (после прогона)
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("qabilling.pool.enabled", "true"));
+    }
+
+    /**
+     * Начать заполнение до high (например, при старте прогона)
+     */
+    public void prefill() {
+        startFillers(high);
+    }
+
+    /**
+     * Выдать абонента: готового из пула или (если пул пуст) созданного сейчас
+     */
+    public Subscriber lease() {
+        Subscriber subscriber = ready.poll();
+        if (ready.size() + pending.get() < low) {
+            startFillers(high);
+        }
+        if (subscriber != null) {
+            hits.increment();
+            return subscriber;
+        }
+        misses.increment();
+        return creator.apply(profiles.get());
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), created.sum(), failures.sum(), ready.size());
+    }
+
+    private void startFillers(int target) {
+        while (!closed) {
+            int active = activeFillers.get();
+            if (active >= concurrency || ready.size() + pending.get() >= target) {
+                return;
+            }
+            if (activeFillers.compareAndSet(active, active + 1)) {
+                fillers.execute(() -> fill(target));
+            }
+        }
+    }
+
+    private void fill(int target) {
+        try {
+            while (!closed) {
+                // Резервируем место до создания, чтобы параллельные заполнители не перелили пул
+                if (ready.size() + pending.incrementAndGet() > target) {
+                    pending.decrementAndGet();
+                    return;
+                }
+                try {
+                    ready.add(creator.apply(profiles.get()));
+                    created.increment();
+                } catch (RuntimeException | AssertionError e) {
+                    // Стенд недоступен/отвечает ошибкой - не долбим его; следующий lease() попробует снова
+                    failures.increment();
+                    log.warn("Пул абонентов: не удалось создать профиль: {}", e.getMessage());
+                    return;
+                } finally {
+                    pending.decrementAndGet();
+                }
+            }
+        } finally {
+            activeFillers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Остановить заполнение и отдать невыданных абонентов на удаление
+     */
+    @Override
+    public void close() {
+        closed = true;
+        fillers.shutdown();
+        try {
+            fillers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int leftovers = 0;
+        for (Subscriber subscriber = ready.poll(); subscriber != null; subscriber = ready.poll()) {
+            CleanupRegistry.shared().registerProfile(subscriber.profileId());
+            leftovers++;
+        }
+        log.info("Пул абонентов: {}, невыданных на удаление: {}", stats(), leftovers);
+    }
+}
@@ -0,0 +1,63 @@
+package qabilling.core.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/**
+ * 📨 Ответ API для {@link AsyncBillingClient}: HTTP код + разобранный JSON
+ *
+ * @param method HTTP метод запроса
+ * @param uri    полный URL запроса
+ * @param status HTTP код ответа
+ * @param body   тело ответа (MissingNode, если тело пустое или не JSON)
+ */
+public record ApiResponse(String method, String uri, int status, JsonNode body) {
+
+    public ApiResponse {
+        body = body == null ? MissingNode.getInstance() : body;
+    }
+
+    /** Поле "content" обёртки {"code": ..., "content": ...} */
+    public JsonNode content() {
+        return body.path("content");
+    }
+
+    /** Поле "code" обёртки ("OK", "NOT_FOUND", ...) */
+    public String code() {
+        return body.path("code").asText(null);
+    }
+
+    /** content.id (для create - ID созданной сущности) */
+    public int contentId() {
+        JsonNode id = content().path("id");
+        if (!id.canConvertToInt()) {
+            throw new AssertionError("В ответе " + this + " нет content.id");
+        }
+        return id.asInt();
+    }
+
+    /**
+     * Проверить HTTP код (удобно в цепочке: .thenApply(r -> r.expectStatus(200)))
+     */
+    public ApiResponse expectStatus(int expected) {
+        if (status != expected) {
+            throw new AssertionError("Ожидался HTTP " + expected + ", а пришёл " + this);
+        }
+        return this;
+    }
+
+    /**
+     * Проверить, что код 2xx (стенд отвечает 201 там, где Swagger обещает 200)
+     */
+    public ApiResponse expectSuccess() {
+        if (status < 200 || status >= 300) {
+            throw new AssertionError("Ожидался HTTP 2xx, а пришёл " + this);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return status + " на " + method + " " + uri + " -> " + body;
+    }
+}
@@ -0,0 +1,296 @@
+package qabilling.core.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import qabilling.core.ApiConfig;
+import qabilling.core.assertions.ResponseSchemas;
+import qabilling.core.cassette.Cassette;
+import qabilling.core.cassette.Interaction;
+import qabilling.core.dto.BalanceDto;
+import qabilling.core.dto.BaseDto;
+import qabilling.core.dto.ProfileDto;
+import qabilling.core.jfr.HttpCallEvent;
+import qabilling.core.logging.TestLog;
+import qabilling.core.logging.TestLogRing;
+import qabilling.core.metrics.ApiMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ⚡ Неблокирующий клиент QABilling API на CompletableFuture
+ *
+ * Сценарии create → get → update → delete собираются цепочками thenCompose,
+ * и много независимых цепочек идут одновременно из одного теста без потока
+ * на цепочку: запросы отправляет JDK HttpClient (sendAsync), поток теста
+ * ждёт только итоговый join().
+ *
+ * - тела запросов - существующие DTO ({@link BaseDto#toJsonBytes()})
+ * - ответ - {@link ApiResponse}, не-2xx не считается ошибкой future (проверяй expectStatus)
+ * - задержки пишутся в общий отчёт {@link ApiMetrics}, как и у RestAssured запросов (и JFR {@link HttpCallEvent}),
+ *   кассета ({@link Cassette}) пишется и воспроизводится - всё через {@link ObservedExchange}
+ * - 2xx ответы проверяются по JSON Schema эндпоинта ({@link ResponseSchemas})
+ * - запросы, отправленные из теста, попадают в его лог в памяти ({@link TestLog})
+ * - не больше qabilling.async.maxInFlight (64) запросов одновременно, остальные ждут в очереди
+ *   (без блокировки потоков)
+ * - таймауты - те же qabilling.http.connectTimeoutMs / qabilling.http.readTimeoutMs, что у {@link HttpPool}
+ *
+ * Используй:
+ *   async().createProfile(profile)
+ *       .thenApply(created -> created.expectSuccess().contentId())
+ *       .thenCompose(id -> async().getProfile(id))
+ *       .join();
+ */
+public final class AsyncBillingClient {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static volatile AsyncBillingClient shared;
+
+    private final String baseUrl;
+    private final Supplier<String> token;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> queued = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param token источник токена (вызывается на каждый запрос - должен быть кэшем, как ApiConfig.getToken())
+     */
+    public AsyncBillingClient(String baseUrl, Supplier<String> token, Duration connectTimeout,
+                              Duration requestTimeout, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight должен быть >= 1");
+        }
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.requestTimeout = requestTimeout;
+        this.maxInFlight = maxInFlight;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .build();
+    }
+
+    /**
+     * Общий клиент на JVM (ApiConfig.BASE_URL и общий кэш токена)
+     */
+    public static AsyncBillingClient shared() {
+        AsyncBillingClient client = shared;
+        if (client == null) {
+            synchronized (AsyncBillingClient.class) {
+                if (shared == null) {
+                    shared = new AsyncBillingClient(ApiConfig.BASE_URL, ApiConfig::getToken,
+                        Duration.ofMillis(Integer.getInteger("qabilling.http.connectTimeoutMs", 5_000)),
+                        Duration.ofMillis(Integer.getInteger("qabilling.http.readTimeoutMs", 30_000)),
+                        Integer.getInteger("qabilling.async.maxInFlight", 64));
+                }
+                client = shared;
+            }
+        }
+        return client;
+    }
+
+    // =============================================
+    // АВТОРИЗАЦИЯ
+    // =============================================
+
+    /**
+     * Войти и получить JWT (без кэша - для тестов авторизации)
+     */
+    public CompletableFuture<String> signIn(String username, String password) {
+        String body = JSON.createObjectNode().put("username", username).put("password", password).toString();
+        return send("POST", "/api/auth/sign_in", body.getBytes(StandardCharsets.UTF_8), false)
+            .thenApply(response -> {
+                response.expectStatus(200);
+                String jwt = response.content().path("token").asText(response.body().path("token").asText(""));
+                if (jwt.isBlank()) {
+                    throw new AssertionError("В ответе авторизации нет токена: " + response);
+                }
+                return jwt;
+            });
+    }
+
+    // =============================================
+    // ПРОФИЛИ
+    // =============================================
+
+    public CompletableFuture<ApiResponse> createProfile(ProfileDto profile) {
+        return send("POST", "/api/admin/profile/create", profile);
+    }
+
+    public CompletableFuture<ApiResponse> getProfile(int id) {
+        return send("GET", "/api/admin/profile/" + id, null);
+    }
+
+    public CompletableFuture<ApiResponse> getProfileByMsisdn(String msisdn) {
+        return send("GET", "/api/admin/profile/getByMsisdn/" + msisdn, null);
+    }
+
+    public CompletableFuture<ApiResponse> getAllProfiles() {
+        return send("GET", "/api/admin/profile/all", null);
+    }
+
+    public CompletableFuture<ApiResponse> updateProfile(int id, ProfileDto profile) {
+        return send("PUT", "/api/admin/profile/update/" + id, profile);
+    }
+
+    public CompletableFuture<ApiResponse> deleteProfile(int id) {
+        return send("DELETE", "/api/admin/profile/delete/" + id, null);
+    }
+
+    // =============================================
+    // БАЛАНСЫ
+    // =============================================
+
+    public CompletableFuture<ApiResponse> getBalance(int id) {
+        return send("GET", "/api/balance/" + id, null);
+    }
+
+    public CompletableFuture<ApiResponse> getAllBalances() {
+        return send("GET", "/api/balance/all", null);
+    }
+
+    public CompletableFuture<ApiResponse> updateBalance(int id, BalanceDto balance) {
+        return send("PUT", "/api/balance/update/" + id, balance);
+    }
+
+    // =============================================
+    // СЧЁТЧИКИ
+    // =============================================
+
+    public CompletableFuture<ApiResponse> getCounter(int id) {
+        return send("GET", "/api/counter/" + id, null);
+    }
+
+    public CompletableFuture<ApiResponse> getActiveCounters() {
+        return send("GET", "/api/counter/active", null);
+    }
+
+    /**
+     * Авторизованный запрос с телом как есть - невалидный JSON, чужие типы полей (негативные проверки)
+     * @param path путь от базового URL, например "/api/balance/update/7"
+     */
+    public CompletableFuture<ApiResponse> raw(String method, String path, byte[] body) {
+        return send(method, path, body, true);
+    }
+
+    // =============================================
+    // ОТПРАВКА
+    // =============================================
+
+    private CompletableFuture<ApiResponse> send(String method, String path, BaseDto body) {
+        return send(method, path, body == null ? null : body.toJsonBytes(), true);
+    }
+
+    private CompletableFuture<ApiResponse> send(String method, String path, byte[] body, boolean authorized) {
+        CompletableFuture<ApiResponse> result = new CompletableFuture<>();
+        // Кольцо лога берём на потоке теста: сама отправка может уйти на поток чужого ответа
+        TestLogRing ring = TestLog.current();
+        queued.add(() -> {
+            try {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", ApiConfig.CONTENT_TYPE)
+                    .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+                if (authorized) {
+                    request.header("Authorization", "Bearer " + token.get());
+                }
+                exchange(request.build(), body, ring).whenComplete((response, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+            }
+        });
+        drain();
+        return result;
+    }
+
+    private CompletableFuture<ApiResponse> exchange(HttpRequest request, byte[] body, TestLogRing ring) {
+        String uri = request.uri().toString();
+        ObservedExchange exchange = ObservedExchange.start("async", ring, request.method(), uri,
+            request.headers().firstValue("Authorization").orElse(null), body);
+        Interaction recorded = exchange.replay();
+        if (recorded != null) {
+            return CompletableFuture.supplyAsync(() -> response(request.method(), uri, recorded.status(), recorded.body()));
+        }
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    exchange.finish(-1, 0, null, error.toString());
+                } else {
+                    exchange.finish(response.statusCode(), response.body().length, response.body(), null);
+                    exchange.record(response.statusCode(),
+                        response.headers().firstValue("Content-Type").orElse(""), response.body());
+                }
+            })
+            .thenApply(response -> response(request.method(), uri, response.statusCode(), response.body()));
+    }
+
+    /**
+     * Разобрать ответ и проверить его по JSON Schema эндпоинта (несоответствие - ошибка future)
+     */
+    private static ApiResponse response(String method, String uri, int status, byte[] body) {
+        ApiResponse response = new ApiResponse(method, uri, status, parse(body));
+        ResponseSchemas.check(method, uri, status, response.body());
+        return response;
+    }
+
+    private static JsonNode parse(byte[] body) {
+        if (body.length == 0) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return JSON.readTree(body);
+        } catch (IOException e) {
+            // Не JSON (HTML страница ошибки и т.п.) - код ответа всё равно доступен
+            return MissingNode.getInstance();
+        }
+    }
+
+    /**
+     * Запустить ожидающие запросы, пока есть свободные слоты.
+     * Вызывается и при постановке, и при завершении запроса - так очередь не зависает
+     */
+    private void drain() {
+        while (!queued.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                Runnable next = queued.poll();
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                    return;
+                }
+                next.run();
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+}
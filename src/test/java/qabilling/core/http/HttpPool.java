@@ -0,0 +1,242 @@
+package qabilling.core.http;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🔌 Общий пул keep-alive соединений для всех RestAssured запросов
+ *
+ * По умолчанию RestAssured создаёт новый HttpClient (и новое TCP соединение)
+ * почти на каждый запрос. Здесь один {@link DefaultHttpClient} с
+ * {@link PoolingClientConnectionManager} на всю JVM: соединения переиспользуются
+ * между тестами и потоками, простаивающие закрываются фоновым потоком.
+ *
+ * Настройки (системные свойства):
+ * - qabilling.http.maxPerRoute (20) / qabilling.http.maxTotal (50) - размер пула
+ * - qabilling.http.idleTimeoutSeconds (20) - закрыть соединение после простоя
+ * - qabilling.http.connectTimeoutMs (5000) / qabilling.http.readTimeoutMs (30000)
+ * - qabilling.http.poolTimeoutMs (30000) - сколько ждать свободное соединение
+ * - qabilling.http.staleCheck (true) - проверять соединение перед запросом (~1 мс)
+ *
+ * RestAssured читает тело лениво: если тест смотрит только statusCode, поток не дочитан
+ * и соединение не вернётся в пул. Поэтому последним в цепочке фильтров стоит {@link #drain()} -
+ * он читает тело один раз в буфер RestAssured, соединение освобождается до возврата ответа.
+ *
+ * Используй:
+ *   given(ApiConfig.requestSpec())                                   // пул + все фильтры (api() в BaseApiTest)
+ *   HttpPool.execute(new HttpGet(url), timeout)                     // тело потоком, без RestAssured (StreamingListAssert)
+ */
+// RestAssured 5 сам работает на API HttpClient 4 до 4.3 (DefaultHttpClient, HttpParams, ClientConnectionManager),
+// и httpClientFactory должен вернуть именно такой клиент - на новый API (HttpClientBuilder) его не перевести
+@SuppressWarnings("deprecation")
+public final class HttpPool {
+
+    /** Снимок метрик пула: текущее состояние + счётчики с начала прогона */
+    public record Stats(int leased, int idle, int pending, int maxTotal,
+                        long leases, long connectionsOpened, long waits, long waitMillis) {
+
+        /** Доля запросов, обслуженных уже открытым соединением */
+        public double reuseRatio() {
+            return leases == 0 ? 0 : 1.0 - (double) connectionsOpened / leases;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("leased=%d idle=%d pending=%d max=%d | leases=%d opened=%d reuse=%.1f%% waits=%d (%d ms)",
+                leased, idle, pending, maxTotal, leases, connectionsOpened, reuseRatio() * 100, waits, waitMillis);
+        }
+    }
+
+    private static final int MAX_PER_ROUTE = Integer.getInteger("qabilling.http.maxPerRoute", 20);
+    private static final int MAX_TOTAL = Integer.getInteger("qabilling.http.maxTotal", 50);
+    private static final long IDLE_TIMEOUT_SECONDS = Long.getLong("qabilling.http.idleTimeoutSeconds", 20);
+    private static final int CONNECT_TIMEOUT_MS = Integer.getInteger("qabilling.http.connectTimeoutMs", 5_000);
+    private static final int READ_TIMEOUT_MS = Integer.getInteger("qabilling.http.readTimeoutMs", 30_000);
+    private static final long POOL_TIMEOUT_MS = Long.getLong("qabilling.http.poolTimeoutMs", 30_000);
+    private static final boolean STALE_CHECK =
+        Boolean.parseBoolean(System.getProperty("qabilling.http.staleCheck", "true"));
+
+    private static final MeteredConnectionManager POOL = new MeteredConnectionManager(SchemeRegistryFactory.createDefault());
+    private static final DefaultHttpClient CLIENT = createClient();
+    private static final Filter DRAIN = new DrainFilter();
+    private static final RequestSpecification SPEC = new RequestSpecBuilder()
+        .setConfig(RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+            .reuseHttpClientInstance()
+            .setParam("http.connection.timeout", CONNECT_TIMEOUT_MS)
+            .setParam("http.socket.timeout", READ_TIMEOUT_MS)
+            .setParam("http.conn-manager.timeout", POOL_TIMEOUT_MS)
+            .setParam("http.connection.stalecheck", STALE_CHECK)
+            .httpClientFactory(() -> CLIENT)))
+        .build();
+
+    static {
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, IDLE_TIMEOUT_SECONDS / 2);
+        evictor.scheduleWithFixedDelay(() -> {
+            POOL.closeExpiredConnections();
+            POOL.closeIdleConnections(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    private HttpPool() {
+    }
+
+    /**
+     * Спецификация запроса с общим пулом и таймаутами
+     * (RestAssured сливает её в given(spec), сама она не меняется)
+     */
+    public static RequestSpecification spec() {
+        return SPEC;
+    }
+
+    /**
+     * RestAssured фильтр, дочитывающий тело ответа (соединение возвращается в пул).
+     * Ставится последним: фильтры снаружи (ApiMetrics) меряют запрос вместе с телом
+     */
+    public static Filter drain() {
+        return DRAIN;
+    }
+
+    /**
+     * Выполнить запрос через общий пул, не буферизуя тело: его читают потоком из getEntity().getContent().
+     * Соединение вернётся в пул, когда тело дочитано и закрыто; бросить чтение на середине - request.abort()
+     *
+     * @param readTimeout сколько ждать очередных байт ответа (зависший ответ не держит тест вечно)
+     */
+    public static HttpResponse execute(HttpUriRequest request, Duration readTimeout) throws IOException {
+        HttpParams params = request.getParams();
+        params.setIntParameter("http.connection.timeout", CONNECT_TIMEOUT_MS);
+        params.setIntParameter("http.socket.timeout", (int) readTimeout.toMillis());
+        params.setLongParameter("http.conn-manager.timeout", POOL_TIMEOUT_MS);
+        params.setBooleanParameter("http.connection.stalecheck", STALE_CHECK);
+        return CLIENT.execute(request);
+    }
+
+    /**
+     * Метрики пула (для логов и отчётов)
+     */
+    public static Stats stats() {
+        PoolStats total = POOL.getTotalStats();
+        return new Stats(total.getLeased(), total.getAvailable(), total.getPending(), total.getMax(),
+            POOL.leases.sum(), POOL.opened.sum(), POOL.waits.sum(), TimeUnit.NANOSECONDS.toMillis(POOL.waitNanos.sum()));
+    }
+
+    private static DefaultHttpClient createClient() {
+        POOL.setMaxTotal(MAX_TOTAL);
+        POOL.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        DefaultHttpClient client = new DefaultHttpClient(POOL);
+        // Держим соединение не дольше, чем его продержит evictor (и не дольше, чем просит сервер)
+        ConnectionKeepAliveStrategy serverHint = DefaultConnectionKeepAliveStrategy.INSTANCE;
+        long maxKeepAliveMs = TimeUnit.SECONDS.toMillis(IDLE_TIMEOUT_SECONDS);
+        client.setKeepAliveStrategy((response, context) -> {
+            long hint = serverHint.getKeepAliveDuration(response, context);
+            return hint > 0 ? Math.min(hint, maxKeepAliveMs) : maxKeepAliveMs;
+        });
+        return client;
+    }
+
+    /**
+     * Пул, считающий выдачи, новые TCP соединения и ожидания свободного слота
+     */
+    private static final class MeteredConnectionManager extends PoolingClientConnectionManager {
+
+        private final LongAdder leases = new LongAdder();
+        private final LongAdder opened = new LongAdder();
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        MeteredConnectionManager(SchemeRegistry schemes) {
+            super(schemes);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+            // Вызывается из конструктора super: поля ещё не готовы, обращаемся к ним только в openConnection
+            return new DefaultClientConnectionOperator(schemes) {
+                @Override
+                public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    opened.increment();
+                    super.openConnection(conn, target, local, context, params);
+                }
+            };
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            PoolStats before = getStats(route);
+            boolean mustWait = before.getAvailable() == 0 && before.getLeased() + before.getPending() >= before.getMax();
+            ClientConnectionRequest request = super.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+                @Override
+                public ManagedClientConnection getConnection(long timeout, TimeUnit unit)
+                        throws InterruptedException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.getConnection(timeout, unit);
+                    } finally {
+                        leases.increment();
+                        if (mustWait) {
+                            waits.increment();
+                            waitNanos.add(System.nanoTime() - start);
+                        }
+                    }
+                }
+
+                @Override
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+    }
+
+    private static final class DrainFilter implements Filter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification request,
+                               FilterableResponseSpecification response, FilterContext context) {
+            Response result = context.next(request, response);
+            result.asByteArray();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package qabilling.core.http;
+
+import qabilling.core.cassette.Cassette;
+import qabilling.core.cassette.Interaction;
+import qabilling.core.jfr.HttpCallEvent;
+import qabilling.core.logging.TestLog;
+import qabilling.core.logging.TestLogRing;
+import qabilling.core.metrics.ApiMetrics;
+import qabilling.core.metrics.EndpointTemplates;
+
+/**
+ * 👁️ Один HTTP обмен мимо RestAssured ({@link AsyncBillingClient}, StreamingListAssert)
+ *
+ * RestAssured запросы наблюдают фильтры; остальные клиенты проводят обмен через этот класс,
+ * чтобы вести себя так же:
+ * - кассета: ответ из неё ({@link #replay}) или запись ответа ({@link #record})
+ * - задержка - в {@link ApiMetrics} и JFR {@link HttpCallEvent}, обмен - в кольцо {@link TestLog}
+ *
+ * Используй:
+ *   ObservedExchange exchange = ObservedExchange.start("async", ring, "GET", uri, authorization, null);
+ *   Interaction recorded = exchange.replay();   // не null - ответ из кассеты, в сеть не идём
+ *   ...отправка...
+ *   exchange.finish(status, body.length, body, null);
+ *   exchange.record(status, contentType, body);
+ */
+public final class ObservedExchange {
+
+    private final String client;
+    private final TestLogRing ring;
+    private final String method;
+    private final String uri;
+    private final byte[] requestBody;
+    private final Cassette cassette;
+    private final String key;
+    private final HttpCallEvent event = new HttpCallEvent();
+    private final long start;
+
+    private ObservedExchange(String client, TestLogRing ring, String method, String uri,
+                             String authorization, byte[] requestBody) {
+        this.client = client;
+        this.ring = ring;
+        this.method = method;
+        this.uri = uri;
+        this.requestBody = requestBody;
+        this.cassette = Cassette.active();
+        this.key = cassette == null ? null : Cassette.key(method, uri, authorization, requestBody);
+        event.begin();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Начать обмен - перед отправкой, от этого момента считается задержка
+     * @param client        имя клиента для JFR ("async", "streaming")
+     * @param ring          кольцо лога теста (взять на потоке теста: ответ может прийти на чужом)
+     * @param authorization значение заголовка Authorization (часть ключа кассеты), null - без него
+     * @param requestBody   тело запроса, null - без тела
+     */
+    public static ObservedExchange start(String client, TestLogRing ring, String method, String uri,
+                                         String authorization, byte[] requestBody) {
+        return new ObservedExchange(client, ring, method, uri, authorization, requestBody);
+    }
+
+    /**
+     * Ответ из воспроизводимой кассеты (обмен сразу пишется в лог теста, метрики не трогаются)
+     * @return null - кассета не воспроизводится, запрос нужно отправить
+     */
+    public Interaction replay() {
+        if (cassette == null || !cassette.isReplaying()) {
+            return null;
+        }
+        Interaction recorded = cassette.replay(key);
+        TestLog.exchange(ring, method, uri, recorded.status(), 0, requestBody, recorded.body(), null);
+        return recorded;
+    }
+
+    /** Кассета пишется - ответ нужен целиком для {@link #record} */
+    public boolean recording() {
+        return cassette != null && !cassette.isReplaying();
+    }
+
+    /** Записать ответ в кассету (если она пишется) */
+    public void record(int status, String contentType, byte[] body) {
+        if (recording()) {
+            cassette.record(key, new Interaction(status, contentType, body));
+        }
+    }
+
+    /**
+     * Завершить обмен: задержка в метрики и JFR, обмен в лог теста
+     * @param status        HTTP код, -1 - ответа нет (транспортная ошибка)
+     * @param responseBytes сколько байт тела получено
+     * @param responseBody  тело или его начало для лога, null - нет
+     * @param error         что пошло не так, null - обмен без ошибки
+     */
+    public void finish(int status, long responseBytes, byte[] responseBody, String error) {
+        long nanos = System.nanoTime() - start;
+        String template = EndpointTemplates.of(method, uri);
+        if (status < 0) {
+            ApiMetrics.endpoint(template).recordTransportError(nanos);
+        } else {
+            ApiMetrics.endpoint(template).record(nanos, status);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.client = client;
+            event.endpoint = template;
+            event.status = status;
+            event.requestBytes = requestBody == null ? 0 : requestBody.length;
+            event.responseBytes = responseBytes;
+            event.commit();
+        }
+        TestLog.exchange(ring, method, uri, status, nanos, requestBody, responseBody, error);
+    }
+}
@@ -0,0 +1,25 @@
+package qabilling.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 🔄 JFR событие: сериализация DTO в JSON (BaseDto.toJson / toJsonBytes / writeTo)
+ */
+@Name("qabilling.DtoSerialization")
+@Label("DTO Serialization")
+@Category({"QABilling", "JSON"})
+@StackTrace(false)
+public final class DtoSerializationEvent extends Event {
+
+    @Label("DTO")
+    public String dto;
+
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+}
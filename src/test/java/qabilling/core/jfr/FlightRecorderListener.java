@@ -0,0 +1,111 @@
+package qabilling.core.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 🎥 JFR запись прогона и событие на каждый тест
+ *
+ * -Dqabilling.jfr=true - весь прогон пишется в qabilling.jfr.dir (target/jfr)/run-ГГГГММДД-ЧЧММСС.jfr:
+ * настройки JDK qabilling.jfr.settings (profile - GC, блокировки, сэмплы стеков) плюс события
+ * QABilling ({@link HttpCallEvent}, {@link TokenEvent}, {@link DtoSerializationEvent}, {@link TestMethodEvent}).
+ * Файл открывается в JDK Mission Control: рядом на одной шкале паузы GC, потоки и задержки API.
+ *
+ * Без флага события всё равно создаются, но не пишутся (shouldCommit() = false) -
+ * их подхватит и запись, начатая снаружи (-XX:StartFlightRecording, jcmd JFR.start).
+ *
+ * Стоит первым в META-INF/services: запись останавливается последней и захватывает очистку фикстур.
+ */
+public class FlightRecorderListener implements TestExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderListener.class);
+
+    private final ConcurrentMap<String, TestMethodEvent> running = new ConcurrentHashMap<>();
+    private Recording recording;
+    private Path file;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if (!Boolean.getBoolean("qabilling.jfr")) {
+            return;
+        }
+        Path directory = Path.of(System.getProperty("qabilling.jfr.dir", "target/jfr"));
+        String settings = System.getProperty("qabilling.jfr.settings", "profile");
+        try {
+            Files.createDirectories(directory);
+            file = directory.resolve("run-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT)) + ".jfr");
+            recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName("qabilling");
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.enable(HttpCallEvent.class);
+            recording.enable(TokenEvent.class);
+            recording.enable(DtoSerializationEvent.class);
+            recording.enable(TestMethodEvent.class);
+            recording.start();
+            log.info("JFR запись прогона: {} (настройки {})", file, settings);
+        } catch (IOException | ParseException e) {
+            log.warn("Не удалось начать JFR запись ({}): {}", settings, e.getMessage());
+            recording = null;
+        }
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (testIdentifier.isTest()) {
+            TestMethodEvent event = new TestMethodEvent();
+            event.begin();
+            running.put(testIdentifier.getUniqueId(), event);
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        TestMethodEvent event = running.remove(testIdentifier.getUniqueId());
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            testIdentifier.getSource()
+                .filter(MethodSource.class::isInstance)
+                .map(MethodSource.class::cast)
+                .ifPresent(method -> {
+                    event.testClass = method.getClassName();
+                    event.method = method.getMethodName();
+                });
+            event.displayName = testIdentifier.getDisplayName();
+            event.status = result.getStatus().name();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (recording == null) {
+            return;
+        }
+        // stop() сбрасывает запись в destination
+        recording.stop();
+        recording.close();
+        recording = null;
+        log.info("JFR запись сохранена: {} (открыть: jmc или jfr print --events qabilling.HttpCall {})", file, file);
+    }
+}
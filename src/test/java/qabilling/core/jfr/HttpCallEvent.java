@@ -0,0 +1,42 @@
+package qabilling.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 🛰️ JFR событие: один HTTP запрос к API (RestAssured, AsyncBillingClient или StreamingListAssert)
+ *
+ * Длительность - от отправки до получения тела ответа (то же, что пишет ApiMetrics).
+ * Стек не пишется - у RestAssured он в сотню кадров Groovy и ничего не говорит.
+ */
+@Name("qabilling.HttpCall")
+@Label("HTTP Call")
+@Category({"QABilling", "HTTP"})
+@Description("Запрос к API биллинга")
+@StackTrace(false)
+public final class HttpCallEvent extends Event {
+
+    @Label("Client")
+    public String client;
+
+    @Label("Endpoint")
+    @Description("Шаблон эндпоинта, например GET /api/balance/{id}")
+    public String endpoint;
+
+    @Label("Status")
+    @Description("HTTP код ответа, -1 - ответа нет")
+    public int status;
+
+    @Label("Request Bytes")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    public long responseBytes;
+}
@@ -0,0 +1,29 @@
+package qabilling.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 🧪 JFR событие: один тест (с @BeforeEach/@AfterEach) - фон, на котором видно HTTP, GC и блокировки
+ */
+@Name("qabilling.TestMethod")
+@Label("Test Method")
+@Category({"QABilling", "Tests"})
+@StackTrace(false)
+public final class TestMethodEvent extends Event {
+
+    @Label("Test Class")
+    public String testClass;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Display Name")
+    public String displayName;
+
+    @Label("Status")
+    public String status;
+}
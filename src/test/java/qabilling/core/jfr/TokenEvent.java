@@ -0,0 +1,27 @@
+package qabilling.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 🎫 JFR событие: получение токена (логин при промахе кэша или фоновое обновление)
+ */
+@Name("qabilling.Token")
+@Label("Token Fetch")
+@Category({"QABilling", "Auth"})
+@Description("Логин за JWT токеном в TokenCache")
+public final class TokenEvent extends Event {
+
+    @Label("Kind")
+    @Description("fetch - тест ждёт токен, refresh - обновление в фоне")
+    public String kind;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,27 @@
+package qabilling.core.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.AppenderBase;
+
+/**
+ * 🧾 Logback appender: строки лога потока теста - в его кольцо {@link TestLogRing}
+ *
+ * Сообщение не форматируется (хранятся шаблон и аргументы) - это делает
+ * только сброс кольца упавшего теста. Вне теста событие пропускается.
+ * Подключён в logback.xml как RING.
+ */
+public class RingBufferAppender extends AppenderBase<ILoggingEvent> {
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        TestLogRing ring = TestLog.current();
+        if (ring == null) {
+            return;
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        ring.line(event.getTimeStamp(), event.getLevel().toString(), event.getLoggerName(),
+            event.getMessage(), event.getArgumentArray(),
+            throwable == null ? null : throwable.getClassName() + ": " + throwable.getMessage());
+    }
+}
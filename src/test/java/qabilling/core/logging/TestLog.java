@@ -0,0 +1,108 @@
+package qabilling.core.logging;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 🧾 Подробный лог теста в памяти: запросы, ответы и DEBUG строки попадают в кольцо
+ * {@link TestLogRing} текущего теста, а на диск - только если тест упал ({@link TestLogExtension})
+ *
+ * - кольцо привязано к потоку теста; запросы без теста (фоновый пул, очистка) не пишутся
+ * - AsyncBillingClient берёт кольцо в момент отправки - ответ на чужом потоке попадёт в нужный тест
+ * - тела запросов входа не сохраняются (пароль), остальные обрезаются до qabilling.log.maxBodyBytes
+ * - выключить: -Dqabilling.log.ring=false
+ *
+ * Подключение: RestAssured - {@link #filter()} после ResponseSchemas (ответ записан до проверки схемы),
+ * AsyncBillingClient и StreamingListAssert - {@link #current()} и {@link #exchange}.
+ */
+public final class TestLog {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("qabilling.log.ring", "true"));
+    private static final int RING_SIZE = Integer.getInteger("qabilling.log.ringSize", 256);
+    private static final int MAX_BODY_BYTES = Integer.getInteger("qabilling.log.maxBodyBytes", 2048);
+
+    private static final String SIGN_IN = "/api/auth/sign_in";
+    private static final byte[] HIDDEN = "<скрыто>".getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<TestLogRing> CURRENT = new ThreadLocal<>();
+    private static final Filter FILTER = new RingFilter();
+
+    private TestLog() {
+    }
+
+    /** RestAssured фильтр: кладёт запрос и ответ в кольцо текущего теста */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Кольцо теста, идущего на этом потоке (null - не в тесте или выключено)
+     */
+    public static TestLogRing current() {
+        return CURRENT.get();
+    }
+
+    /** Сколько байт тела хранит кольцо - больше копить незачем (потоковые ответы) */
+    public static int maxBodyBytes() {
+        return MAX_BODY_BYTES;
+    }
+
+    /** Записать HTTP обмен в кольцо (ring == null - ничего не делает) */
+    public static void exchange(TestLogRing ring, String method, String uri, int status, long nanos,
+                                byte[] request, byte[] response, String error) {
+        if (ring == null) {
+            return;
+        }
+        boolean secret = uri.endsWith(SIGN_IN);
+        ring.exchange(method, uri, status, nanos, secret ? HIDDEN : request, secret ? HIDDEN : response, error);
+    }
+
+    static TestLogRing bind() {
+        TestLogRing ring = new TestLogRing(RING_SIZE, MAX_BODY_BYTES);
+        CURRENT.set(ring);
+        return ring;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    private static final class RingFilter implements Filter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification request,
+                               FilterableResponseSpecification response, FilterContext context) {
+            TestLogRing ring = CURRENT.get();
+            if (ring == null) {
+                return context.next(request, response);
+            }
+            long start = System.nanoTime();
+            Response result;
+            try {
+                result = context.next(request, response);
+            } catch (RuntimeException e) {
+                exchange(ring, request.getMethod(), request.getURI(), -1, System.nanoTime() - start,
+                    body(request.getBody()), null, e.toString());
+                throw e;
+            }
+            exchange(ring, request.getMethod(), request.getURI(), result.getStatusCode(), System.nanoTime() - start,
+                body(request.getBody()), result.asByteArray(), null);
+            return result;
+        }
+
+        private static byte[] body(Object body) {
+            if (body == null) {
+                return null;
+            }
+            if (body instanceof byte[] bytes) {
+                return bytes;
+            }
+            return body.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package qabilling.core.logging;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.TestAbortedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * 🧾 Кольцо лога на каждый тест: привязать перед @BeforeEach, разобрать после @AfterEach
+ *
+ * - тест упал: кольцо целиком - в qabilling.log.failureDir (logs/failures)/Класс#метод.log,
+ *   в общий лог - одна ERROR строка со ссылкой на файл
+ * - прошёл: одна INFO строка-сводка, по которой удобно грепать
+ *   test=ProfileApiTest#shouldDeleteProfile status=passed durationMs=41 requests=3 httpErrors=0 slowestMs=12.4
+ * - пропущен (assumeTrue, TestAbortedException): такая же строка со status=skipped, без файла
+ *
+ * Подключён в BaseApiTest (@ExtendWith).
+ */
+public class TestLogExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger log = LoggerFactory.getLogger(TestLogExtension.class);
+
+    private static final Path FAILURE_DIR = Path.of(System.getProperty("qabilling.log.failureDir", "logs/failures"));
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestLogExtension.class);
+
+    private static boolean cleared;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (TestLog.ENABLED) {
+            context.getStore(NAMESPACE).put("ring", TestLog.bind());
+            context.getStore(NAMESPACE).put("start", System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        TestLogRing ring = context.getStore(NAMESPACE).remove("ring", TestLogRing.class);
+        if (ring == null) {
+            return;
+        }
+        TestLog.unbind();
+        long millis = (System.nanoTime() - context.getStore(NAMESPACE).remove("start", Long.class)) / 1_000_000;
+        String test = context.getRequiredTestClass().getSimpleName() + "#" + context.getRequiredTestMethod().getName();
+        Throwable error = context.getExecutionException().orElse(null);
+        boolean skipped = error instanceof TestAbortedException;
+        String summary = String.format(Locale.ROOT, "test=%s status=%s durationMs=%d requests=%d httpErrors=%d slowestMs=%.1f",
+            test, error == null ? "passed" : skipped ? "skipped" : "failed", millis,
+            ring.requests(), ring.failedRequests(), ring.slowestNanos() / 1_000_000.0);
+
+        if (error == null || skipped) {
+            log.info(summary);
+            return;
+        }
+        // Повторы параметризованного теста пишутся в один файл - каждый своим блоком
+        Path file = FAILURE_DIR.resolve(test + ".log");
+        try {
+            append(file, "=== " + context.getDisplayName() + " | " + summary + "\n"
+                + error + "\n" + ring.dump() + "\n");
+            log.error("{} - подробный лог: {}", summary, file);
+        } catch (IOException e) {
+            log.error("{} - не удалось сохранить подробный лог {}: {}", summary, file, e.getMessage());
+        }
+    }
+
+    /**
+     * Первое падение в этой JVM убирает логи прошлого прогона - в каталоге только свежие падения
+     */
+    private static synchronized void append(Path file, String text) throws IOException {
+        Files.createDirectories(FAILURE_DIR);
+        if (!cleared) {
+            cleared = true;
+            try (Stream<Path> files = Files.list(FAILURE_DIR)) {
+                for (Path old : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".log"))::iterator) {
+                    Files.deleteIfExists(old);
+                }
+            }
+        }
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,143 @@
+package qabilling.core.logging;
+
+import org.slf4j.helpers.MessageFormatter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 💍 Кольцевой буфер событий одного теста: HTTP обмены и строки лога
+ *
+ * Фиксированная ёмкость - старые записи перезаписываются, память на тест ограничена.
+ * Тела обрезаются до qabilling.log.maxBodyBytes; строки лога хранятся шаблоном
+ * и аргументами и форматируются только при сбросе (то есть только если тест упал).
+ * Пишут поток теста и колбэки async-клиента - запись под коротким synchronized.
+ */
+public final class TestLogRing {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+        .withZone(ZoneId.systemDefault());
+
+    private sealed interface Entry permits Exchange, Line { }
+
+    private record Exchange(long timeMillis, String method, String uri, int status, long nanos,
+                            byte[] request, byte[] response, String error) implements Entry { }
+
+    private record Line(long timeMillis, String level, String logger, String pattern, Object[] arguments,
+                        String throwable) implements Entry { }
+
+    private final Entry[] entries;
+    private final int maxBodyBytes;
+    private long written;
+    private int requests;
+    private int failedRequests;
+    private long slowestNanos;
+
+    public TestLogRing(int capacity, int maxBodyBytes) {
+        this.entries = new Entry[capacity];
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * HTTP обмен (status -1 и error - ответа нет)
+     */
+    public void exchange(String method, String uri, int status, long nanos, byte[] request, byte[] response, String error) {
+        Exchange exchange = new Exchange(System.currentTimeMillis(), method, uri, status, nanos,
+            truncate(request), truncate(response), error);
+        synchronized (this) {
+            add(exchange);
+            requests++;
+            if (status < 0 || status >= 400) {
+                failedRequests++;
+            }
+            slowestNanos = Math.max(slowestNanos, nanos);
+        }
+    }
+
+    /** Строка лога (формат slf4j "{}" и аргументы) */
+    public void line(long timeMillis, String level, String logger, String pattern, Object[] arguments, String throwable) {
+        Line line = new Line(timeMillis, level, logger, pattern, arguments, throwable);
+        synchronized (this) {
+            add(line);
+        }
+    }
+
+    public synchronized int requests() {
+        return requests;
+    }
+
+    /** Запросов без ответа или с кодом 4xx/5xx (в негативных тестах это норма) */
+    public synchronized int failedRequests() {
+        return failedRequests;
+    }
+
+    public synchronized long slowestNanos() {
+        return slowestNanos;
+    }
+
+    /**
+     * Всё, что осталось в буфере, от старых к новым
+     */
+    public synchronized String dump() {
+        StringBuilder text = new StringBuilder();
+        int capacity = entries.length;
+        long first = Math.max(0, written - capacity);
+        if (first > 0) {
+            text.append("... ещё ").append(first).append(" ранних записей вытеснено из буфера (qabilling.log.ringSize)\n");
+        }
+        for (long i = first; i < written; i++) {
+            append(text, entries[(int) (i % capacity)]);
+        }
+        return text.toString();
+    }
+
+    private void add(Entry entry) {
+        entries[(int) (written % entries.length)] = entry;
+        written++;
+    }
+
+    private byte[] truncate(byte[] body) {
+        if (body == null || body.length <= maxBodyBytes) {
+            return body;
+        }
+        byte[] head = new byte[maxBodyBytes];
+        System.arraycopy(body, 0, head, 0, maxBodyBytes);
+        return head;
+    }
+
+    private void append(StringBuilder text, Entry entry) {
+        switch (entry) {
+            case Exchange exchange -> {
+                text.append(TIME.format(Instant.ofEpochMilli(exchange.timeMillis()))).append(" HTTP ")
+                    .append(exchange.method()).append(' ').append(exchange.uri()).append(" → ")
+                    .append(exchange.status() < 0 ? "нет ответа" : String.valueOf(exchange.status()))
+                    .append(String.format(" (%.1f мс)", exchange.nanos() / 1_000_000.0)).append('\n');
+                body(text, "  > ", exchange.request());
+                body(text, "  < ", exchange.response());
+                if (exchange.error() != null) {
+                    text.append("  ! ").append(exchange.error()).append('\n');
+                }
+            }
+            case Line line -> {
+                text.append(TIME.format(Instant.ofEpochMilli(line.timeMillis()))).append(' ')
+                    .append(String.format("[%-5s] ", line.level())).append(line.logger()).append(" - ")
+                    .append(MessageFormatter.basicArrayFormat(line.pattern(), line.arguments())).append('\n');
+                if (line.throwable() != null) {
+                    text.append("  ! ").append(line.throwable()).append('\n');
+                }
+            }
+        }
+    }
+
+    private void body(StringBuilder text, String prefix, byte[] body) {
+        if (body != null && body.length > 0) {
+            text.append(prefix).append(new String(body, StandardCharsets.UTF_8));
+            if (body.length == maxBodyBytes) {
+                text.append(" …");
+            }
+            text.append('\n');
+        }
+    }
+}
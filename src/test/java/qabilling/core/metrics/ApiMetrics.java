@@ -0,0 +1,91 @@
+package qabilling.core.metrics;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import qabilling.core.jfr.HttpCallEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 📡 Задержки API по эндпоинтам за весь прогон тестов
+ *
+ * {@link #filter()} ставится в спецификацию запросов (BaseApiTest.api()):
+ * каждый запрос приводится к шаблону ({@link EndpointTemplates}) и пишется
+ * в гистограмму своего эндпоинта. Отчёт в конце прогона пишет {@link ApiMetricsListener}.
+ * Тот же замер уходит JFR событием {@link HttpCallEvent}, если идёт запись.
+ */
+public final class ApiMetrics {
+
+    private static final ConcurrentMap<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+    private static final Filter FILTER = new LatencyFilter();
+
+    private ApiMetrics() {
+    }
+
+    /** RestAssured фильтр, замеряющий каждый запрос */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /** Метрики эндпоинта (создаются при первом запросе) */
+    public static EndpointMetrics endpoint(String template) {
+        return ENDPOINTS.computeIfAbsent(template, EndpointMetrics::new);
+    }
+
+    /** Все эндпоинты, отсортированные по шаблону */
+    public static List<EndpointMetrics> snapshot() {
+        List<EndpointMetrics> endpoints = new ArrayList<>(ENDPOINTS.values());
+        endpoints.sort(Comparator.comparing(EndpointMetrics::getEndpoint));
+        return endpoints;
+    }
+
+    public static void reset() {
+        ENDPOINTS.clear();
+    }
+
+    private static final class LatencyFilter implements Filter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification request,
+                               FilterableResponseSpecification response, FilterContext context) {
+            String template = EndpointTemplates.of(request.getMethod(), request.getURI());
+            EndpointMetrics metrics = endpoint(template);
+            HttpCallEvent event = new HttpCallEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                Response result = context.next(request, response);
+                metrics.record(System.nanoTime() - start, result.getStatusCode());
+                commit(event, template, request.getBody(), result);
+                return result;
+            } catch (Throwable e) {
+                // RestAssured (Groovy) пробрасывает и checked исключения - ловим всё и бросаем дальше как есть
+                metrics.recordTransportError(System.nanoTime() - start);
+                commit(event, template, request.getBody(), null);
+                throw e;
+            }
+        }
+
+        /** result == null - ответа нет */
+        private static void commit(HttpCallEvent event, String template, Object body, Response result) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.client = "restassured";
+                event.endpoint = template;
+                event.status = result == null ? -1 : result.getStatusCode();
+                event.requestBytes = body == null ? 0 : body instanceof byte[] bytes ? bytes.length
+                    : body.toString().getBytes(StandardCharsets.UTF_8).length;
+                event.responseBytes = result == null ? 0 : result.asByteArray().length;
+                event.commit();
+            }
+        }
+    }
+}
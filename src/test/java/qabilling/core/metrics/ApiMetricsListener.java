@@ -0,0 +1,141 @@
+package qabilling.core.metrics;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+import qabilling.core.cassette.Cassette;
+import qabilling.core.http.HttpPool;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 🏁 Отчёт по задержкам API и сравнение с базовой линией после всего прогона
+ *
+ * Подключается через META-INF/services (JUnit Platform сам находит слушателя).
+ * - замеряет длительность каждого теста ({@link TestDurations})
+ * - пишет api-metrics.{json,txt} и test-durations.tsv в -Dqabilling.metrics.reportDir (target/api-metrics)
+ * - сравнивает p95 эндпоинтов и длительности тестов с {@link PerformanceBaseline}
+ *   и пишет найденные регрессии в baseline-regressions.txt (профиль perf-gate валит по нему сборку)
+ *
+ * Настройки базовой линии:
+ * - qabilling.baseline.file (perf-baseline.tsv) - файл истории (строки по целям - ApiConfig.TARGET)
+ * - qabilling.baseline.update (false) - дописать этот прогон в историю
+ * - qabilling.baseline.window (10) - сколько последних прогонов хранить
+ * - qabilling.baseline.threshold (1.0) - допустимый рост относительно медианы (1.0 = вдвое)
+ * - qabilling.baseline.minDeltaMs (10) / qabilling.baseline.minSamples (5)
+ * - qabilling.baseline.minRequests (5) - p95 эндпоинта учитывается только при стольких запросах
+ */
+public class ApiMetricsListener implements TestExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiMetricsListener.class);
+
+    /** Файл с регрессиями последнего прогона (пустой - регрессий нет) */
+    public static final String REGRESSIONS_FILE = "baseline-regressions.txt";
+
+    private final ConcurrentMap<String, Long> startedAt = new ConcurrentHashMap<>();
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (testIdentifier.isTest()) {
+            startedAt.put(testIdentifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        Long start = startedAt.remove(testIdentifier.getUniqueId());
+        if (start == null || result.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+            return;
+        }
+        testIdentifier.getSource()
+            .filter(MethodSource.class::isInstance)
+            .map(MethodSource.class::cast)
+            .ifPresent(method -> TestDurations.record(testName(method), System.nanoTime() - start));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (ApiMetrics.snapshot().isEmpty()) {
+            return;
+        }
+        ApiMetricsReport report = new ApiMetricsReport(ApiMetrics.snapshot(), HttpPool.stats());
+        Path directory = Path.of(System.getProperty("qabilling.metrics.reportDir", "target/api-metrics"));
+        try {
+            report.writeTo(directory);
+            log.info("Задержки API по эндпоинтам ({}):{}{}", directory, System.lineSeparator(), report.toTable());
+            checkBaseline(currentRun(), directory);
+        } catch (IOException e) {
+            log.warn("Не удалось записать отчёт по задержкам в {}", directory, e);
+        }
+    }
+
+    /**
+     * Метрики этого прогона для базовой линии (мс)
+     */
+    static Map<String, Double> currentRun() {
+        int minRequests = Integer.getInteger("qabilling.baseline.minRequests", 5);
+        Map<String, Double> current = new LinkedHashMap<>();
+        for (EndpointMetrics endpoint : ApiMetrics.snapshot()) {
+            if (endpoint.getCount() >= minRequests) {
+                current.put("endpoint.p95 " + endpoint.getEndpoint(),
+                    endpoint.getLatency().getValueAtPercentile(95) / 1_000_000.0);
+            }
+        }
+        TestDurations.snapshot().forEach((test, nanos) -> current.put("test " + test, nanos / 1_000_000.0));
+        return current;
+    }
+
+    private void checkBaseline(Map<String, Double> current, Path directory) throws IOException {
+        StringBuilder durations = new StringBuilder();
+        TestDurations.snapshot().forEach((test, nanos) ->
+            durations.append(test).append('\t').append(nanos / 1_000_000).append('\n'));
+        Files.writeString(directory.resolve("test-durations.tsv"), durations, StandardCharsets.UTF_8);
+
+        Path file = Path.of(System.getProperty("qabilling.baseline.file", "perf-baseline.tsv"));
+        PerformanceBaseline baseline = PerformanceBaseline.load(file, ApiConfig.TARGET);
+        List<PerformanceBaseline.Regression> regressions = baseline.compare(current,
+            Double.parseDouble(System.getProperty("qabilling.baseline.threshold", "1.0")),
+            Double.parseDouble(System.getProperty("qabilling.baseline.minDeltaMs", "10")),
+            Integer.getInteger("qabilling.baseline.minSamples", 5));
+
+        StringBuilder text = new StringBuilder();
+        regressions.forEach(regression -> text.append(regression).append('\n'));
+        Files.writeString(directory.resolve(REGRESSIONS_FILE), text, StandardCharsets.UTF_8);
+        if (baseline.isEmpty()) {
+            log.info("Базовой линии {} для {} нет - сравнивать не с чем (создать: -Dqabilling.baseline.update=true)",
+                file, ApiConfig.TARGET);
+        } else if (regressions.isEmpty()) {
+            log.info("Регрессий производительности относительно {} ({}) нет", file, ApiConfig.TARGET);
+        } else {
+            log.warn("Регрессии производительности относительно {} ({}):{}{}", file, ApiConfig.TARGET,
+                System.lineSeparator(), text);
+        }
+
+        if (Boolean.getBoolean("qabilling.baseline.update") && Cassette.MODE == Cassette.Mode.REPLAY) {
+            // Ответы из кассеты - не задержки стенда, в историю их не пишем
+            log.warn("Прогон из кассеты - базовая линия {} не обновляется", file);
+        } else if (Boolean.getBoolean("qabilling.baseline.update")) {
+            baseline.append(current, Integer.getInteger("qabilling.baseline.window", 10));
+            baseline.save();
+            log.info("Базовая линия {} ({}) обновлена ({} метрик)", file, ApiConfig.TARGET, current.size());
+        }
+    }
+
+    private static String testName(MethodSource method) {
+        String className = method.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + method.getMethodName();
+    }
+}
@@ -0,0 +1,171 @@
+package qabilling.core.metrics;
+
+import qabilling.core.http.HttpPool;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📋 Отчёт по задержкам API за прогон тестов
+ *
+ * Для каждого шаблона эндпоинта: количество, перцентили p50/p90/p95/p99/max (мс)
+ * и разбивка по кодам ответа. JSON - для машин (сравнение с прошлыми прогонами),
+ * таблица - для людей, api-metrics.hist - сырые гистограммы, чтобы отчёты шардов
+ * можно было слить в один с точными перцентилями ({@link #read}, {@link #merge}).
+ */
+public class ApiMetricsReport {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+    private static final String RAW_FILE = "api-metrics.hist";
+    private static final String POOL_LINE = "pool";
+
+    private final List<EndpointMetrics> endpoints;
+    private final HttpPool.Stats pool;
+
+    public ApiMetricsReport(List<EndpointMetrics> endpoints, HttpPool.Stats pool) {
+        this.endpoints = endpoints;
+        this.pool = pool;
+    }
+
+    public List<EndpointMetrics> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Человекочитаемая таблица
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.US, "%-45s %7s %9s %9s %9s %9s %9s  %s%n",
+            "endpoint", "count", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms", "statuses"));
+        for (EndpointMetrics endpoint : endpoints) {
+            LatencyHistogram latency = endpoint.getLatency();
+            table.append(String.format(Locale.US, "%-45s %7d", endpoint.getEndpoint(), endpoint.getCount()));
+            for (double percentile : PERCENTILES) {
+                table.append(String.format(Locale.US, " %9.3f", millis(latency.getValueAtPercentile(percentile))));
+            }
+            table.append(String.format(Locale.US, " %9.3f  %s", millis(latency.getMax()), statuses(endpoint)));
+            table.append(System.lineSeparator());
+        }
+        table.append("HTTP pool: ").append(pool).append(System.lineSeparator());
+        return table.toString();
+    }
+
+    /**
+     * Машиночитаемый JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"endpoints\":[");
+        for (int i = 0; i < endpoints.size(); i++) {
+            EndpointMetrics endpoint = endpoints.get(i);
+            LatencyHistogram latency = endpoint.getLatency();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"endpoint\":\"").append(endpoint.getEndpoint()).append('"')
+                .append(",\"count\":").append(endpoint.getCount())
+                .append(",\"transportErrors\":").append(endpoint.getTransportErrors())
+                .append(String.format(Locale.US,
+                    ",\"latencyMs\":{\"p50\":%.3f,\"p90\":%.3f,\"p95\":%.3f,\"p99\":%.3f,\"max\":%.3f,\"mean\":%.3f}",
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(95)), millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getMax()), latency.getMean() / 1_000_000.0))
+                .append(",\"statuses\":{");
+            boolean first = true;
+            for (Map.Entry<Integer, Long> status : endpoint.getStatusCounts().entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append('"').append(status.getKey()).append("\":").append(status.getValue());
+                first = false;
+            }
+            json.append("}}");
+        }
+        json.append("],\"httpPool\":{\"leases\":").append(pool.leases())
+            .append(",\"connectionsOpened\":").append(pool.connectionsOpened())
+            .append(",\"waits\":").append(pool.waits())
+            .append(",\"waitMillis\":").append(pool.waitMillis())
+            .append("}}");
+        return json.toString();
+    }
+
+    /**
+     * Записать api-metrics.json, api-metrics.txt и api-metrics.hist в каталог
+     */
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("api-metrics.json"), toJson(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("api-metrics.txt"), toTable(), StandardCharsets.UTF_8);
+        StringBuilder raw = new StringBuilder();
+        raw.append(POOL_LINE).append('\t').append(pool.leases()).append('\t').append(pool.connectionsOpened())
+            .append('\t').append(pool.waits()).append('\t').append(pool.waitMillis()).append('\n');
+        endpoints.forEach(endpoint -> raw.append(endpoint.encode()).append('\n'));
+        Files.writeString(directory.resolve(RAW_FILE), raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Прочитать отчёт из api-metrics.hist каталога (null - файла нет)
+     */
+    public static ApiMetricsReport read(Path directory) throws IOException {
+        Path file = directory.resolve(RAW_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        List<EndpointMetrics> endpoints = new ArrayList<>();
+        HttpPool.Stats pool = new HttpPool.Stats(0, 0, 0, 0, 0, 0, 0, 0);
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith(POOL_LINE + "\t")) {
+                String[] columns = line.split("\t");
+                pool = new HttpPool.Stats(0, 0, 0, 0, Long.parseLong(columns[1]), Long.parseLong(columns[2]),
+                    Long.parseLong(columns[3]), Long.parseLong(columns[4]));
+            } else if (!line.isBlank()) {
+                endpoints.add(EndpointMetrics.decode(line));
+            }
+        }
+        return new ApiMetricsReport(endpoints, pool);
+    }
+
+    /**
+     * Слить отчёты нескольких прогонов (шардов): гистограммы и коды складываются по эндпоинтам
+     */
+    public static ApiMetricsReport merge(List<ApiMetricsReport> reports) {
+        Map<String, EndpointMetrics> merged = new TreeMap<>();
+        long leases = 0;
+        long opened = 0;
+        long waits = 0;
+        long waitMillis = 0;
+        for (ApiMetricsReport report : reports) {
+            for (EndpointMetrics endpoint : report.endpoints) {
+                merged.computeIfAbsent(endpoint.getEndpoint(), EndpointMetrics::new).add(endpoint);
+            }
+            leases += report.pool.leases();
+            opened += report.pool.connectionsOpened();
+            waits += report.pool.waits();
+            waitMillis += report.pool.waitMillis();
+        }
+        return new ApiMetricsReport(new ArrayList<>(merged.values()),
+            new HttpPool.Stats(0, 0, 0, 0, leases, opened, waits, waitMillis));
+    }
+
+    private static String statuses(EndpointMetrics endpoint) {
+        StringBuilder statuses = new StringBuilder();
+        endpoint.getStatusCounts().forEach((status, count) ->
+            statuses.append(statuses.length() == 0 ? "" : " ").append(status).append('×').append(count));
+        if (endpoint.getTransportErrors() > 0) {
+            statuses.append(statuses.length() == 0 ? "" : " ").append("io×").append(endpoint.getTransportErrors());
+        }
+        return statuses.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package qabilling.core.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 🚦 Проверка регрессий после тестов: валит сборку, если они есть
+ *
+ * Запускается профилем perf-gate в фазе verify (после surefire):
+ *   mvn verify -Pperf-gate
+ * Сами регрессии ищет {@link ApiMetricsListener}, здесь только их файл.
+ */
+public final class BaselineGate {
+
+    private static final Logger log = LoggerFactory.getLogger(BaselineGate.class);
+
+    private BaselineGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(System.getProperty("qabilling.metrics.reportDir", "target/api-metrics"));
+        Path regressions = directory.resolve(ApiMetricsListener.REGRESSIONS_FILE);
+        if (!Files.exists(regressions)) {
+            log.warn("Нет {} - тесты не запускались или базовая линия не проверялась", regressions);
+            return;
+        }
+        String found = Files.readString(regressions, StandardCharsets.UTF_8);
+        if (!found.isBlank()) {
+            throw new IllegalStateException("Регрессии производительности:" + System.lineSeparator() + found);
+        }
+        log.info("Регрессий производительности нет");
+    }
+}
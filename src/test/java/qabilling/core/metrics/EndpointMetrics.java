@@ -0,0 +1,106 @@
+package qabilling.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ⏱️ Задержки и коды ответов одного эндпоинта API за прогон тестов
+ *
+ * Всё lock-free: пишется одновременно из параллельных тестов.
+ */
+public class EndpointMetrics {
+
+    private final String endpoint;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(600);
+    private final LongAdder transportErrors = new LongAdder();
+
+    public EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long nanos, int status) {
+        latency.record(nanos);
+        if (status >= 0 && status < 600) {
+            statusCounts.incrementAndGet(status);
+        }
+    }
+
+    /** Запрос упал до получения ответа (таймаут, обрыв соединения) */
+    public void recordTransportError(long nanos) {
+        latency.record(nanos);
+        transportErrors.increment();
+    }
+
+    /**
+     * Добавить метрики того же эндпоинта из другого прогона (слияние шардов)
+     */
+    public void add(EndpointMetrics other) {
+        latency.add(other.latency);
+        for (int status = 0; status < statusCounts.length(); status++) {
+            long count = other.statusCounts.get(status);
+            if (count != 0) {
+                statusCounts.addAndGet(status, count);
+            }
+        }
+        transportErrors.add(other.getTransportErrors());
+    }
+
+    /**
+     * Строка для api-metrics.hist: эндпоинт, ошибки транспорта, коды, гистограмма - через табуляцию
+     */
+    public String encode() {
+        StringBuilder statuses = new StringBuilder();
+        getStatusCounts().forEach((status, count) ->
+            statuses.append(statuses.length() == 0 ? "" : ",").append(status).append('=').append(count));
+        return endpoint + '\t' + getTransportErrors() + '\t' + statuses + '\t' + latency.encode();
+    }
+
+    /**
+     * Обратно из {@link #encode()}
+     */
+    public static EndpointMetrics decode(String line) {
+        String[] columns = line.split("\t", -1);
+        EndpointMetrics metrics = new EndpointMetrics(columns[0]);
+        metrics.transportErrors.add(Long.parseLong(columns[1]));
+        if (!columns[2].isEmpty()) {
+            for (String status : columns[2].split(",")) {
+                int separator = status.indexOf('=');
+                metrics.statusCounts.addAndGet(Integer.parseInt(status.substring(0, separator)),
+                    Long.parseLong(status.substring(separator + 1)));
+            }
+        }
+        metrics.latency.add(LatencyHistogram.decode(columns[3]));
+        return metrics;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getTransportErrors() {
+        return transportErrors.sum();
+    }
+
+    /** Ненулевые коды ответов по возрастанию: {200=14, 404=2} */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int status = 0; status < statusCounts.length(); status++) {
+            long count = statusCounts.get(status);
+            if (count != 0) {
+                counts.put(status, count);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,62 @@
+package qabilling.core.metrics;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * 🧭 Приведение URL запроса к шаблону эндпоинта
+ *
+ * "GET http://host/api/admin/profile/42?x=1" → "GET /api/admin/profile/{id}",
+ * чтобы все запросы к одному эндпоинту попадали в одну гистограмму.
+ * - числовые сегменты и UUID → {id}
+ * - сегмент после getByMsisdn → {msisdn}
+ */
+public final class EndpointTemplates {
+
+    private static final Pattern NUMERIC = Pattern.compile("-?\\d+");
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private EndpointTemplates() {
+    }
+
+    /**
+     * @param method HTTP метод (GET, POST...)
+     * @param uri    полный URL или путь
+     * @return "METHOD /шаблон/пути"
+     */
+    public static String of(String method, String uri) {
+        return method.toUpperCase() + " " + template(path(uri));
+    }
+
+    static String template(String path) {
+        String[] segments = path.split("/");
+        StringBuilder template = new StringBuilder(path.length());
+        String previous = "";
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            if (previous.equals("getByMsisdn")) {
+                template.append("{msisdn}");
+            } else if (NUMERIC.matcher(segment).matches() || UUID.matcher(segment).matches()) {
+                template.append("{id}");
+            } else {
+                template.append(segment);
+            }
+            previous = segment;
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static String path(String uri) {
+        try {
+            String path = URI.create(uri).getRawPath();
+            return path == null ? "/" : path;
+        } catch (IllegalArgumentException e) {
+            // Невалидный URL (негативные тесты) - отрезаем хвост вручную
+            int query = uri.indexOf('?');
+            return query >= 0 ? uri.substring(0, query) : uri;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package qabilling.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📈 Lock-free гистограмма задержек в стиле HdrHistogram
+ *
+ * Значения (наносекунды) раскладываются по log-linear корзинам:
+ * 0..255 - точно, дальше 128 корзин на каждую степень двойки,
+ * то есть относительная погрешность перцентилей < 1%.
+ * Запись - один incrementAndGet в {@link AtomicLongArray}, без блокировок,
+ * поэтому одну гистограмму можно писать из тысяч виртуальных потоков.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    /**
+     * Записать значение (отрицательные считаются нулём)
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.increment();
+        totalSum.add(v);
+        max.accumulate(v);
+        min.accumulate(v);
+    }
+
+    /**
+     * Добавить все значения другой гистограммы (для слияния отчётов)
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalSum.add(other.totalSum.sum());
+        max.accumulate(other.max.get());
+        min.accumulate(other.min.get());
+    }
+
+    /**
+     * Компактная запись для слияния отчётов шардов: "sum min max индекс:число ..." (только ненулевые корзины)
+     */
+    public String encode() {
+        StringBuilder text = new StringBuilder();
+        text.append(totalSum.sum()).append(' ').append(getMin()).append(' ').append(getMax());
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = counts.get(i);
+            if (c != 0) {
+                text.append(' ').append(i).append(':').append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Обратно из {@link #encode()}
+     */
+    public static LatencyHistogram decode(String text) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String[] parts = text.trim().split(" ");
+        for (int i = 3; i < parts.length; i++) {
+            int separator = parts[i].indexOf(':');
+            long c = Long.parseLong(parts[i].substring(separator + 1));
+            histogram.counts.addAndGet(Integer.parseInt(parts[i].substring(0, separator)), c);
+            histogram.totalCount.add(c);
+        }
+        if (histogram.getCount() > 0) {
+            histogram.totalSum.add(Long.parseLong(parts[0]));
+            histogram.min.accumulate(Long.parseLong(parts[1]));
+            histogram.max.accumulate(Long.parseLong(parts[2]));
+        }
+        return histogram;
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * Значение на перцентиле (верхняя граница корзины, но не больше max)
+     * @param percentile от 0 до 100, например 99.9
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Сбросить гистограмму (не атомарно относительно одновременной записи)
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalSum.reset();
+        max.reset();
+        min.reset();
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,159 @@
+package qabilling.core.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📉 Базовая линия производительности: последние N прогонов по каждой метрике
+ *
+ * Файл - простой TSV (цель прогона, ключ, затем значения в мс через запятую, новые в конце):
+ *   embedded	endpoint.p95 POST /api/admin/profile/create	12.4,11.9,13.0
+ *   http://195.38.164.168:7173	test ProfileApiTest.shouldDeleteProfile	45.1,47.3,44.0
+ *
+ * Цель - ApiConfig.TARGET: встроенный сервер и стенд отвечают с разной скоростью, и общая
+ * медиана не годилась бы ни для того, ни для другого. Загружается история одной цели,
+ * строки остальных целей при save() переписываются как есть. Строки старого формата
+ * (без цели) отбрасываются - в них уже смешаны разные стенды.
+ *
+ * Сравнение не с одним прошлым замером, а с медианой окна:
+ * регрессия, если текущее значение больше медианы на threshold (доля)
+ * И выходит за шум - 3 робастных σ (1.4826 × MAD) и minDeltaMs.
+ * Метрики с историей короче minSamples не проверяются.
+ */
+public class PerformanceBaseline {
+
+    /** Найденная регрессия */
+    public record Regression(String key, double currentMs, double medianMs, double noiseMs, int samples) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %.3f ms vs median %.3f ms (x%.2f, noise ±%.3f ms, %d runs)",
+                key, currentMs, medianMs, currentMs / medianMs, noiseMs, samples);
+        }
+    }
+
+    private static final double MAD_TO_SIGMA = 1.4826;
+    private static final double SIGMAS = 3;
+
+    private final Path file;
+    private final String target;
+    private final Map<String, List<Double>> history;
+    private final List<String> otherTargets;
+
+    private PerformanceBaseline(Path file, String target, Map<String, List<Double>> history, List<String> otherTargets) {
+        this.file = file;
+        this.target = target;
+        this.history = history;
+        this.otherTargets = otherTargets;
+    }
+
+    /**
+     * Прочитать историю цели target из файла (если файла или цели нет - пустая история)
+     */
+    public static PerformanceBaseline load(Path file, String target) throws IOException {
+        Map<String, List<Double>> history = new TreeMap<>();
+        List<String> otherTargets = new ArrayList<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int first = line.indexOf('\t');
+                int last = line.lastIndexOf('\t');
+                if (first == last) {
+                    continue;
+                }
+                if (!line.substring(0, first).equals(target)) {
+                    otherTargets.add(line);
+                    continue;
+                }
+                List<Double> samples = new ArrayList<>();
+                for (String value : line.substring(last + 1).split(",")) {
+                    samples.add(Double.parseDouble(value));
+                }
+                history.put(line.substring(first + 1, last), samples);
+            }
+        }
+        return new PerformanceBaseline(file, target, history, otherTargets);
+    }
+
+    public boolean isEmpty() {
+        return history.isEmpty();
+    }
+
+    /**
+     * Сравнить текущий прогон с историей
+     * @param current    ключ → значение в мс
+     * @param threshold  допустимый рост относительно медианы (0.5 = +50%)
+     * @param minDeltaMs рост меньше этого не считается регрессией (шум таймера/JIT)
+     * @param minSamples минимум прогонов в истории для проверки
+     */
+    public List<Regression> compare(Map<String, Double> current, double threshold, double minDeltaMs, int minSamples) {
+        List<Regression> regressions = new ArrayList<>();
+        current.forEach((key, value) -> {
+            List<Double> samples = history.get(key);
+            if (samples == null || samples.size() < minSamples) {
+                return;
+            }
+            double[] sorted = samples.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            double median = median(sorted);
+            double noise = Math.max(minDeltaMs, SIGMAS * MAD_TO_SIGMA * mad(sorted, median));
+            if (value > median * (1 + threshold) && value - median > noise) {
+                regressions.add(new Regression(key, value, median, noise, samples.size()));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * Добавить значения прогона в историю (окно - последние window прогонов)
+     */
+    public void append(Map<String, Double> current, int window) {
+        current.forEach((key, value) -> {
+            List<Double> samples = history.computeIfAbsent(key, k -> new ArrayList<>());
+            samples.add(value);
+            while (samples.size() > window) {
+                samples.remove(0);
+            }
+        });
+    }
+
+    public void save() throws IOException {
+        StringBuilder tsv = new StringBuilder("# target\tmetric\tlast runs, ms (oldest first)\n");
+        otherTargets.forEach(line -> tsv.append(line).append('\n'));
+        history.forEach((key, samples) -> {
+            tsv.append(target).append('\t').append(key).append('\t');
+            for (int i = 0; i < samples.size(); i++) {
+                tsv.append(i == 0 ? "" : ",").append(String.format(Locale.US, "%.3f", samples.get(i)));
+            }
+            tsv.append('\n');
+        });
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, tsv, StandardCharsets.UTF_8);
+    }
+
+    static double median(double[] sorted) {
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    static double mad(double[] sorted, double median) {
+        double[] deviations = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            deviations[i] = Math.abs(sorted[i] - median);
+        }
+        Arrays.sort(deviations);
+        return median(deviations);
+    }
+}
@@ -0,0 +1,33 @@
+package qabilling.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ⏲️ Длительность каждого теста за прогон ("ProfileApiTest.shouldDeleteProfile" → нс)
+ *
+ * Заполняется {@link ApiMetricsListener}; повторы одного метода
+ * (параметризованные тесты) суммируются.
+ */
+public final class TestDurations {
+
+    private static final ConcurrentMap<String, Long> DURATIONS = new ConcurrentHashMap<>();
+
+    private TestDurations() {
+    }
+
+    public static void record(String test, long nanos) {
+        DURATIONS.merge(test, nanos, Long::sum);
+    }
+
+    /** Все тесты по алфавиту */
+    public static Map<String, Long> snapshot() {
+        return new TreeMap<>(DURATIONS);
+    }
+
+    public static void reset() {
+        DURATIONS.clear();
+    }
+}
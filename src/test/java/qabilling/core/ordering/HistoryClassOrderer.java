@@ -0,0 +1,29 @@
+package qabilling.core.ordering;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.util.Comparator;
+
+/**
+ * 🗓️ Порядок тестовых классов по истории прогонов ({@link HistorySchedule})
+ *
+ * Длительность класса - сумма его методов из {@link TestHistory}, падение - самое свежее из методов.
+ * Подключён в junit-platform.properties (junit.jupiter.testclass.order.default).
+ */
+public class HistoryClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        if (!TestHistory.isOrderingEnabled()) {
+            return;
+        }
+        TestHistory history = TestHistory.shared();
+        Comparator<ClassDescriptor> order = HistorySchedule.comparator(history,
+            descriptor -> history.testClass(descriptor.getTestClass().getName()),
+            descriptor -> descriptor.getTestClass().getName(),
+            HistorySchedule.isParallel(context::getConfigurationParameter));
+        context.getClassDescriptors().sort(order);
+    }
+}
@@ -0,0 +1,41 @@
+package qabilling.core.ordering;
+
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * 🗓️ Порядок методов внутри класса по истории прогонов ({@link HistorySchedule})
+ *
+ * Подключён в junit-platform.properties (junit.jupiter.testmethod.order.default);
+ * класс с явным @TestMethodOrder сохраняет свой порядок.
+ */
+public class HistoryMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        if (!TestHistory.isOrderingEnabled()) {
+            return;
+        }
+        TestHistory history = TestHistory.shared();
+        String className = context.getTestClass().getName();
+        Comparator<MethodDescriptor> order = HistorySchedule.comparator(history,
+            descriptor -> history.method(TestHistory.key(className, descriptor.getMethod().getName())),
+            descriptor -> descriptor.getMethod().getName(),
+            HistorySchedule.isParallel(context::getConfigurationParameter));
+        context.getMethodDescriptors().sort(order);
+    }
+
+    /**
+     * По умолчанию MethodOrderer переводит методы класса в SAME_THREAD;
+     * порядок здесь - только приоритет, параллельность из junit-platform.properties сохраняется
+     */
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,59 @@
+package qabilling.core.ordering;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 🗓️ Общее правило порядка для классов и методов по {@link TestHistory}
+ *
+ * 1. падавшие в последних qabilling.history.recentRuns (3) прогонах - сначала самые свежие падения
+ * 2. новые тесты без истории - про них ещё ничего не известно, пусть отвечают пораньше
+ * 3. остальные по длительности:
+ *    - последовательный запуск - короткие первыми (результаты, и первое падение, приходят раньше)
+ *    - параллельный - длинные первыми (LPT): короткие добивают хвост, и воркеры заканчивают вместе
+ * При равенстве - по имени, чтобы порядок был стабильным.
+ */
+final class HistorySchedule {
+
+    private static final String PARALLEL_ENABLED = "junit.jupiter.execution.parallel.enabled";
+
+    private HistorySchedule() {
+    }
+
+    /**
+     * @param entry история элемента (null - истории нет)
+     * @param name  имя для стабильного порядка
+     */
+    static <T> Comparator<T> comparator(TestHistory history, Function<T, TestHistory.Entry> entry,
+                                        Function<T, String> name, boolean parallel) {
+        int recentRuns = Integer.getInteger("qabilling.history.recentRuns", 3);
+        Comparator<T> byDuration = Comparator.comparingDouble(item -> entry.apply(item).durationMillis());
+        return Comparator.<T>comparingInt(item -> group(history, entry.apply(item), recentRuns))
+            .thenComparing((a, b) -> {
+                TestHistory.Entry left = entry.apply(a);
+                TestHistory.Entry right = entry.apply(b);
+                int group = group(history, left, recentRuns);
+                if (group == 0) {
+                    return Integer.compare(right.lastFailedRun(), left.lastFailedRun());
+                }
+                if (group == 2) {
+                    return parallel ? byDuration.compare(b, a) : byDuration.compare(a, b);
+                }
+                return 0;
+            })
+            .thenComparing(name);
+    }
+
+    /** Включён ли параллельный запуск (параметр JUnit из junit-platform.properties или -D) */
+    static boolean isParallel(Function<String, Optional<String>> configurationParameter) {
+        return configurationParameter.apply(PARALLEL_ENABLED).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    private static int group(TestHistory history, TestHistory.Entry entry, int recentRuns) {
+        if (history.failedRecently(entry, recentRuns)) {
+            return 0;
+        }
+        return entry == null ? 1 : 2;
+    }
+}
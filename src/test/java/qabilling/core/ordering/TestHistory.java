@@ -0,0 +1,231 @@
+package qabilling.core.ordering;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.cassette.Cassette;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📚 История тестов между прогонами: сколько длятся и когда падали
+ *
+ * Файл qabilling.history.file (test-history.tsv), по строке на метод:
+ *   qabilling.tests.ProfileApiTest#shouldDeleteProfile	12.5	41	37	2
+ *   ключ, длительность (мс, сглаженная), последний прогон, последнее падение (0 - не падал), число падений
+ * Первая строка - "# run N", номер последнего прогона.
+ *
+ * Пишет {@link TestHistoryListener}, читают {@link HistoryClassOrderer}, {@link HistoryMethodOrderer}
+ * и деление на шарды ({@code ShardFilter}).
+ */
+public final class TestHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(TestHistory.class);
+
+    /** Вес нового замера в сглаженной длительности */
+    private static final double SMOOTHING = 0.3;
+
+    /** Метод, которого не было столько прогонов, забывается */
+    private static final int FORGET_AFTER_RUNS = 100;
+
+    /**
+     * @param durationMillis сглаженная длительность метода (повторы параметризованного суммируются)
+     * @param lastSeenRun    последний прогон, где метод запускался
+     * @param lastFailedRun  последний прогон, где метод упал (0 - не падал)
+     * @param failures       сколько раз падал
+     */
+    public record Entry(double durationMillis, int lastSeenRun, int lastFailedRun, int failures) { }
+
+    /** Итог метода за этот прогон */
+    public record Outcome(long nanos, boolean failed) { }
+
+    private static volatile TestHistory shared;
+
+    private final Path file;
+    private final int lastRun;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> classes;
+
+    private TestHistory(Path file, int lastRun, Map<String, Entry> entries) {
+        this.file = file;
+        this.lastRun = lastRun;
+        this.entries = entries;
+        this.classes = summarizeClasses(entries);
+    }
+
+    /**
+     * История этой JVM (читается один раз)
+     */
+    public static TestHistory shared() {
+        TestHistory history = shared;
+        if (history == null) {
+            synchronized (TestHistory.class) {
+                if (shared == null) {
+                    shared = load(Path.of(System.getProperty("qabilling.history.file", "test-history.tsv")));
+                }
+                history = shared;
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Переупорядочивать ли тесты. Нет - если выключено или идёт запись/воспроизведение
+     * кассеты (там порядок запросов должен совпадать от прогона к прогону)
+     */
+    public static boolean isOrderingEnabled() {
+        return Boolean.parseBoolean(System.getProperty("qabilling.history.enabled", "true"))
+            && Cassette.MODE == Cassette.Mode.OFF;
+    }
+
+    public static TestHistory load(Path file) {
+        if (!Files.exists(file)) {
+            return new TestHistory(file, 0, new HashMap<>());
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            int lastRun = 0;
+            Map<String, Entry> entries = new HashMap<>();
+            for (String line : lines) {
+                if (line.startsWith("# run ")) {
+                    lastRun = Integer.parseInt(line.substring("# run ".length()).trim());
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                if (line.isBlank() || line.startsWith("#") || columns.length < 5) {
+                    continue;
+                }
+                entries.put(columns[0], new Entry(Double.parseDouble(columns[1]), Integer.parseInt(columns[2]),
+                    Integer.parseInt(columns[3]), Integer.parseInt(columns[4])));
+            }
+            return new TestHistory(file, lastRun, entries);
+        } catch (IOException | RuntimeException e) {
+            // Битая история не должна ронять прогон - просто начинаем заново
+            log.warn("Не удалось прочитать историю тестов {}: {}", file, e.getMessage());
+            return new TestHistory(file, 0, new HashMap<>());
+        }
+    }
+
+    /** "qabilling.tests.ProfileApiTest#shouldDeleteProfile" */
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    /** История метода (null - не запускался) */
+    public Entry method(String key) {
+        return entries.get(key);
+    }
+
+    /** Сводка по классу: сумма длительностей методов и самое свежее падение (null - не запускался) */
+    public Entry testClass(String className) {
+        return classes.get(className);
+    }
+
+    /**
+     * Падал ли тест в последних recentRuns прогонах
+     */
+    public boolean failedRecently(Entry entry, int recentRuns) {
+        return entry != null && entry.lastFailedRun() > 0 && lastRun - entry.lastFailedRun() < recentRuns;
+    }
+
+    /** Класс → (ключ метода → длительность, мс) по всей истории */
+    public Map<String, Map<String, Double>> durationsByClass() {
+        Map<String, Map<String, Double>> durations = new TreeMap<>();
+        entries.forEach((key, entry) -> {
+            int separator = key.indexOf('#');
+            if (separator > 0) {
+                durations.computeIfAbsent(key.substring(0, separator), ignored -> new TreeMap<>())
+                    .put(key, entry.durationMillis());
+            }
+        });
+        return durations;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Дописать результаты прогона и сохранить файл
+     */
+    public void record(Map<String, Outcome> outcomes) {
+        int run = lastRun + 1;
+        Map<String, Entry> updated = new TreeMap<>();
+        entries.forEach((key, entry) -> {
+            if (run - entry.lastSeenRun() <= FORGET_AFTER_RUNS) {
+                updated.put(key, entry);
+            }
+        });
+        outcomes.forEach((key, outcome) -> {
+            double millis = outcome.nanos() / 1_000_000.0;
+            Entry previous = updated.get(key);
+            double duration = previous == null ? millis : previous.durationMillis() + SMOOTHING * (millis - previous.durationMillis());
+            updated.put(key, new Entry(duration, run,
+                outcome.failed() ? run : previous == null ? 0 : previous.lastFailedRun(),
+                (previous == null ? 0 : previous.failures()) + (outcome.failed() ? 1 : 0)));
+        });
+
+        save(file, run, updated);
+    }
+
+    /**
+     * Слить истории шардов в одну: у каждого метода берётся самая свежая запись
+     * (шард, который его запускал), номер прогона - наибольший
+     */
+    public static void merge(List<Path> shards, Path target) {
+        int run = 0;
+        Map<String, Entry> merged = new TreeMap<>();
+        for (Path shard : shards) {
+            TestHistory history = load(shard);
+            run = Math.max(run, history.lastRun);
+            history.entries.forEach((key, entry) -> merged.merge(key, entry,
+                (a, b) -> b.lastSeenRun() > a.lastSeenRun()
+                    || b.lastSeenRun() == a.lastSeenRun() && b.lastFailedRun() > a.lastFailedRun() ? b : a));
+        }
+        save(target, run, merged);
+    }
+
+    private static void save(Path file, int run, Map<String, Entry> entries) {
+        StringBuilder text = new StringBuilder("# run ").append(run).append('\n');
+        entries.forEach((key, entry) -> text.append(key).append('\t')
+            .append(String.format(Locale.ROOT, "%.1f", entry.durationMillis())).append('\t')
+            .append(entry.lastSeenRun()).append('\t')
+            .append(entry.lastFailedRun()).append('\t')
+            .append(entry.failures()).append('\n'));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, text, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить историю тестов " + file, e);
+        }
+    }
+
+    private static Map<String, Entry> summarizeClasses(Map<String, Entry> entries) {
+        Map<String, Entry> classes = new HashMap<>();
+        entries.forEach((key, entry) -> {
+            int separator = key.indexOf('#');
+            if (separator > 0) {
+                classes.merge(key.substring(0, separator), entry, (a, b) -> new Entry(
+                    a.durationMillis() + b.durationMillis(),
+                    Math.max(a.lastSeenRun(), b.lastSeenRun()),
+                    Math.max(a.lastFailedRun(), b.lastFailedRun()),
+                    a.failures() + b.failures()));
+            }
+        });
+        return classes;
+    }
+}
@@ -0,0 +1,64 @@
+package qabilling.core.ordering;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.cassette.Cassette;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 📚 Записывает длительности и падения тестов в {@link TestHistory} после прогона
+ *
+ * Подключается через META-INF/services. Прерванные (aborted/assumption) тесты
+ * падением не считаются; прогон из кассеты не пишется - его длительности не настоящие.
+ */
+public class TestHistoryListener implements TestExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TestHistoryListener.class);
+
+    private final ConcurrentMap<String, Long> startedAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TestHistory.Outcome> outcomes = new ConcurrentHashMap<>();
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (testIdentifier.isTest()) {
+            startedAt.put(testIdentifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        Long start = startedAt.remove(testIdentifier.getUniqueId());
+        if (start == null || result.getStatus() == TestExecutionResult.Status.ABORTED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        boolean failed = result.getStatus() == TestExecutionResult.Status.FAILED;
+        testIdentifier.getSource()
+            .filter(MethodSource.class::isInstance)
+            .map(MethodSource.class::cast)
+            // Повторы одного метода (параметризованные) суммируются, падение любого - падение метода
+            .ifPresent(method -> outcomes.merge(TestHistory.key(method.getClassName(), method.getMethodName()),
+                new TestHistory.Outcome(nanos, failed),
+                (a, b) -> new TestHistory.Outcome(a.nanos() + b.nanos(), a.failed() || b.failed())));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (outcomes.isEmpty() || Cassette.MODE == Cassette.Mode.REPLAY
+                || !Boolean.parseBoolean(System.getProperty("qabilling.history.enabled", "true"))) {
+            return;
+        }
+        Map<String, TestHistory.Outcome> run = Map.copyOf(outcomes);
+        TestHistory.shared().record(run);
+        log.info("История тестов обновлена: {} методов, упало {}", run.size(),
+            run.values().stream().filter(TestHistory.Outcome::failed).count());
+    }
+}
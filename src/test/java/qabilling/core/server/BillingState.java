@@ -0,0 +1,145 @@
+package qabilling.core.server;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 🗄️ In-memory состояние встроенного сервера QABilling
+ *
+ * Хранит профили, балансы и счётчики в {@link ConcurrentHashMap} с индексами:
+ * - профиль по ID и по MSISDN (уникальность MSISDN проверяется атомарно)
+ * - баланс и счётчик по ID (создаются вместе с профилем, ID совпадает)
+ *
+ * Суммы хранятся в копейках (long), чтобы не терять точность на double.
+ */
+public class BillingState {
+
+    /** Паттерн MSISDN из Swagger: 99680 + 7 цифр */
+    public static final Pattern MSISDN_PATTERN = Pattern.compile("^99680\\d{7}$");
+
+    /** Существующие тарифные планы (1..5, как на стенде) */
+    public static final int MAX_PRICE_PLAN_ID = 5;
+
+    public record Profile(int id, String msisdn, int userId, int pricePlanId) { }
+
+    public record Balance(int id, long amountCents) { }
+
+    public record Counter(int id, boolean state, int megabyteCount, int secondsCount, int smsCount,
+                          String startDate, String endDate) { }
+
+    /** Результат попытки записать профиль */
+    public enum WriteResult { OK, NOT_FOUND, MSISDN_TAKEN }
+
+    private final ConcurrentMap<Integer, Profile> profiles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> profileIdsByMsisdn = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Balance> balances = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger idSequence = new AtomicInteger();
+
+    /**
+     * Создать состояние с теми же фикстурами, что и на стенде:
+     * профиль/баланс/счётчик с ID 1 и MSISDN 996800987654
+     */
+    public static BillingState seeded() {
+        BillingState state = new BillingState();
+        state.createProfile("996800987654", 1, 3);
+        return state;
+    }
+
+    /**
+     * Создать профиль вместе с балансом и счётчиком
+     * @return созданный профиль или null если MSISDN уже занят
+     */
+    public Profile createProfile(String msisdn, int userId, int pricePlanId) {
+        int id = idSequence.incrementAndGet();
+        if (profileIdsByMsisdn.putIfAbsent(msisdn, id) != null) {
+            return null;
+        }
+        Profile profile = new Profile(id, msisdn, userId, pricePlanId);
+        balances.put(id, new Balance(id, 100_00));
+        counters.put(id, new Counter(id, true, 0, 0, 0, "2025-10-01T00:00:00", "2025-10-31T23:59:59"));
+        profiles.put(id, profile);
+        return profile;
+    }
+
+    public Profile profile(int id) {
+        return profiles.get(id);
+    }
+
+    public Profile profileByMsisdn(String msisdn) {
+        Integer id = profileIdsByMsisdn.get(msisdn);
+        return id == null ? null : profiles.get(id);
+    }
+
+    public Collection<Profile> profiles() {
+        return profiles.values();
+    }
+
+    /**
+     * Обновить профиль; MSISDN переиндексируется атомарно.
+     * Запись - computeIfPresent: параллельный deleteProfile не даст «воскресить» профиль без баланса и счётчика
+     */
+    public WriteResult updateProfile(int id, String msisdn, int userId, int pricePlanId) {
+        if (!profiles.containsKey(id)) {
+            return WriteResult.NOT_FOUND;
+        }
+        Integer owner = profileIdsByMsisdn.putIfAbsent(msisdn, id);
+        if (owner != null && owner != id) {
+            return WriteResult.MSISDN_TAKEN;
+        }
+        String[] previousMsisdn = new String[1];
+        Profile updated = profiles.computeIfPresent(id, (key, current) -> {
+            previousMsisdn[0] = current.msisdn();
+            return new Profile(key, msisdn, userId, pricePlanId);
+        });
+        if (updated == null) {
+            // Профиль удалили между проверкой и записью - снимаем свою бронь MSISDN
+            if (owner == null) {
+                profileIdsByMsisdn.remove(msisdn, id);
+            }
+            return WriteResult.NOT_FOUND;
+        }
+        if (!previousMsisdn[0].equals(msisdn)) {
+            profileIdsByMsisdn.remove(previousMsisdn[0], id);
+        }
+        return WriteResult.OK;
+    }
+
+    public boolean deleteProfile(int id) {
+        Profile removed = profiles.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        profileIdsByMsisdn.remove(removed.msisdn(), id);
+        balances.remove(id);
+        counters.remove(id);
+        return true;
+    }
+
+    public Balance balance(int id) {
+        return balances.get(id);
+    }
+
+    public Collection<Balance> balances() {
+        return balances.values();
+    }
+
+    /**
+     * Установить сумму баланса
+     * @return обновлённый баланс или null если баланса нет
+     */
+    public Balance updateBalance(int id, long amountCents) {
+        return balances.computeIfPresent(id, (key, old) -> new Balance(key, amountCents));
+    }
+
+    public Counter counter(int id) {
+        return counters.get(id);
+    }
+
+    public Collection<Counter> counters() {
+        return counters.values();
+    }
+}
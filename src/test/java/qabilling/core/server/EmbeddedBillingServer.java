@@ -0,0 +1,443 @@
+package qabilling.core.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 🖥️ ВСТРОЕННЫЙ СЕРВЕР QABilling (stand-in)
+ *
+ * Поднимается внутри JVM тестов за миллисекунды и реализует те же эндпоинты,
+ * что и стенд: /api/auth/sign_in, /api/admin/profile/*, /api/balance/*, /api/counter/*.
+ * Коды ответов соответствуют Swagger (а не багам стенда из API_ISSUES_REPORT.md).
+ *
+ * - Состояние в памяти: {@link BillingState}
+ * - Каждый запрос обрабатывается в своём виртуальном потоке
+ * - Включается через -Dqabilling.baseUrl=embedded (см. {@link ApiConfig})
+ * - Первый запуск ставит на всю JVM sun.net.httpserver.nodelay=true, если свойство не задано
+ *   (см. {@link #start(int, BillingState, Duration)}); отключить: -Dsun.net.httpserver.nodelay=false
+ *
+ * Используй:
+ *   try (EmbeddedBillingServer server = EmbeddedBillingServer.start(0)) {
+ *       String url = server.getBaseUrl();
+ *   }
+ */
+public class EmbeddedBillingServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedBillingServer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration DEFAULT_TOKEN_TTL = Duration.ofHours(1);
+
+    /** Баланс хранится в копейках (long) - больше не поместится */
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(2);
+
+    private static EmbeddedBillingServer shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final BillingState state;
+    private final TokenIssuer tokens;
+
+    private EmbeddedBillingServer(HttpServer server, ExecutorService executor, BillingState state, TokenIssuer tokens) {
+        this.server = server;
+        this.executor = executor;
+        this.state = state;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Запустить сервер со стандартными фикстурами
+     * @param port порт (0 = любой свободный)
+     */
+    public static EmbeddedBillingServer start(int port) {
+        return start(port, BillingState.seeded(), DEFAULT_TOKEN_TTL);
+    }
+
+    /**
+     * Запустить сервер с заданным состоянием и временем жизни токенов
+     */
+    public static EmbeddedBillingServer start(int port, BillingState state, Duration tokenTtl) {
+        // HttpServer пишет заголовки и тело разными write(): без TCP_NODELAY на keep-alive соединении
+        // второй пакет ждёт delayed ACK клиента (~40 мс на каждый ответ). Свойство JVM-wide и читается
+        // при первом create() - действует и на другие HttpServer в этой JVM, поэтому пишем об этом в лог
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+            log.info("Встроенный сервер: sun.net.httpserver.nodelay=true для всей JVM (задай явно, чтобы изменить)");
+        }
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            EmbeddedBillingServer server = new EmbeddedBillingServer(http, executor, state, new TokenIssuer(tokenTtl));
+            http.createContext("/", server::handle);
+            http.setExecutor(executor);
+            http.start();
+            log.info("Встроенный сервер QABilling запущен: {}", server.getBaseUrl());
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось запустить встроенный сервер на порту " + port, e);
+        }
+    }
+
+    /**
+     * Общий сервер на всю JVM (запускается при первом обращении, гасится при выходе)
+     */
+    public static synchronized EmbeddedBillingServer shared() {
+        if (shared == null) {
+            shared = start(0);
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "embedded-billing-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * Остановить общий сервер, если он был запущен
+     * (поток-диспетчер HttpServer не daemon и держит JVM, например под exec:java)
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /** @return "http://127.0.0.1:<port>" */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /** Состояние сервера (для подготовки данных и проверок напрямую) */
+    public BillingState getState() {
+        return state;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // =============================================
+    // МАРШРУТИЗАЦИЯ
+    // =============================================
+
+    /** Ответ обработчика: HTTP код + JSON тело */
+    private record Reply(int status, String json) { }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Reply reply;
+            try {
+                reply = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), exchange);
+            } catch (BadRequest e) {
+                reply = error(400, "BAD_REQUEST", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                reply = error(500, "INTERNAL_ERROR", "Internal server error");
+            }
+            byte[] body = reply.json().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(reply.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Reply route(String method, String path, HttpExchange exchange) throws IOException {
+        if (path.equals("/api/auth/sign_in")) {
+            return expect(method, "POST") ? signIn(readJson(exchange)) : methodNotAllowed();
+        }
+        if (!isAuthorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            return error(401, "UNAUTHORIZED", "Full authentication is required");
+        }
+        if (path.startsWith("/api/admin/profile/")) {
+            return profileRoute(method, path.substring("/api/admin/profile/".length()), exchange);
+        }
+        if (path.startsWith("/api/balance/")) {
+            return balanceRoute(method, path.substring("/api/balance/".length()), exchange);
+        }
+        if (path.equals("/api/counter/active") || path.equals("/api/admin/counter/all-active")) {
+            return expect(method, "GET") ? activeCounters() : methodNotAllowed();
+        }
+        if (path.startsWith("/api/counter/")) {
+            return expect(method, "GET") ? counter(parseId(path.substring("/api/counter/".length()))) : methodNotAllowed();
+        }
+        return notFound("Endpoint " + path);
+    }
+
+    private Reply profileRoute(String method, String tail, HttpExchange exchange) throws IOException {
+        if (tail.equals("all")) {
+            return expect(method, "GET") ? allProfiles() : methodNotAllowed();
+        }
+        if (tail.equals("create")) {
+            return expect(method, "POST") ? createProfile(readJson(exchange)) : methodNotAllowed();
+        }
+        if (tail.startsWith("getByMsisdn/")) {
+            return expect(method, "GET") ? profileByMsisdn(tail.substring("getByMsisdn/".length())) : methodNotAllowed();
+        }
+        if (tail.startsWith("update/")) {
+            return expect(method, "PUT")
+                ? updateProfile(parseId(tail.substring("update/".length())), readJson(exchange))
+                : methodNotAllowed();
+        }
+        if (tail.startsWith("delete/")) {
+            return expect(method, "DELETE") ? deleteProfile(parseId(tail.substring("delete/".length()))) : methodNotAllowed();
+        }
+        return expect(method, "GET") ? profile(parseId(tail)) : methodNotAllowed();
+    }
+
+    private Reply balanceRoute(String method, String tail, HttpExchange exchange) throws IOException {
+        if (tail.equals("all")) {
+            return expect(method, "GET") ? allBalances() : methodNotAllowed();
+        }
+        if (tail.startsWith("update/")) {
+            return expect(method, "PUT")
+                ? updateBalance(parseId(tail.substring("update/".length())), readJson(exchange))
+                : methodNotAllowed();
+        }
+        return expect(method, "GET") ? balance(parseId(tail)) : methodNotAllowed();
+    }
+
+    // =============================================
+    // ОБРАБОТЧИКИ
+    // =============================================
+
+    private Reply signIn(JsonNode body) {
+        if (!ApiConfig.USERNAME.equals(body.path("username").asText(null))
+                || !ApiConfig.PASSWORD.equals(body.path("password").asText(null))) {
+            return error(401, "UNAUTHORIZED", "Bad credentials");
+        }
+        return ok(json -> json.append("{\"token\":\"").append(tokens.issue(ApiConfig.USERNAME)).append("\"}"));
+    }
+
+    private Reply createProfile(JsonNode body) {
+        String msisdn = requireMsisdn(body);
+        BillingState.Profile created = state.createProfile(msisdn, requireUserId(body), requirePricePlanId(body));
+        if (created == null) {
+            return error(409, "CONFLICT", "Profile with msisdn " + msisdn + " already exists");
+        }
+        return ok(json -> appendProfile(json, created));
+    }
+
+    private Reply profile(int id) {
+        BillingState.Profile profile = state.profile(id);
+        return profile == null ? notFound("Profile " + id) : ok(json -> appendProfile(json, profile));
+    }
+
+    private Reply profileByMsisdn(String msisdn) {
+        BillingState.Profile profile = state.profileByMsisdn(msisdn);
+        return profile == null ? notFound("Profile with msisdn " + msisdn) : ok(json -> appendProfile(json, profile));
+    }
+
+    private Reply allProfiles() {
+        return ok(json -> appendArray(json, state.profiles(), this::appendProfile));
+    }
+
+    private Reply updateProfile(int id, JsonNode body) {
+        String msisdn = requireMsisdn(body);
+        return switch (state.updateProfile(id, msisdn, requireUserId(body), requirePricePlanId(body))) {
+            case OK -> ok(json -> appendProfile(json, state.profile(id)));
+            case NOT_FOUND -> notFound("Profile " + id);
+            case MSISDN_TAKEN -> error(409, "CONFLICT", "Profile with msisdn " + msisdn + " already exists");
+        };
+    }
+
+    private Reply deleteProfile(int id) {
+        return state.deleteProfile(id) ? ok(json -> json.append("null")) : notFound("Profile " + id);
+    }
+
+    private Reply balance(int id) {
+        BillingState.Balance balance = state.balance(id);
+        return balance == null ? notFound("Balance " + id) : ok(json -> appendBalance(json, balance));
+    }
+
+    private Reply allBalances() {
+        return ok(json -> appendArray(json, state.balances(), this::appendBalance));
+    }
+
+    private Reply updateBalance(int id, JsonNode body) {
+        JsonNode amount = body.get("amount");
+        if (amount == null || !amount.isNumber()) {
+            throw new BadRequest("amount must be a number");
+        }
+        if (!Double.isFinite(amount.doubleValue())) {
+            // 1E+400 разбирается в Infinity, у него нет decimalValue()
+            throw new BadRequest("amount is out of range");
+        }
+        BigDecimal value = amount.decimalValue();
+        if (value.signum() < 0) {
+            throw new BadRequest("amount must be positive");
+        }
+        if (value.compareTo(MAX_AMOUNT) > 0) {
+            throw new BadRequest("amount is out of range");
+        }
+        BillingState.Balance updated = state.updateBalance(id, value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue());
+        return updated == null ? notFound("Balance " + id) : ok(json -> appendBalance(json, updated));
+    }
+
+    private Reply counter(int id) {
+        BillingState.Counter counter = state.counter(id);
+        return counter == null ? notFound("Counter " + id) : ok(json -> appendCounter(json, counter));
+    }
+
+    private Reply activeCounters() {
+        return ok(json -> appendArray(json, state.counters().stream().filter(BillingState.Counter::state).toList(),
+            this::appendCounter));
+    }
+
+    // =============================================
+    // ВАЛИДАЦИЯ И РАЗБОР ЗАПРОСА
+    // =============================================
+
+    /** Ошибка валидации запроса → 400 */
+    private static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    private static boolean expect(String method, String expected) {
+        return expected.equals(method);
+    }
+
+    private boolean isAuthorized(String header) {
+        return header != null && header.startsWith("Bearer ") && tokens.isValid(header.substring(7));
+    }
+
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonNode node = MAPPER.readTree(in);
+            if (node == null || !node.isObject()) {
+                throw new BadRequest("Request body must be a JSON object");
+            }
+            return node;
+        } catch (JsonProcessingException | CharConversionException e) {
+            // CharConversionException - байты не в UTF-8/16/32 (например, \0\0 в начале принят за UTF-32)
+            throw new BadRequest("Malformed JSON");
+        }
+    }
+
+    private static int parseId(String raw) {
+        try {
+            return Integer.parseInt(raw);
+        } catch (NumberFormatException e) {
+            throw new BadRequest("Invalid id: " + raw);
+        }
+    }
+
+    private static String requireMsisdn(JsonNode body) {
+        JsonNode msisdn = body.get("msisdn");
+        if (msisdn == null || !msisdn.isTextual() || !BillingState.MSISDN_PATTERN.matcher(msisdn.asText()).matches()) {
+            throw new BadRequest("msisdn must match ^99680\\d{7}$");
+        }
+        return msisdn.asText();
+    }
+
+    private static int requireUserId(JsonNode body) {
+        JsonNode userId = body.get("userId");
+        if (userId == null || !userId.isInt() || userId.asInt() <= 0) {
+            throw new BadRequest("userId must be a positive integer");
+        }
+        return userId.asInt();
+    }
+
+    private static int requirePricePlanId(JsonNode body) {
+        JsonNode pricePlanId = body.get("pricePlanId");
+        if (pricePlanId == null || !pricePlanId.isInt()
+                || pricePlanId.asInt() <= 0 || pricePlanId.asInt() > BillingState.MAX_PRICE_PLAN_ID) {
+            throw new BadRequest("pricePlanId must reference an existing price plan");
+        }
+        return pricePlanId.asInt();
+    }
+
+    // =============================================
+    // СЕРИАЛИЗАЦИЯ ОТВЕТОВ
+    // =============================================
+
+    private static Reply ok(Consumer<StringBuilder> content) {
+        StringBuilder json = new StringBuilder(128).append("{\"code\":\"OK\",\"content\":");
+        content.accept(json);
+        return new Reply(200, json.append('}').toString());
+    }
+
+    private static Reply notFound(String what) {
+        return error(404, "NOT_FOUND", what + " not found");
+    }
+
+    private static Reply methodNotAllowed() {
+        return error(405, "METHOD_NOT_ALLOWED", "Method not allowed");
+    }
+
+    private static Reply error(int status, String code, String message) {
+        // Сообщение может нести ввод клиента (msisdn, текст ошибки парсера) - экранирует Jackson
+        return new Reply(status, MAPPER.createObjectNode().put("code", code).put("message", message).toString());
+    }
+
+    private <T> void appendArray(StringBuilder json, Collection<T> items, BiConsumer<StringBuilder, T> element) {
+        json.append('[');
+        boolean first = true;
+        for (T item : items) {
+            if (!first) {
+                json.append(',');
+            }
+            element.accept(json, item);
+            first = false;
+        }
+        json.append(']');
+    }
+
+    private void appendProfile(StringBuilder json, BillingState.Profile profile) {
+        json.append("{\"id\":").append(profile.id())
+            .append(",\"msisdn\":\"").append(profile.msisdn())
+            .append("\",\"user\":{\"id\":").append(profile.userId())
+            .append("},\"pricePlan\":{\"id\":").append(profile.pricePlanId())
+            .append("}}");
+    }
+
+    private void appendBalance(StringBuilder json, BillingState.Balance balance) {
+        long cents = Math.abs(balance.amountCents());
+        json.append("{\"id\":").append(balance.id()).append(",\"amount\":");
+        if (balance.amountCents() < 0) {
+            json.append('-');
+        }
+        json.append(cents / 100).append('.');
+        if (cents % 100 < 10) {
+            json.append('0');
+        }
+        json.append(cents % 100).append('}');
+    }
+
+    private void appendCounter(StringBuilder json, BillingState.Counter counter) {
+        json.append("{\"id\":").append(counter.id())
+            .append(",\"state\":").append(counter.state())
+            .append(",\"megabyteCount\":").append(counter.megabyteCount())
+            .append(",\"secondsCount\":").append(counter.secondsCount())
+            .append(",\"smsCount\":").append(counter.smsCount())
+            .append(",\"startDate\":\"").append(counter.startDate())
+            .append("\",\"endDate\":\"").append(counter.endDate())
+            .append("\"}");
+    }
+}
@@ -0,0 +1,75 @@
+package qabilling.core.server;
+
+import qabilling.core.utils.JwtClaims;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 🎫 Выпуск и проверка JWT (HS256) для встроенного сервера
+ *
+ * Токен содержит claims sub/iat/exp, как настоящий стенд,
+ * поэтому клиентский кэш токенов может читать exp.
+ * Ключ подписи случайный и живёт столько же, сколько сервер.
+ */
+class TokenIssuer {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final String HEADER = ENCODER.encodeToString(
+        "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    TokenIssuer(Duration ttl) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.ttl = ttl;
+    }
+
+    /**
+     * Выпустить токен для пользователя
+     */
+    String issue(String subject) {
+        long now = System.currentTimeMillis() / 1000;
+        String payload = ENCODER.encodeToString(
+            ("{\"sub\":\"" + subject + "\",\"iat\":" + now + ",\"exp\":" + (now + ttl.toSeconds()) + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        String unsigned = HEADER + "." + payload;
+        return unsigned + "." + sign(unsigned);
+    }
+
+    /**
+     * Проверить подпись и срок действия токена
+     */
+    boolean isValid(String token) {
+        int lastDot = token.lastIndexOf('.');
+        if (lastDot < 0 || token.indexOf('.') == lastDot) {
+            return false;
+        }
+        String unsigned = token.substring(0, lastDot);
+        byte[] expected = sign(unsigned).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(lastDot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return false;
+        }
+        return JwtClaims.expiresAt(token) > System.currentTimeMillis() / 1000;
+    }
+
+    private String sign(String unsigned) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return ENCODER.encodeToString(mac.doFinal(unsigned.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
+    }
+}
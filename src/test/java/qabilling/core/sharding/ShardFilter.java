@@ -0,0 +1,109 @@
+package qabilling.core.sharding;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ordering.TestHistory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 🧩 Прогон только своей части тестов на одной из нескольких CI машин
+ *
+ *   mvn test -Dqabilling.shard.index=2 -Dqabilling.shard.total=4 -Dqabilling.history.file=merged/test-history.tsv
+ *
+ * - index - с 1, как CI_NODE_INDEX; total ≤ 1 - фильтр выключен
+ * - раскладка - {@link ShardPlan} по длительностям из {@link TestHistory}
+ * - у всех машин должна быть одна и та же история, иначе планы разойдутся и тесты потеряются
+ *   или пройдут дважды: qabilling.history.file обязателен и должен указывать на test-history.tsv
+ *   из {@link ShardMerge} (первый прогон - пустой файл, раскладка по хэшу); без него фильтр падает
+ * - в лог пишется SHA-256 истории - у всех шардов он должен совпасть
+ * - план строится по истории, а не по найденным тестам: surefire ищет тесты по одному классу,
+ *   и план по дереву discovery получился бы разным для каждого класса
+ * Подключается через META-INF/services/org.junit.platform.launcher.PostDiscoveryFilter,
+ * результаты шардов сливает {@link ShardMerge}.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardFilter.class);
+
+    private final int index = Integer.getInteger("qabilling.shard.index", 1) - 1;
+    private final int total = Integer.getInteger("qabilling.shard.total", 1);
+
+    private volatile ShardPlan plan;
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (total <= 1) {
+            return FilterResult.included("шардирование выключено");
+        }
+        MethodSource method = descriptor.getSource()
+            .filter(MethodSource.class::isInstance)
+            .map(MethodSource.class::cast)
+            .orElse(null);
+        if (method == null) {
+            // Контейнеры оставляем: опустевшие JUnit сам уберёт после фильтрации
+            return FilterResult.included("не метод");
+        }
+        String className = method.getClassName();
+        int shard = plan().shardOf(className, TestHistory.key(className, method.getMethodName()));
+        return shard == index
+            ? FilterResult.included("шард " + (index + 1) + "/" + total)
+            : FilterResult.excluded("шард " + (shard + 1) + "/" + total);
+    }
+
+    private ShardPlan plan() {
+        ShardPlan current = plan;
+        if (current == null) {
+            synchronized (this) {
+                if (plan == null) {
+                    plan = createPlan();
+                }
+                current = plan;
+            }
+        }
+        return current;
+    }
+
+    private ShardPlan createPlan() {
+        if (index < 0 || index >= total) {
+            throw new IllegalArgumentException("qabilling.shard.index должен быть от 1 до " + total + ", а не " + (index + 1));
+        }
+        String file = System.getProperty("qabilling.history.file");
+        if (file == null || !Files.isRegularFile(Path.of(file))) {
+            throw new IllegalStateException("Шардам нужна общая история: укажи -Dqabilling.history.file=<test-history.tsv "
+                + "из ShardMerge> (первый прогон - пустой файл), а не локальную историю машины"
+                + (file == null ? "" : "; файла " + file + " нет"));
+        }
+        String sha256 = sha256(Path.of(file));
+        TestHistory history = TestHistory.shared();
+        ShardPlan created = ShardPlan.of(history.durationsByClass(), total);
+        double max = 0;
+        for (int shard = 0; shard < total; shard++) {
+            max = Math.max(max, created.load(shard));
+        }
+        log.info("Шард {}/{}: {} классов/методов, ожидается ~{} мс (самый долгий шард ~{} мс), история {} sha256={}{}",
+            index + 1, total, created.units(index), Math.round(created.load(index)), Math.round(max), file, sha256,
+            history.isEmpty() ? " - истории нет, делим по хэшу имён классов" : "");
+        return created;
+    }
+
+    private static String sha256(Path file) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать историю " + file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
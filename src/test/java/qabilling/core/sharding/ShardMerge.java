@@ -0,0 +1,203 @@
+package qabilling.core.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import qabilling.core.metrics.ApiMetricsReport;
+import qabilling.core.ordering.TestHistory;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 🧩 Сводит результаты шардов ({@link ShardFilter}) в один отчёт
+ *
+ *   mvn test-compile exec:java -Dqabilling.runner=shard-merge -Dexec.args="target/merged shard-1 shard-2 shard-3"
+ *
+ * Каталог шарда - то, что CI сохранил с машины: surefire-reports/, api-metrics/ и test-history.tsv.
+ * В выходной каталог:
+ * - surefire-reports/TEST-*.xml - по файлу на класс, методы разделённого класса собраны вместе
+ * - api-metrics/ - отчёт по задержкам из сырых гистограмм (перцентили точные, не усреднённые)
+ *   и общий test-durations.tsv
+ * - test-history.tsv - общая история для следующего прогона (ею же делятся шарды)
+ * Падает, если в каком-то шарде есть упавшие тесты - как сборка без шардов.
+ */
+public final class ShardMerge {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMerge.class);
+
+    /** Итог шарда по surefire-отчётам */
+    private record ShardSummary(Path directory, int tests, int failures, int errors, int skipped, double seconds) { }
+
+    private ShardMerge() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Использование: ShardMerge <выходной каталог> <каталог шарда>...");
+        }
+        Path output = Path.of(args[0]);
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Path.of(args[i]));
+        }
+
+        List<ShardSummary> summaries = mergeSurefire(shards, output.resolve("surefire-reports"));
+        mergeMetrics(shards, output.resolve("api-metrics"));
+        List<Path> histories = shards.stream()
+            .map(shard -> shard.resolve("test-history.tsv"))
+            .filter(Files::exists)
+            .toList();
+        if (!histories.isEmpty()) {
+            TestHistory.merge(histories, output.resolve("test-history.tsv"));
+        }
+
+        log.info("Шарды:{}{}", System.lineSeparator(), table(summaries));
+        int failed = summaries.stream().mapToInt(summary -> summary.failures() + summary.errors()).sum();
+        if (failed > 0) {
+            throw new IllegalStateException("Упавших тестов в шардах: " + failed + " (см. " + output + ")");
+        }
+    }
+
+    private static List<ShardSummary> mergeSurefire(List<Path> shards, Path output)
+            throws IOException, ParserConfigurationException, SAXException, TransformerException {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Map<String, Document> suites = new TreeMap<>();
+        List<ShardSummary> summaries = new ArrayList<>();
+        for (Path shard : shards) {
+            int tests = 0;
+            int failures = 0;
+            int errors = 0;
+            int skipped = 0;
+            double seconds = 0;
+            Path reports = shard.resolve("surefire-reports");
+            if (Files.isDirectory(reports)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(reports, "TEST-*.xml")) {
+                    for (Path file : files) {
+                        Element suite = builder.parse(file.toFile()).getDocumentElement();
+                        tests += intAttribute(suite, "tests");
+                        failures += intAttribute(suite, "failures");
+                        errors += intAttribute(suite, "errors");
+                        skipped += intAttribute(suite, "skipped");
+                        seconds += doubleAttribute(suite, "time");
+                        merge(suites, suite);
+                    }
+                }
+            }
+            summaries.add(new ShardSummary(shard, tests, failures, errors, skipped, seconds));
+        }
+
+        Files.createDirectories(output);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+        for (Map.Entry<String, Document> suite : suites.entrySet()) {
+            transformer.transform(new DOMSource(suite.getValue()),
+                new StreamResult(output.resolve("TEST-" + suite.getKey() + ".xml").toFile()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Добавить testsuite шарда к одноимённому: счётчики и время складываются, testcase переносятся
+     */
+    private static void merge(Map<String, Document> suites, Element suite) {
+        String name = suite.getAttribute("name");
+        Document merged = suites.get(name);
+        if (merged == null) {
+            suites.put(name, suite.getOwnerDocument());
+            return;
+        }
+        Element target = merged.getDocumentElement();
+        for (String counter : List.of("tests", "failures", "errors", "skipped")) {
+            target.setAttribute(counter, String.valueOf(intAttribute(target, counter) + intAttribute(suite, counter)));
+        }
+        target.setAttribute("time", String.format(Locale.ROOT, "%.3f",
+            doubleAttribute(target, "time") + doubleAttribute(suite, "time")));
+        NodeList children = suite.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element element && "testcase".equals(element.getTagName())) {
+                target.appendChild(merged.importNode(element, true));
+            }
+        }
+    }
+
+    private static void mergeMetrics(List<Path> shards, Path output) throws IOException {
+        List<ApiMetricsReport> reports = new ArrayList<>();
+        Map<String, String> durations = new TreeMap<>();
+        for (Path shard : shards) {
+            Path directory = shard.resolve("api-metrics");
+            ApiMetricsReport report = ApiMetricsReport.read(directory);
+            if (report != null) {
+                reports.add(report);
+            }
+            Path shardDurations = directory.resolve("test-durations.tsv");
+            if (Files.exists(shardDurations)) {
+                for (String line : Files.readAllLines(shardDurations, StandardCharsets.UTF_8)) {
+                    int separator = line.indexOf('\t');
+                    if (separator > 0) {
+                        durations.put(line.substring(0, separator), line.substring(separator + 1));
+                    }
+                }
+            }
+        }
+        if (reports.isEmpty()) {
+            log.warn("Ни в одном шарде нет api-metrics/api-metrics.hist - отчёт по задержкам не собран");
+            return;
+        }
+        ApiMetricsReport merged = ApiMetricsReport.merge(reports);
+        merged.writeTo(output);
+        StringBuilder text = new StringBuilder();
+        durations.forEach((test, millis) -> text.append(test).append('\t').append(millis).append('\n'));
+        Files.writeString(output.resolve("test-durations.tsv"), text, StandardCharsets.UTF_8);
+        log.info("Задержки API по всем шардам ({}):{}{}", output, System.lineSeparator(), merged.toTable());
+    }
+
+    private static String table(List<ShardSummary> summaries) {
+        StringBuilder table = new StringBuilder(String.format(Locale.US, "%-30s %6s %8s %6s %7s %9s%n",
+            "shard", "tests", "failures", "errors", "skipped", "time s"));
+        double max = 0;
+        double sum = 0;
+        for (ShardSummary summary : summaries) {
+            table.append(String.format(Locale.US, "%-30s %6d %8d %6d %7d %9.1f%n", summary.directory(),
+                summary.tests(), summary.failures(), summary.errors(), summary.skipped(), summary.seconds()));
+            max = Math.max(max, summary.seconds());
+            sum += summary.seconds();
+        }
+        double mean = summaries.isEmpty() ? 0 : sum / summaries.size();
+        // Перекос: насколько самый долгий шард дольше среднего (0% - идеально ровно)
+        table.append(String.format(Locale.US, "перекос: %.0f%%", mean == 0 ? 0 : (max / mean - 1) * 100));
+        return table.toString();
+    }
+
+    private static int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Double.parseDouble(value.replace(",", ""));
+    }
+}
@@ -0,0 +1,112 @@
+package qabilling.core.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🧩 Раскладка тестов по шардам по длительностям из истории
+ *
+ * - единица раскладки - класс целиком (один @BeforeAll, фикстуры класса на одной машине)
+ * - класс длиннее идеальной доли шарда (сумма / число шардов) делится на методы -
+ *   иначе один медленный класс (ProfileApiTest) держит свой шард дольше остальных
+ * - единицы от длинных к коротким, каждая - в наименее загруженный шард (LPT)
+ * - при равенстве длительностей - по имени, при равной загрузке - шард с меньшим номером
+ * - тесты, которых нет в истории, - по хэшу имени класса (метода, если класс разделён)
+ * Всё детерминировано: на одной и той же истории каждая машина получает тот же план.
+ */
+public final class ShardPlan {
+
+    /** Единица раскладки: класс (method == null) или отдельный метод */
+    private record Unit(String className, String method, double millis) {
+
+        String name() {
+            return method == null ? className : method;
+        }
+    }
+
+    private final int total;
+    private final Map<String, Integer> classes = new HashMap<>();
+    private final Map<String, Integer> methods = new HashMap<>();
+    private final Set<String> split = new HashSet<>();
+    private final double[] loads;
+    private final int[] units;
+
+    private ShardPlan(int total) {
+        this.total = total;
+        this.loads = new double[total];
+        this.units = new int[total];
+    }
+
+    /**
+     * @param durations класс → (ключ метода → ожидаемая длительность, мс)
+     * @param total     число шардов
+     */
+    public static ShardPlan of(Map<String, Map<String, Double>> durations, int total) {
+        ShardPlan plan = new ShardPlan(total);
+        double sum = durations.values().stream()
+            .flatMap(methods -> methods.values().stream())
+            .mapToDouble(Double::doubleValue)
+            .sum();
+        double share = sum / total;
+
+        List<Unit> units = new ArrayList<>();
+        durations.forEach((className, methods) -> {
+            double classMillis = methods.values().stream().mapToDouble(Double::doubleValue).sum();
+            if (classMillis > share && methods.size() > 1) {
+                plan.split.add(className);
+                methods.forEach((method, millis) -> units.add(new Unit(className, method, millis)));
+            } else {
+                units.add(new Unit(className, null, classMillis));
+            }
+        });
+        units.sort(Comparator.comparingDouble(Unit::millis).reversed().thenComparing(Unit::name));
+
+        for (Unit unit : units) {
+            int shard = 0;
+            for (int i = 1; i < total; i++) {
+                if (plan.loads[i] < plan.loads[shard]) {
+                    shard = i;
+                }
+            }
+            plan.loads[shard] += unit.millis();
+            plan.units[shard]++;
+            if (unit.method() == null) {
+                plan.classes.put(unit.className(), shard);
+            } else {
+                plan.methods.put(unit.method(), shard);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Шард метода (0..total-1): свой, если класс разделён, иначе шард класса
+     */
+    public int shardOf(String className, String methodKey) {
+        Integer shard = split.contains(className) ? methods.get(methodKey) : classes.get(className);
+        if (shard != null) {
+            return shard;
+        }
+        // Нет в истории: String.hashCode одинаков на всех JVM
+        return Math.floorMod((split.contains(className) ? methodKey : className).hashCode(), total);
+    }
+
+    /** Ожидаемая длительность шарда, мс */
+    public double load(int shard) {
+        return loads[shard];
+    }
+
+    /** Сколько единиц (классов и отдельных методов) попало в шард */
+    public int units(int shard) {
+        return units[shard];
+    }
+
+    public int total() {
+        return total;
+    }
+}
@@ -0,0 +1,84 @@
+package qabilling.core.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 🧩 ShardPlan без стенда: история - карта класс → (метод → мс)
+ */
+class ShardPlanTest {
+
+    @Test
+    void shouldPackLongestClassesFirstIntoLeastLoadedShard() {
+        Map<String, Map<String, Double>> durations = new LinkedHashMap<>();
+        durations.put("A", Map.of("A#a", 50.0));
+        durations.put("B", Map.of("B#b", 40.0));
+        durations.put("C", Map.of("C#c", 30.0));
+        durations.put("D", Map.of("D#d", 20.0));
+        durations.put("E", Map.of("E#e", 10.0));
+
+        ShardPlan plan = ShardPlan.of(durations, 2);
+
+        // LPT: A→0, B→1, C→1 (40<50), D→0 (50<70), E→0 (70=70, меньший номер)
+        assertEquals(0, plan.shardOf("A", "A#a"));
+        assertEquals(1, plan.shardOf("B", "B#b"));
+        assertEquals(1, plan.shardOf("C", "C#c"));
+        assertEquals(0, plan.shardOf("D", "D#d"));
+        assertEquals(0, plan.shardOf("E", "E#e"));
+        assertEquals(80, plan.load(0));
+        assertEquals(70, plan.load(1));
+        assertEquals(3, plan.units(0));
+        assertEquals(2, plan.units(1));
+    }
+
+    @Test
+    void shouldSplitClassLongerThanShardShareIntoMethods() {
+        Map<String, Map<String, Double>> durations = new LinkedHashMap<>();
+        durations.put("Slow", Map.of("Slow#one", 60.0, "Slow#two", 50.0, "Slow#three", 40.0));
+        durations.put("Fast", Map.of("Fast#one", 10.0, "Fast#two", 10.0));
+        durations.put("Single", Map.of("Single#only", 200.0));
+
+        ShardPlan plan = ShardPlan.of(durations, 2);
+
+        // Доля шарда 185: Slow (150) короче - целиком; Single (200) длиннее, но метод один - не делится
+        assertEquals(plan.shardOf("Slow", "Slow#one"), plan.shardOf("Slow", "Slow#two"));
+        assertNotEquals(plan.shardOf("Slow", "Slow#one"), plan.shardOf("Single", "Single#only"));
+
+        durations.put("Slow", Map.of("Slow#one", 100.0, "Slow#two", 90.0, "Slow#three", 80.0));
+        durations.put("Single", Map.of("Single#only", 130.0));
+        plan = ShardPlan.of(durations, 2);
+
+        // Доля (270 + 20 + 130) / 2 = 210: Slow (270) делится, методы раскладываются по отдельности:
+        // Single 130→0, one 100→1, two 90→1, three 80→0, Fast 20→1
+        assertEquals(0, plan.shardOf("Single", "Single#only"));
+        assertEquals(1, plan.shardOf("Slow", "Slow#one"));
+        assertEquals(1, plan.shardOf("Slow", "Slow#two"));
+        assertEquals(0, plan.shardOf("Slow", "Slow#three"));
+        assertEquals(1, plan.shardOf("Fast", "Fast#one"));
+        assertEquals(210, plan.load(0));
+        assertEquals(210, plan.load(1));
+        assertEquals(5, plan.units(0) + plan.units(1), "Три метода Slow, Single и Fast целиком");
+    }
+
+    @Test
+    void shouldFallBackToNameHashForTestsMissingFromHistory() {
+        Map<String, Map<String, Double>> durations = new LinkedHashMap<>();
+        durations.put("Split", Map.of("Split#a", 100.0, "Split#b", 100.0));
+        durations.put("Known", Map.of("Known#a", 10.0));
+        ShardPlan plan = ShardPlan.of(durations, 3);
+
+        assertEquals(Math.floorMod("New".hashCode(), 3), plan.shardOf("New", "New#a"));
+        assertEquals(plan.shardOf("New", "New#a"), plan.shardOf("New", "New#b"), "Новый класс - целиком на одном шарде");
+        assertEquals(Math.floorMod("Split#new".hashCode(), 3), plan.shardOf("Split", "Split#new"),
+            "Новый метод разделённого класса - по хэшу метода");
+
+        ShardPlan empty = ShardPlan.of(Map.of(), 3);
+        assertEquals(Math.floorMod("Known".hashCode(), 3), empty.shardOf("Known", "Known#a"));
+        assertEquals(0, empty.load(0));
+    }
+}
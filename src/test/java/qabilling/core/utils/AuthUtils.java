@@ -21,7 +21,7 @@ public class AuthUtils {
             ApiConfig.PASSWORD
         );
         
-        Response response = given()
+        Response response = given(ApiConfig.requestSpec())
             .contentType("application/json")
             .body(loginPayload)
         .when()
@@ -0,0 +1,57 @@
+package qabilling.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 🔎 Чтение claims из JWT без проверки подписи
+ *
+ * Нужен только для служебных целей (узнать когда истекает токен),
+ * поэтому не тянем JWT-библиотеку, а достаём числовой claim вручную.
+ */
+public final class JwtClaims {
+
+    private JwtClaims() {
+    }
+
+    /**
+     * Получить claim exp (секунды epoch)
+     * @return значение exp или -1 если токен не JWT или claim отсутствует
+     */
+    public static long expiresAt(String token) {
+        return numericClaim(token, "exp");
+    }
+
+    /**
+     * Получить числовой claim из payload токена
+     * @return значение claim или -1 если его нет
+     */
+    public static long numericClaim(String token, String claim) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0) {
+            return -1;
+        }
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(token.substring(first + 1, second)),
+                StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        int key = payload.indexOf("\"" + claim + "\"");
+        if (key < 0) {
+            return -1;
+        }
+        int i = payload.indexOf(':', key) + 1;
+        while (i < payload.length() && Character.isWhitespace(payload.charAt(i))) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < payload.length() && Character.isDigit(payload.charAt(i)); i++, digits++) {
+            value = value * 10 + (payload.charAt(i) - '0');
+        }
+        return digits == 0 ? -1 : value;
+    }
+}
@@ -0,0 +1,180 @@
+package qabilling.core.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.jfr.TokenEvent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 🎫 Общий на процесс кэш JWT токена
+ *
+ * - Чтение без блокировок: текущий токен лежит в {@link AtomicReference}
+ * - Срок жизни берётся из claim exp ({@link JwtClaims})
+ * - За refreshAhead до истечения токен обновляется в фоне, читатели получают старый
+ * - Single-flight: одновременные промахи ждут один и тот же логин
+ * - Счётчики hit/miss/fetch/refresh для отчётов, каждый логин - JFR событие {@link TokenEvent}
+ */
+public final class TokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenCache.class);
+
+    /** Пауза перед повтором фонового обновления после ошибки */
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    /**
+     * Снимок счётчиков кэша
+     * @param fetches   логины в потоке вызывающего (токена не было или он истёк)
+     * @param refreshes фоновые обновления за refreshAhead до exp
+     */
+    public record Stats(long hits, long misses, long fetches, long refreshes, long failures) { }
+
+    /** Закэшированный токен и моменты (мс epoch), когда его обновлять и когда он истекает */
+    private record Entry(String token, long refreshAtMillis, long expiresAtMillis) { }
+
+    private final Supplier<String> loader;
+    private final long refreshAheadMillis;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Entry>> inFlight = new AtomicReference<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param loader         логин (например {@link AuthUtils#getFreshToken()})
+     * @param refreshAhead   за сколько до exp начинать фоновое обновление
+     * @param clock          источник времени в мс (подменяется в TokenCacheTest)
+     */
+    public TokenCache(Supplier<String> loader, Duration refreshAhead, LongSupplier clock) {
+        this.loader = loader;
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.clock = clock;
+    }
+
+    public TokenCache(Supplier<String> loader, Duration refreshAhead) {
+        this(loader, refreshAhead, System::currentTimeMillis);
+    }
+
+    /**
+     * Получить действующий токен
+     * Если токена нет или он истёк - ждём (общий) логин
+     */
+    public String get() {
+        Entry entry = current.get();
+        long now = clock.getAsLong();
+        if (entry != null && now < entry.expiresAtMillis()) {
+            hits.increment();
+            if (now >= entry.refreshAtMillis()) {
+                load(true);
+            }
+            return entry.token();
+        }
+        misses.increment();
+        try {
+            return load(false).join().token();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Есть ли действующий токен (без логина) */
+    public boolean hasToken() {
+        Entry entry = current.get();
+        return entry != null && clock.getAsLong() < entry.expiresAtMillis();
+    }
+
+    /** Сбросить токен - следующий get() сделает логин */
+    public void invalidate() {
+        current.set(null);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), fetches.sum(), refreshes.sum(), failures.sum());
+    }
+
+    /**
+     * Запустить логин или присоединиться к уже идущему
+     * @param background true = выполнить в виртуальном потоке, false = в текущем
+     */
+    private CompletableFuture<Entry> load(boolean background) {
+        while (true) {
+            CompletableFuture<Entry> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                // Между чтением current и CAS чужой логин мог закончиться и освободить inFlight -
+                // тогда второй логин не нужен
+                Entry loaded = current.get();
+                long now = clock.getAsLong();
+                if (loaded != null && now < (background ? loaded.refreshAtMillis() : loaded.expiresAtMillis())) {
+                    mine.complete(loaded);
+                    inFlight.compareAndSet(mine, null);
+                    return mine;
+                }
+                if (background) {
+                    Thread.ofVirtual().name("token-refresh").start(() -> runLoad(mine, true));
+                } else {
+                    runLoad(mine, false);
+                }
+                return mine;
+            }
+        }
+    }
+
+    private void runLoad(CompletableFuture<Entry> target, boolean background) {
+        TokenEvent event = new TokenEvent();
+        event.begin();
+        event.kind = background ? "refresh" : "fetch";
+        try {
+            Entry entry = toEntry(loader.get());
+            (background ? refreshes : fetches).increment();
+            current.set(entry);
+            event.success = true;
+            event.commit();
+            target.complete(entry);
+        } catch (RuntimeException e) {
+            failures.increment();
+            event.error = e.getMessage();
+            event.commit();
+            log.warn("Не удалось обновить токен: {}", e.getMessage());
+            // Старый токен ещё действует - откладываем следующую попытку, чтобы не штурмовать логин
+            Entry stale = current.get();
+            if (stale != null) {
+                current.compareAndSet(stale, new Entry(stale.token(),
+                    clock.getAsLong() + RETRY_DELAY_MILLIS, stale.expiresAtMillis()));
+            }
+            target.completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(target, null);
+        }
+    }
+
+    private Entry toEntry(String token) {
+        long expSeconds = JwtClaims.expiresAt(token);
+        if (expSeconds < 0) {
+            // Не JWT или без exp - считаем бессрочным, как раньше
+            return new Entry(token, Long.MAX_VALUE, Long.MAX_VALUE);
+        }
+        long expiresAt = expSeconds * 1000;
+        long issuedAt = clock.getAsLong();
+        // Для короткоживущих токенов обновляемся не раньше середины срока жизни
+        long refreshAt = Math.max(expiresAt - refreshAheadMillis, issuedAt + (expiresAt - issuedAt) / 2);
+        return new Entry(token, refreshAt, expiresAt);
+    }
+}
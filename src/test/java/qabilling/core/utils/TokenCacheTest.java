@@ -0,0 +1,181 @@
+package qabilling.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 🎫 TokenCache без стенда: ручные часы и логин, который считает вызовы
+ *
+ * Токены - настоящие JWT по форме (exp в payload), чтобы срок жизни шёл через {@link JwtClaims}.
+ */
+class TokenCacheTest {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final Duration REFRESH_AHEAD = Duration.ofSeconds(10);
+
+    private final AtomicLong now = new AtomicLong(START_MILLIS);
+    private final AtomicInteger logins = new AtomicInteger();
+
+    /** Логин: токен №N, истекает через TTL от текущего времени часов */
+    private String login() {
+        int number = logins.incrementAndGet();
+        long exp = (now.get() + TTL.toMillis()) / 1000;
+        String payload = "{\"sub\":\"admin\",\"n\":" + number + ",\"exp\":" + exp + "}";
+        return "eyJhbGciOiJIUzI1NiJ9."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+            + ".sig";
+    }
+
+    @Test
+    void shouldLoginOnceForConcurrentColdStart() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TokenCache cache = new TokenCache(() -> {
+            await(release);
+            return login();
+        }, REFRESH_AHEAD, now::get);
+        int threads = 16;
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(threads)) {
+            CountDownLatch started = new CountDownLatch(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.submit(() -> {
+                    started.countDown();
+                    tokens.add(cache.get());
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // Даём всем потокам дойти до общего логина и только потом его отпускаем
+            Thread.sleep(100);
+            release.countDown();
+        }
+
+        assertEquals(1, logins.get(), "Логин должен быть один на все потоки");
+        assertEquals(1, tokens.size(), "Все потоки получают один токен");
+        assertEquals(threads, cache.stats().misses());
+    }
+
+    @Test
+    void shouldNotLoginAgainWhenAnotherLoginFinishedBeforeCas() throws Exception {
+        // Поток "late" прочитал пустой кэш и застрял на часах; тем временем основной поток
+        // успел залогиниться и освободить inFlight. Проснувшись, late не должен логиниться второй раз
+        CountDownLatch lateParked = new CountDownLatch(1);
+        CountDownLatch resumeLate = new CountDownLatch(1);
+        AtomicInteger lateClockCalls = new AtomicInteger();
+        TokenCache cache = new TokenCache(this::login, REFRESH_AHEAD, () -> {
+            if (Thread.currentThread().getName().equals("late") && lateClockCalls.getAndIncrement() == 0) {
+                lateParked.countDown();
+                await(resumeLate);
+            }
+            return now.get();
+        });
+
+        String[] lateToken = new String[1];
+        Thread late = new Thread(() -> lateToken[0] = cache.get(), "late");
+        late.start();
+        assertTrue(lateParked.await(5, TimeUnit.SECONDS));
+
+        String token = cache.get();
+        resumeLate.countDown();
+        late.join(5_000);
+
+        assertEquals(1, logins.get(), "Второй логин после завершённого первого не нужен");
+        assertEquals(token, lateToken[0]);
+    }
+
+    @Test
+    void shouldRefreshAheadInBackgroundAndKeepServingOldToken() throws Exception {
+        TokenCache cache = new TokenCache(this::login, REFRESH_AHEAD, now::get);
+        String first = cache.get();
+
+        // До exp 5 с - меньше refreshAhead: ответ сразу старым токеном, логин в фоне
+        now.addAndGet(TTL.minusSeconds(5).toMillis());
+        assertEquals(first, cache.get());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (logins.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, logins.get(), "Фоновое обновление должно было случиться");
+        // Фоновый поток ставит токен сразу после логина - дожидаемся его
+        String second = first;
+        while (second.equals(first) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            second = cache.get();
+        }
+        assertTrue(!second.equals(first), "После обновления get() отдаёт новый токен");
+        assertEquals(1, cache.stats().misses(), "Обновление заранее не должно давать промахов");
+        assertEquals(1, cache.stats().fetches());
+        assertEquals(1, cache.stats().refreshes());
+    }
+
+    @Test
+    void shouldLoginInForegroundAfterExpiry() {
+        TokenCache cache = new TokenCache(this::login, REFRESH_AHEAD, now::get);
+        String first = cache.get();
+        assertTrue(cache.hasToken());
+
+        now.addAndGet(TTL.plusSeconds(1).toMillis());
+        assertTrue(!cache.hasToken(), "Токен истёк");
+
+        String second = cache.get();
+        assertTrue(!second.equals(first));
+        assertEquals(2, logins.get());
+        assertEquals(2, cache.stats().misses());
+        assertEquals(2, cache.stats().fetches());
+        assertEquals(0, cache.stats().refreshes());
+    }
+
+    @Test
+    void shouldKeepOldTokenWhenBackgroundRefreshFails() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TokenCache cache = new TokenCache(() -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IllegalStateException("стенд недоступен");
+            }
+            return login();
+        }, REFRESH_AHEAD, now::get);
+        String first = cache.get();
+
+        now.addAndGet(TTL.minusSeconds(5).toMillis());
+        Future<String> refreshed;
+        try (ExecutorService single = Executors.newSingleThreadExecutor()) {
+            refreshed = single.submit(cache::get);
+        }
+        assertEquals(first, refreshed.get());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().failures() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, cache.stats().failures());
+        assertEquals(first, cache.get(), "Пока старый токен действует, его и отдаём");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Не дождались " + latch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package qabilling.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import qabilling.core.dto.BalanceDto;
+import qabilling.core.http.ApiResponse;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.core.metrics.LatencyHistogram;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🔒 Конкурентные PUT/GET по нескольким балансам: где ломаются блокировки биллинга
+ *
+ * На каждом уровне конкуренции N держит ровно N запросов в полёте (закрытая модель:
+ * следующая операция «работника» уходит сразу после ответа на предыдущую) по небольшому
+ * набору балансов - на один баланс приходится ~N / balances одновременных операций.
+ * Каждая запись пишет уникальную сумму, вся история идёт в {@link BalanceHistory},
+ * после уровня история проверяется на lost/stale/reordered/phantom.
+ * Для уровня - пропускная способность и задержки PUT и GET отдельно.
+ *
+ * Используй:
+ *   BalanceContention contention = new BalanceContention(client, balanceIds, 0.3);
+ *   BalanceContention.Level level = contention.run(32, 5_000);
+ */
+public final class BalanceContention {
+
+    /** Итог одного уровня конкуренции */
+    public record Level(int concurrency, int operations, long elapsedNanos, LatencyHistogram writes,
+                        LatencyHistogram reads, long errors, BalanceHistory.Anomalies anomalies) {
+
+        public double operationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    private final AsyncBillingClient client;
+    private final int[] balanceIds;
+    private final double readRatio;
+
+    /**
+     * @param client    клиент с maxInFlight не меньше самого высокого уровня (иначе запросы ждут в его очереди)
+     * @param readRatio доля GET среди операций
+     */
+    public BalanceContention(AsyncBillingClient client, int[] balanceIds, double readRatio) {
+        this.client = client;
+        this.balanceIds = balanceIds.clone();
+        this.readRatio = readRatio;
+    }
+
+    public Level run(int concurrency, int operations) {
+        long[] initial = readAll();
+        long offset = 0;
+        for (long value : initial) {
+            offset = Math.max(offset, value);
+        }
+        // Суммы записей больше любого текущего значения - не спутать с исходным
+        long firstValue = offset + 100;
+
+        BalanceHistory history = new BalanceHistory(operations, initial);
+        LatencyHistogram writes = new LatencyHistogram();
+        LatencyHistogram reads = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(operations);
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            workers[i] = done;
+            next(history, firstValue, remaining, writes, reads, errors, done);
+        }
+        CompletableFuture.allOf(workers).join();
+        long elapsed = System.nanoTime() - start;
+
+        return new Level(concurrency, operations, elapsed, writes, reads, errors.sum(), history.check(readAll()));
+    }
+
+    /**
+     * Следующая операция работника; по ответу - снова next, пока операции не кончатся
+     */
+    private void next(BalanceHistory history, long firstValue, AtomicInteger remaining, LatencyHistogram writes,
+                      LatencyHistogram reads, LongAdder errors, CompletableFuture<Void> done) {
+        if (remaining.getAndDecrement() <= 0) {
+            done.complete(null);
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = history.reserve();
+        int balance = random.nextInt(balanceIds.length);
+        boolean read = random.nextDouble() < readRatio;
+        long value = firstValue + slot;
+        long begin = System.nanoTime();
+        CompletableFuture<ApiResponse> request = read
+            ? client.getBalance(balanceIds[balance])
+            : client.updateBalance(balanceIds[balance], new BalanceDto(value / 100.0));
+        long[] end = new long[1];
+        // Конец операции - сразу по ответу; разбор и следующая операция - в handleAsync,
+        // чтобы мгновенные отказы (без сети) не уходили в рекурсию next → next → ...
+        request.whenComplete((response, error) -> end[0] = System.nanoTime()).handleAsync((response, error) -> {
+            long finish = end[0];
+            boolean succeeded = error == null && response.status() < 300;
+            if (read) {
+                reads.record(finish - begin);
+                long observed = BalanceHistory.NO_VALUE;
+                if (succeeded) {
+                    try {
+                        observed = cents(response.content());
+                    } catch (RuntimeException e) {
+                        succeeded = false;
+                    }
+                }
+                history.read(slot, balance, observed, begin, finish);
+            } else {
+                writes.record(finish - begin);
+                history.write(slot, balance, value, begin, finish, succeeded);
+            }
+            if (!succeeded) {
+                errors.increment();
+            }
+            next(history, firstValue, remaining, writes, reads, errors, done);
+            return null;
+        });
+    }
+
+    private long[] readAll() {
+        long[] values = new long[balanceIds.length];
+        for (int i = 0; i < balanceIds.length; i++) {
+            values[i] = cents(client.getBalance(balanceIds[i]).join().expectStatus(200).content());
+        }
+        return values;
+    }
+
+    private static long cents(JsonNode balance) {
+        BigDecimal amount = balance.path("amount").decimalValue();
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Таблица по уровням: как пропускная способность и задержки зависят от конкуренции
+     */
+    public static String toTable(List<Level> levels, int balances) {
+        StringBuilder table = new StringBuilder(String.format(Locale.US,
+            "%11s %9s %8s %10s %9s %9s %9s %9s %7s %6s %10s %8s%n",
+            "concurrency", "per bal.", "ops", "ops/s", "PUT p50", "PUT p99", "GET p50", "GET p99",
+            "errors", "lost", "stale/reo", "phantom"));
+        for (Level level : levels) {
+            BalanceHistory.Anomalies anomalies = level.anomalies();
+            table.append(String.format(Locale.US, "%11d %9.1f %8d %10.0f %9.2f %9.2f %9.2f %9.2f %7d %6d %10s %8d%n",
+                level.concurrency(), (double) level.concurrency() / balances, level.operations(),
+                level.operationsPerSecond(),
+                millis(level.writes().getValueAtPercentile(50)), millis(level.writes().getValueAtPercentile(99)),
+                millis(level.reads().getValueAtPercentile(50)), millis(level.reads().getValueAtPercentile(99)),
+                level.errors(), anomalies.lost(), anomalies.stale() + "/" + anomalies.reordered(), anomalies.phantom()));
+        }
+        table.append("(задержки в мс)");
+        return table.toString();
+    }
+
+    /** Все уровни разом: примеры нарушений каждого уровня */
+    public static List<String> examples(List<Level> levels) {
+        List<String> examples = new ArrayList<>();
+        for (Level level : levels) {
+            level.anomalies().examples().forEach(example -> examples.add("N=" + level.concurrency() + " " + example));
+        }
+        return examples;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,100 @@
+package qabilling.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.fixtures.SubscriberFixtures;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.core.server.EmbeddedBillingServer;
+import qabilling.testdata.TestDataGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ▶️ Стресс конкурентных обновлений балансов по уровням конкуренции
+ *
+ * Запуск:
+ *   mvn test-compile exec:java -Dqabilling.runner=balance-contention -Dqabilling.contention.levels=1,8,32,128
+ *
+ * Параметры (системные свойства):
+ * - qabilling.contention.levels     - одновременных запросов на уровнях (1,4,16,64,256)
+ * - qabilling.contention.balances   - сколько балансов делят нагрузку (4)
+ * - qabilling.contention.operations - операций на уровень (5000)
+ * - qabilling.contention.readRatio  - доля GET (0.3)
+ * - qabilling.load.reportDir        - куда писать balance-contention.tsv (target/load)
+ * Падает, если на каком-то уровне найдены потерянные или переупорядоченные записи.
+ */
+public class BalanceContentionRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceContentionRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("qabilling.contention.levels", "1,4,16,64,256").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+        int balanceCount = Integer.getInteger("qabilling.contention.balances", 4);
+        int operations = Integer.getInteger("qabilling.contention.operations", 5_000);
+        double readRatio = Double.parseDouble(System.getProperty("qabilling.contention.readRatio", "0.3"));
+
+        List<Subscriber> subscribers = new ArrayList<>();
+        try {
+            int[] balanceIds = new int[balanceCount];
+            for (int i = 0; i < balanceCount; i++) {
+                Subscriber subscriber = SubscriberFixtures.create(TestDataGenerator.Profile.valid());
+                subscribers.add(subscriber);
+                balanceIds[i] = subscriber.balanceId();
+            }
+            AsyncBillingClient client = new AsyncBillingClient(ApiConfig.BASE_URL, ApiConfig::getToken,
+                Duration.ofMillis(Integer.getInteger("qabilling.http.connectTimeoutMs", 5_000)),
+                Duration.ofMillis(Integer.getInteger("qabilling.http.readTimeoutMs", 30_000)),
+                Arrays.stream(levels).max().orElse(1));
+            BalanceContention contention = new BalanceContention(client, balanceIds, readRatio);
+
+            List<BalanceContention.Level> results = new ArrayList<>();
+            for (int level : levels) {
+                BalanceContention.Level result = contention.run(level, operations);
+                results.add(result);
+                log.info(String.format(Locale.US, "N=%d: %.0f оп/с, нарушений %d", level,
+                    result.operationsPerSecond(), result.anomalies().total()));
+            }
+            String table = BalanceContention.toTable(results, balanceCount);
+            log.info("Конкуренция за балансы:{}{}", System.lineSeparator(), table);
+            Path reportDir = Path.of(System.getProperty("qabilling.load.reportDir", "target/load"));
+            Files.createDirectories(reportDir);
+            Files.writeString(reportDir.resolve("balance-contention.tsv"), tsv(results), StandardCharsets.UTF_8);
+
+            List<String> examples = BalanceContention.examples(results);
+            if (!examples.isEmpty()) {
+                throw new IllegalStateException("Нарушения согласованности балансов:" + System.lineSeparator()
+                    + String.join(System.lineSeparator(), examples));
+            }
+        } finally {
+            for (Subscriber subscriber : subscribers) {
+                SubscriberFixtures.delete(subscriber.profileId());
+            }
+            EmbeddedBillingServer.shutdownShared();
+        }
+    }
+
+    private static String tsv(List<BalanceContention.Level> results) {
+        StringBuilder tsv = new StringBuilder("concurrency\toperations\tops_per_sec\tput_p50_ms\tput_p99_ms"
+            + "\tget_p50_ms\tget_p99_ms\terrors\tlost\tstale\treordered\tphantom\n");
+        for (BalanceContention.Level level : results) {
+            tsv.append(String.format(Locale.ROOT, "%d\t%d\t%.1f\t%.3f\t%.3f\t%.3f\t%.3f\t%d\t%d\t%d\t%d\t%d%n",
+                level.concurrency(), level.operations(), level.operationsPerSecond(),
+                level.writes().getValueAtPercentile(50) / 1e6, level.writes().getValueAtPercentile(99) / 1e6,
+                level.reads().getValueAtPercentile(50) / 1e6, level.reads().getValueAtPercentile(99) / 1e6,
+                level.errors(), level.anomalies().lost(), level.anomalies().stale(),
+                level.anomalies().reordered(), level.anomalies().phantom()));
+        }
+        return tsv.toString();
+    }
+}
@@ -0,0 +1,251 @@
+package qabilling.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 📜 Точная история операций над балансами и проверка на потерянные и переупорядоченные записи
+ *
+ * Баланс - регистр: PUT записывает значение, GET его читает. Каждая запись пишет уникальную
+ * сумму, поэтому по прочитанному значению однозначно видно, какая запись его оставила.
+ * Операция - интервал [начало отправки, получение ответа]; на этом интервале
+ * проверяется линеаризуемость (то, что должен гарантировать PUT/GET с блокировкой):
+ * - lost: итоговое значение оставила запись, после завершения которой началась и
+ *   успешно закончилась другая - более поздняя запись потеряна
+ * - stale: чтение вернуло значение, перезаписанное ещё до начала чтения
+ * - reordered: чтение вернуло более старое значение, чем завершившееся до него другое чтение
+ * - phantom: прочитано значение, которого никто не писал
+ * Неуспешные записи (не 2xx, таймаут) могли примениться, а могли нет: их значения
+ * допустимы при чтении, но перезаписью других они не считаются.
+ *
+ * Всё в примитивных массивах: тысячи операций без объекта на операцию.
+ */
+public final class BalanceHistory {
+
+    private static final byte WRITE = 0;
+    private static final byte READ = 1;
+
+    /** Прочитать не удалось */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    /** Итог проверки; examples - первые несколько нарушений с подробностями */
+    public record Anomalies(int lost, int stale, int reordered, int phantom, List<String> examples) {
+
+        public int total() {
+            return lost + stale + reordered + phantom;
+        }
+    }
+
+    private static final int MAX_EXAMPLES = 10;
+
+    private final byte[] type;
+    private final int[] balance;
+    private final long[] valueCents;
+    private final long[] start;
+    private final long[] end;
+    private final boolean[] ok;
+    private final long[] initialCents;
+    private int size;
+
+    /**
+     * @param capacity     максимум операций
+     * @param initialCents значение каждого баланса до начала (индекс - номер баланса)
+     */
+    public BalanceHistory(int capacity, long[] initialCents) {
+        type = new byte[capacity];
+        balance = new int[capacity];
+        valueCents = new long[capacity];
+        start = new long[capacity];
+        end = new long[capacity];
+        ok = new boolean[capacity];
+        this.initialCents = initialCents.clone();
+    }
+
+    /** Зарезервировать место под операцию (потокобезопасно); запись - {@link #write}/{@link #read} */
+    public synchronized int reserve() {
+        if (size == type.length) {
+            throw new IllegalStateException("История заполнена: " + size + " операций");
+        }
+        return size++;
+    }
+
+    /** Запись значения value в баланс (ok - сервер подтвердил) */
+    public void write(int slot, int balanceIndex, long value, long startNanos, long endNanos, boolean succeeded) {
+        set(slot, WRITE, balanceIndex, value, startNanos, endNanos, succeeded);
+    }
+
+    /** Чтение баланса (value = {@link #NO_VALUE}, если чтение не удалось) */
+    public void read(int slot, int balanceIndex, long value, long startNanos, long endNanos) {
+        set(slot, READ, balanceIndex, value, startNanos, endNanos, value != NO_VALUE);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Проверить историю; finalCents - значения балансов после завершения всех операций
+     */
+    public synchronized Anomalies check(long[] finalCents) {
+        int lost = 0;
+        int stale = 0;
+        int reordered = 0;
+        int phantom = 0;
+        List<String> examples = new ArrayList<>();
+        for (int b = 0; b < initialCents.length; b++) {
+            Register register = new Register(b);
+            // Поздние чтения не должны видеть значения старше, чем ранее завершившиеся чтения
+            int[] reads = register.readsByEnd();
+            long[] readEnds = new long[reads.length];
+            long[] sourceStartPrefixMax = new long[reads.length];
+            long maxSourceStart = Long.MIN_VALUE;
+            for (int i = 0; i < reads.length; i++) {
+                readEnds[i] = end[reads[i]];
+                int source = register.source(valueCents[reads[i]]);
+                maxSourceStart = Math.max(maxSourceStart, source < 0 ? Long.MIN_VALUE : start[source]);
+                sourceStartPrefixMax[i] = maxSourceStart;
+            }
+
+            for (int read : reads) {
+                long value = valueCents[read];
+                int source = register.source(value);
+                if (source == Register.UNKNOWN) {
+                    phantom++;
+                    example(examples, "phantom: баланс #" + b + " прочитан " + cents(value) + ", такого никто не писал");
+                    continue;
+                }
+                long sourceEnd = source == Register.INITIAL ? Long.MIN_VALUE : end[source];
+                if (source >= 0 && start[source] > end[read]) {
+                    phantom++;
+                    example(examples, "phantom: баланс #" + b + " прочитан " + cents(value) + " до начала записи этого значения");
+                    continue;
+                }
+                if (register.overwrittenBefore(start[read], sourceEnd)) {
+                    stale++;
+                    example(examples, "stale: баланс #" + b + " прочитан " + cents(value)
+                        + ", хотя до начала чтения его уже перезаписали");
+                    continue;
+                }
+                int earlier = upperBound(readEnds, start[read]);
+                if (earlier > 0 && sourceStartPrefixMax[earlier - 1] > sourceEnd) {
+                    reordered++;
+                    example(examples, "reordered: баланс #" + b + " прочитан " + cents(value)
+                        + ", а завершившееся раньше чтение уже видело более новую запись");
+                }
+            }
+
+            int source = register.source(finalCents[b]);
+            if (source == Register.UNKNOWN) {
+                phantom++;
+                example(examples, "phantom: итог баланса #" + b + " " + cents(finalCents[b]) + " никто не писал");
+            } else if (register.overwrittenBefore(Long.MAX_VALUE, source == Register.INITIAL ? Long.MIN_VALUE : end[source])) {
+                lost++;
+                example(examples, "lost: итог баланса #" + b + " " + cents(finalCents[b])
+                    + " оставила запись, после которой успешно прошла более поздняя");
+            }
+        }
+        return new Anomalies(lost, stale, reordered, phantom, examples);
+    }
+
+    private void set(int slot, byte kind, int balanceIndex, long value, long startNanos, long endNanos, boolean succeeded) {
+        type[slot] = kind;
+        balance[slot] = balanceIndex;
+        valueCents[slot] = value;
+        start[slot] = startNanos;
+        end[slot] = endNanos;
+        ok[slot] = succeeded;
+    }
+
+    private static void example(List<String> examples, String text) {
+        if (examples.size() < MAX_EXAMPLES) {
+            examples.add(text);
+        }
+    }
+
+    private static String cents(long value) {
+        return value / 100 + "." + String.format(Locale.ROOT, "%02d", Math.abs(value % 100));
+    }
+
+    /** Сколько элементов отсортированного массива строго меньше key */
+    private static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Операции одного баланса и индексы для проверки за O(n log n)
+     */
+    private final class Register {
+
+        static final int INITIAL = -1;
+        static final int UNKNOWN = -2;
+
+        private final int index;
+        private final Map<Long, Integer> writerOf = new HashMap<>();
+        /** Успешные записи по времени окончания и максимум их начала среди первых i */
+        private final long[] writeEnds;
+        private final long[] writeStartPrefixMax;
+
+        Register(int index) {
+            this.index = index;
+            List<Integer> succeeded = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (balance[i] == index && type[i] == WRITE) {
+                    writerOf.put(valueCents[i], i);
+                    if (ok[i]) {
+                        succeeded.add(i);
+                    }
+                }
+            }
+            succeeded.sort((a, b) -> Long.compare(end[a], end[b]));
+            writeEnds = new long[succeeded.size()];
+            writeStartPrefixMax = new long[succeeded.size()];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < succeeded.size(); i++) {
+                writeEnds[i] = end[succeeded.get(i)];
+                max = Math.max(max, start[succeeded.get(i)]);
+                writeStartPrefixMax[i] = max;
+            }
+        }
+
+        /** Запись, оставившая значение: индекс операции, INITIAL или UNKNOWN */
+        int source(long value) {
+            Integer writer = writerOf.get(value);
+            if (writer != null) {
+                return writer;
+            }
+            return value == initialCents[index] ? INITIAL : UNKNOWN;
+        }
+
+        /**
+         * Была ли успешная запись, целиком прошедшая между sourceEnd и моментом before
+         * (началась после sourceEnd и закончилась до before)
+         */
+        boolean overwrittenBefore(long before, long sourceEnd) {
+            int finished = upperBound(writeEnds, before);
+            return finished > 0 && writeStartPrefixMax[finished - 1] > sourceEnd;
+        }
+
+        int[] readsByEnd() {
+            return IntStream.range(0, size)
+                .filter(i -> balance[i] == index && type[i] == READ && ok[i])
+                .boxed()
+                .sorted((a, b) -> Long.compare(end[a], end[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
+}
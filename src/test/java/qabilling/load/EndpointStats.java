@@ -0,0 +1,84 @@
+package qabilling.load;
+
+import qabilling.core.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📊 Статистика одного эндпоинта за прогон
+ *
+ * responseTime - от запланированного момента отправки до ответа
+ * (с поправкой на coordinated omission), serviceTime - от фактической отправки.
+ * dropped - запросы, не отправленные из-за предела maxInFlight: в задержки они не попадают,
+ * но считаются ошибками, а отчёт с ними помечается насыщенным ({@link LoadReport#isSaturated()}).
+ */
+public class EndpointStats {
+
+    private final String name;
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(600);
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long responseNanos, long serviceNanos, int status) {
+        responseTime.record(responseNanos);
+        serviceTime.record(serviceNanos);
+        if (status >= 0 && status < 600) {
+            statusCounts.incrementAndGet(status);
+        }
+    }
+
+    void recordTransportError(long responseNanos) {
+        responseTime.record(responseNanos);
+        transportErrors.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getCount() {
+        return responseTime.getCount();
+    }
+
+    /** Ошибки = ответы не 2xx/3xx + сетевые ошибки + отброшенные запросы */
+    public long getErrors() {
+        long errors = transportErrors.sum() + dropped.sum();
+        for (int status = 400; status < 600; status++) {
+            errors += statusCounts.get(status);
+        }
+        return errors;
+    }
+
+    public long getTransportErrors() {
+        return transportErrors.sum();
+    }
+
+    /** Запросы, не отправленные из-за предела maxInFlight */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** Количество ответов с кодом status */
+    public long getStatusCount(int status) {
+        return statusCounts.get(status);
+    }
+}
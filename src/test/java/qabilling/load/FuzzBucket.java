@@ -0,0 +1,123 @@
+package qabilling.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import qabilling.core.http.ApiResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * 🗂️ Класс ответа на входе фаззера: код, форма тела ошибки и медленный ли ответ
+ *
+ * Форма - структура JSON (ключи и типы значений) плюс поле "code" и текст "message"
+ * без чисел и значений в кавычках: "Profile with msisdn 99680... already exists" у разных
+ * входов - один класс.
+ * Новый класс - сигнал фаззеру, что вход задел другую ветку сервера (покрытия
+ * у удалённого стенда нет, его заменяют различимые ответы).
+ *
+ * @param status HTTP код; {@link #TRANSPORT} - запрос не дошёл, {@link #SCHEMA} - 2xx не по схеме
+ * @param shape  форма тела (или класс исключения)
+ * @param slow   ответ медленнее порога qabilling.fuzz.slowMs
+ */
+record FuzzBucket(int status, String shape, boolean slow) {
+
+    static final int TRANSPORT = -1;
+    static final int SCHEMA = -2;
+
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern QUOTED = Pattern.compile("\"[^\"]*\"|'[^']*'");
+    private static final int MAX_MESSAGE = 80;
+    private static final int MAX_DEPTH = 3;
+
+    static FuzzBucket of(ApiResponse response, boolean slow) {
+        JsonNode body = response.body();
+        if (body.isMissingNode()) {
+            return new FuzzBucket(response.status(), "не JSON", slow);
+        }
+        StringBuilder shape = new StringBuilder();
+        structure(body, shape, 0);
+        if (body.path("code").isTextual()) {
+            shape.append(" code=").append(body.path("code").asText());
+        }
+        if (body.path("message").isTextual()) {
+            shape.append(" message=\"").append(normalize(body.path("message").asText())).append('"');
+        }
+        return new FuzzBucket(response.status(), shape.toString(), slow);
+    }
+
+    /**
+     * Future запроса упал: AssertionError - 2xx не прошёл JSON Schema, остальное - транспорт
+     */
+    static FuzzBucket of(Throwable error, boolean slow) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof AssertionError) {
+            String message = String.valueOf(cause.getMessage());
+            int colon = message.indexOf(':');
+            return new FuzzBucket(SCHEMA, normalize(colon > 0 ? message.substring(0, colon) : message), slow);
+        }
+        return new FuzzBucket(TRANSPORT, cause.getClass().getSimpleName(), slow);
+    }
+
+    /**
+     * Находка, а не просто класс: 5xx, обрыв соединения, ответ не по схеме
+     */
+    boolean finding() {
+        return status >= 500 || status < 0;
+    }
+
+    String statusText() {
+        return switch (status) {
+            case TRANSPORT -> "transport";
+            case SCHEMA -> "schema";
+            default -> Integer.toString(status);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return statusText() + (slow ? " slow " : " ") + shape;
+    }
+
+    private static void structure(JsonNode node, StringBuilder out, int depth) {
+        if (node.isObject()) {
+            if (depth == MAX_DEPTH) {
+                out.append("{…}");
+                return;
+            }
+            List<String> names = new ArrayList<>();
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+            Collections.sort(names);
+            out.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                out.append(i == 0 ? "" : ",").append(names.get(i)).append(':');
+                structure(node.get(names.get(i)), out, depth + 1);
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            out.append('[');
+            if (!node.isEmpty()) {
+                structure(node.get(0), out, depth + 1);
+            }
+            out.append(']');
+        } else {
+            out.append(switch (node.getNodeType()) {
+                case STRING -> "s";
+                case NUMBER -> "n";
+                case BOOLEAN -> "b";
+                case NULL -> "null";
+                default -> "?";
+            });
+        }
+    }
+
+    private static String normalize(String message) {
+        String text = DIGITS.matcher(QUOTED.matcher(message).replaceAll("'…'")).replaceAll("N");
+        return text.length() > MAX_MESSAGE ? text.substring(0, MAX_MESSAGE) + "…" : text;
+    }
+}
@@ -0,0 +1,170 @@
+package qabilling.load;
+
+import qabilling.core.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+import java.util.zip.CRC32;
+
+/**
+ * 📦 Минимизированный корпус фаззера: по самому короткому входу на каждый класс ответа
+ *
+ * - новый класс ({@link FuzzBucket}) - вход попадает в корпус и становится родителем мутаций
+ * - вход того же класса, но короче - заменяет прежний (корпус сам сжимается, см. {@link FuzzMutator#shrink})
+ * - родитель выбирается из двух случайных тот, что встречался реже: редкие ответы мутируются чаще
+ *
+ * Сохраняется в каталог: по файлу на вход (байты как есть) и index.tsv со сводкой классов.
+ * Следующий прогон берёт эти файлы стартовым корпусом ({@link #load}).
+ */
+final class FuzzCorpus {
+
+    /** Вход корпуса и статистика его класса */
+    static final class Entry {
+        final FuzzBucket bucket;
+        /** Номер выполнения, на котором класс встретился впервые */
+        final long foundAt;
+        final LongAdder hits = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+        private volatile byte[] input;
+
+        Entry(FuzzBucket bucket, byte[] input, long foundAt) {
+            this.bucket = bucket;
+            this.input = input;
+            this.foundAt = foundAt;
+        }
+
+        byte[] input() {
+            return input;
+        }
+    }
+
+    /** Что изменил вход в корпусе */
+    enum Offer { NEW, SHORTER, KNOWN }
+
+    private final ConcurrentMap<FuzzBucket, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Entry[] snapshot = new Entry[0];
+
+    /**
+     * Учесть результат выполнения
+     * @param execution номер выполнения (когда найден класс)
+     */
+    Offer offer(FuzzBucket bucket, byte[] input, long nanos, long execution) {
+        Entry entry = entries.get(bucket);
+        if (entry == null) {
+            Entry created = new Entry(bucket, input, execution);
+            entry = entries.putIfAbsent(bucket, created);
+            if (entry == null) {
+                created.hits.increment();
+                created.latency.record(nanos);
+                synchronized (this) {
+                    snapshot = entries.values().toArray(Entry[]::new);
+                }
+                return Offer.NEW;
+            }
+        }
+        entry.hits.increment();
+        entry.latency.record(nanos);
+        if (input.length >= entry.input.length) {
+            return Offer.KNOWN;
+        }
+        synchronized (entry) {
+            if (input.length >= entry.input.length) {
+                return Offer.KNOWN;
+            }
+            entry.input = input;
+        }
+        return Offer.SHORTER;
+    }
+
+    /**
+     * Родитель для мутации (null - корпус пуст)
+     */
+    Entry pick(RandomGenerator random) {
+        Entry[] current = snapshot;
+        if (current.length == 0) {
+            return null;
+        }
+        Entry first = current[random.nextInt(current.length)];
+        Entry second = current[random.nextInt(current.length)];
+        return first.hits.sum() <= second.hits.sum() ? first : second;
+    }
+
+    int size() {
+        return snapshot.length;
+    }
+
+    /** Классы по коду ответа, внутри - по частоте */
+    List<Entry> entries() {
+        List<Entry> sorted = new ArrayList<>(List.of(snapshot));
+        sorted.sort(Comparator.comparingInt((Entry entry) -> entry.bucket.status())
+            .thenComparing(entry -> -entry.hits.sum()));
+        return sorted;
+    }
+
+    /**
+     * Входы прошлого прогона из каталога (пустой список - каталога нет)
+     */
+    static List<byte[]> load(Path dir) throws IOException {
+        List<byte[]> inputs = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return inputs;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.input")) {
+            for (Path file : files) {
+                inputs.add(Files.readAllBytes(file));
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Переписать каталог: входы корпуса и index.tsv
+     */
+    void save(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(dir, "*.input")) {
+            for (Path file : old) {
+                Files.delete(file);
+            }
+        }
+        StringBuilder index = new StringBuilder("file\tstatus\tslow\tfound_at\thits\tp50_ms\tp99_ms\tmax_ms\tbytes\tfinding\tshape\n");
+        for (Entry entry : entries()) {
+            byte[] input = entry.input();
+            String file = name(input);
+            Files.write(dir.resolve(file), input);
+            index.append(file).append('\t')
+                .append(entry.bucket.statusText()).append('\t')
+                .append(entry.bucket.slow()).append('\t')
+                .append(entry.foundAt).append('\t')
+                .append(entry.hits.sum()).append('\t')
+                .append(String.format(Locale.ROOT, "%.2f\t%.2f\t%.2f", millis(entry, 50), millis(entry, 99),
+                    entry.latency.getMax() / 1e6)).append('\t')
+                .append(input.length).append('\t')
+                .append(entry.bucket.finding()).append('\t')
+                .append(entry.bucket.shape()).append('\n');
+        }
+        Files.writeString(dir.resolve("index.tsv"), index, StandardCharsets.UTF_8);
+    }
+
+    static double millis(Entry entry, double percentile) {
+        return entry.latency.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static String name(byte[] input) {
+        CRC32 crc = new CRC32();
+        crc.update(input);
+        return HexFormat.of().toHexDigits((int) crc.getValue()) + ".input";
+    }
+}
@@ -0,0 +1,317 @@
+package qabilling.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * 🧬 Мутации тел запросов: структурные (по JSON дереву) и побайтовые
+ *
+ * Структурные - удалить / добавить / переименовать поле, подставить значение чужого типа
+ * или граничное число, испортить строку, взять поле у другого входа корпуса.
+ * Побайтовые - инверсия бита, вставка / замена «опасным» байтом, удаление и повтор
+ * участка, обрезка, невалидный UTF-8. Невалидный JSON мутируется только побайтово.
+ *
+ * {@link #shrink} - только уменьшающие мутации: ими корпус ищет вход короче
+ * с тем же классом ответа.
+ *
+ * Не потокобезопасен (один экземпляр на поток-генератор).
+ */
+final class FuzzMutator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private static final String[] FIELDS = {"msisdn", "userId", "pricePlanId", "amount", "id", "code", "content"};
+
+    private static final JsonNode[] VALUES = {
+        NODES.nullNode(), NODES.booleanNode(true), NODES.booleanNode(false),
+        NODES.numberNode(0), NODES.numberNode(-1), NODES.numberNode(1),
+        NODES.numberNode(Integer.MAX_VALUE), NODES.numberNode(Integer.MAX_VALUE + 1L), NODES.numberNode(Long.MIN_VALUE),
+        NODES.numberNode(BigInteger.TWO.pow(64)), NODES.numberNode(-0.0), NODES.numberNode(0.001),
+        NODES.numberNode(1e-7), NODES.numberNode(Double.MAX_VALUE), NODES.numberNode(new BigDecimal("1E+400")),
+        NODES.numberNode(new BigDecimal("0.005")), NODES.numberNode(new BigDecimal("99999999999999999.99")),
+        NODES.textNode(""), NODES.textNode(" "), NODES.textNode("0"), NODES.textNode("null"), NODES.textNode("1e3"),
+        NODES.textNode("996800000000"), NODES.textNode("+996801234567"), NODES.textNode(" 996801234567"),
+        NODES.textNode("٩٩٦٨٠١٢٣٤٥٦٧"), NODES.textNode("９９６８０１２３４５６７"), NODES.textNode("\u0000"),
+        NODES.textNode("' OR 1=1 --"), NODES.textNode("%s%n%x"), NODES.textNode("9".repeat(4096)),
+        NODES.arrayNode(), NODES.objectNode(), NODES.arrayNode().add(1), NODES.objectNode().put("id", 1),
+    };
+
+    /** Пробел, буквы, арабско-индийская цифра, пробел нулевой ширины, табуляция, минус */
+    private static final String CHARS = " aZ\u0663\u200b\t-";
+
+    private static final byte[] BYTES = ascii("\u0000\u007f\"\\{}[],:09-.e +\n");
+
+    private static final byte[][] SEQUENCES = {
+        {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF},   // BOM
+        {(byte) 0xC3},                             // оборванный двухбайтовый символ
+        {(byte) 0xED, (byte) 0xA0, (byte) 0x80},   // суррогат в UTF-8
+        {(byte) 0xFF, (byte) 0xFE},
+        ascii("\\u0000"), ascii("\\ud800"), ascii("/*"), ascii("1e999"), ascii("NaN"), ascii("null"),
+    };
+
+    private final RandomGenerator random;
+    private final int maxBytes;
+
+    /**
+     * @param maxBytes тела длиннее обрезаются
+     */
+    FuzzMutator(RandomGenerator random, int maxBytes) {
+        this.random = random;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * От 1 до 4 мутаций подряд
+     * @param donor другой вход корпуса (источник полей для склейки)
+     */
+    byte[] mutate(byte[] input, byte[] donor) {
+        byte[] current = input;
+        for (int rounds = 1 + random.nextInt(4); rounds > 0; rounds--) {
+            ObjectNode tree = random.nextInt(4) == 0 ? null : parse(current);
+            current = tree == null ? bytewise(current) : write(structural(tree, donor));
+        }
+        return current.length > maxBytes ? Arrays.copyOf(current, maxBytes) : current;
+    }
+
+    /**
+     * Вход строго короче: удалить поле, укоротить строку или вырезать участок байт
+     */
+    byte[] shrink(byte[] input) {
+        if (input.length <= 1) {
+            return input;
+        }
+        ObjectNode tree = parse(input);
+        if (tree != null && !tree.isEmpty() && random.nextBoolean()) {
+            String field = randomField(tree);
+            JsonNode value = tree.get(field);
+            if (value.isTextual() && value.asText().length() > 1 && random.nextBoolean()) {
+                String text = value.asText();
+                int cut = 1 + random.nextInt(text.length() - 1);
+                tree.put(field, random.nextBoolean() ? text.substring(cut) : text.substring(0, cut));
+            } else {
+                tree.remove(field);
+            }
+            byte[] shrunk = write(tree);
+            if (shrunk.length < input.length) {
+                return shrunk;
+            }
+        }
+        int length = 1 + random.nextInt(Math.max(1, input.length / 4));
+        return delete(input, random.nextInt(input.length - length + 1), length);
+    }
+
+    // =============================================
+    // СТРУКТУРНЫЕ МУТАЦИИ
+    // =============================================
+
+    private ObjectNode structural(ObjectNode tree, byte[] donor) {
+        switch (random.nextInt(8)) {
+            case 0 -> {
+                if (!tree.isEmpty()) {
+                    tree.remove(randomField(tree));
+                }
+            }
+            case 1 -> tree.set(tree.isEmpty() || random.nextInt(4) == 0 ? FIELDS[random.nextInt(FIELDS.length)]
+                : randomField(tree), VALUES[random.nextInt(VALUES.length)].deepCopy());
+            case 2 -> {
+                if (!tree.isEmpty()) {
+                    String field = randomField(tree);
+                    JsonNode value = tree.remove(field);
+                    tree.set(rename(field), value);
+                }
+            }
+            case 3, 4 -> {
+                if (!tree.isEmpty()) {
+                    String field = randomField(tree);
+                    JsonNode value = tree.get(field);
+                    if (value.isTextual()) {
+                        tree.put(field, mutateText(value.asText()));
+                    } else if (value.isNumber()) {
+                        tree.set(field, mutateNumber(value));
+                    } else {
+                        tree.set(field, VALUES[random.nextInt(VALUES.length)].deepCopy());
+                    }
+                }
+            }
+            case 5 -> {
+                ObjectNode other = donor == null ? null : parse(donor);
+                if (other != null && !other.isEmpty()) {
+                    String field = randomField(other);
+                    tree.set(field, other.get(field));
+                }
+            }
+            case 6 -> {
+                // Вложить само тело: {"msisdn": {...}} и т.п.
+                if (!tree.isEmpty()) {
+                    tree.set(randomField(tree), tree.deepCopy());
+                }
+            }
+            default -> {
+                // Тот же смысл, другой тип: 10 ↔ "10"
+                if (!tree.isEmpty()) {
+                    String field = randomField(tree);
+                    JsonNode value = tree.get(field);
+                    tree.set(field, value.isTextual() ? numberOrText(value.asText()) : NODES.textNode(value.asText()));
+                }
+            }
+        }
+        return tree;
+    }
+
+    private String mutateText(String text) {
+        StringBuilder out = new StringBuilder(text);
+        int position = random.nextInt(out.length() + 1);
+        switch (random.nextInt(5)) {
+            case 0 -> out.insert(position, (char) ('0' + random.nextInt(10)));
+            case 1 -> {
+                if (position < out.length()) {
+                    out.deleteCharAt(position);
+                }
+            }
+            case 2 -> {
+                if (position < out.length()) {
+                    out.setCharAt(position, CHARS.charAt(random.nextInt(CHARS.length())));
+                }
+            }
+            case 3 -> out.append(out, 0, Math.min(out.length(), 1 + random.nextInt(16)));
+            default -> out.setLength(position);
+        }
+        return out.toString();
+    }
+
+    private JsonNode mutateNumber(JsonNode value) {
+        if (value.isDouble() && !Double.isFinite(value.doubleValue())) {
+            // 1e999 разбирается в Infinity - у него нет десятичной записи
+            return VALUES[random.nextInt(VALUES.length)].deepCopy();
+        }
+        BigDecimal decimal = value.decimalValue();
+        return switch (random.nextInt(6)) {
+            case 0 -> NODES.numberNode(decimal.add(BigDecimal.ONE));
+            case 1 -> NODES.numberNode(decimal.subtract(BigDecimal.ONE));
+            case 2 -> NODES.numberNode(decimal.negate());
+            case 3 -> NODES.numberNode(decimal.scaleByPowerOfTen(1 + random.nextInt(18)));
+            case 4 -> NODES.numberNode(decimal.movePointLeft(1 + random.nextInt(6)));
+            default -> NODES.textNode(value.asText());
+        };
+    }
+
+    private static JsonNode numberOrText(String text) {
+        try {
+            return NODES.numberNode(new BigDecimal(text.strip()));
+        } catch (NumberFormatException e) {
+            return NODES.textNode(text);
+        }
+    }
+
+    private String rename(String field) {
+        return switch (random.nextInt(4)) {
+            case 0 -> field.toUpperCase(Locale.ROOT);
+            case 1 -> field + " ";
+            case 2 -> field.isEmpty() ? "_" : field.substring(1);
+            default -> FIELDS[random.nextInt(FIELDS.length)];
+        };
+    }
+
+    // =============================================
+    // ПОБАЙТОВЫЕ МУТАЦИИ
+    // =============================================
+
+    private byte[] bytewise(byte[] input) {
+        if (input.length == 0) {
+            return BYTES.clone();
+        }
+        int position = random.nextInt(input.length);
+        switch (random.nextInt(7)) {
+            case 0 -> {
+                byte[] out = input.clone();
+                out[position] ^= (byte) (1 << random.nextInt(8));
+                return out;
+            }
+            case 1 -> {
+                byte[] out = input.clone();
+                out[position] = BYTES[random.nextInt(BYTES.length)];
+                return out;
+            }
+            case 2 -> {
+                return insert(input, position, new byte[] {BYTES[random.nextInt(BYTES.length)]});
+            }
+            case 3 -> {
+                int length = 1 + random.nextInt(Math.max(1, (input.length - position) / 2));
+                return delete(input, position, Math.min(length, input.length - position));
+            }
+            case 4 -> {
+                int length = 1 + random.nextInt(Math.min(32, input.length - position));
+                return insert(input, random.nextInt(input.length + 1), Arrays.copyOfRange(input, position, position + length));
+            }
+            case 5 -> {
+                return Arrays.copyOf(input, position);
+            }
+            default -> {
+                return insert(input, random.nextBoolean() ? 0 : position, SEQUENCES[random.nextInt(SEQUENCES.length)]);
+            }
+        }
+    }
+
+    private static byte[] insert(byte[] input, int position, byte[] bytes) {
+        byte[] out = new byte[input.length + bytes.length];
+        System.arraycopy(input, 0, out, 0, position);
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        System.arraycopy(input, position, out, position + bytes.length, input.length - position);
+        return out;
+    }
+
+    private static byte[] delete(byte[] input, int position, int length) {
+        byte[] out = new byte[input.length - length];
+        System.arraycopy(input, 0, out, 0, position);
+        System.arraycopy(input, position + length, out, position, input.length - position - length);
+        return out;
+    }
+
+    // =============================================
+    // РАЗБОР И ЗАПИСЬ
+    // =============================================
+
+    private String randomField(ObjectNode tree) {
+        List<String> names = new ArrayList<>(tree.size());
+        for (Iterator<String> it = tree.fieldNames(); it.hasNext(); ) {
+            names.add(it.next());
+        }
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private static ObjectNode parse(byte[] input) {
+        try {
+            JsonNode node = JSON.readTree(input);
+            return node instanceof ObjectNode object ? object : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] write(JsonNode tree) {
+        try {
+            return JSON.writeValueAsBytes(tree);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось записать JSON " + tree, e);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,219 @@
+package qabilling.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.fixtures.SubscriberFixtures;
+import qabilling.core.http.ApiResponse;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.core.server.EmbeddedBillingServer;
+import qabilling.testdata.TestDataGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ▶️ Фаззер тел ProfileDto и BalanceDto: мутирует JSON, шлёт параллельно, раскладывает ответы по классам
+ *
+ * Запуск:
+ *   mvn test-compile exec:java -Dqabilling.runner=fuzz -Dqabilling.baseUrl=embedded -Dqabilling.fuzz.durationSeconds=300
+ *
+ * Цикл: взять вход из корпуса ({@link FuzzCorpus}), мутировать ({@link FuzzMutator}),
+ * отправить через {@link AsyncBillingClient}, отнести ответ к классу ({@link FuzzBucket}).
+ * Новый класс пополняет корпус, вход того же класса короче - заменяет прежний.
+ * Примерно каждое 8-е выполнение не мутирует, а укорачивает вход корпуса.
+ * Запросов в полёте - qabilling.fuzz.concurrency, новые стартуют по мере ответов.
+ *
+ * Итог: target/fuzz/{profile,balance}/ (входы + index.tsv) и таблица классов в лог.
+ * Находки - 5xx, обрыв соединения, 2xx не по JSON Schema - валят прогон.
+ *
+ * Параметры (системные свойства):
+ * - qabilling.fuzz.targets         - эндпоинты (profile,balance)
+ * - qabilling.fuzz.durationSeconds - длительность (60)
+ * - qabilling.fuzz.executions      - остановиться после стольких запросов (0 - по времени)
+ * - qabilling.fuzz.concurrency     - запросов в полёте (64)
+ * - qabilling.fuzz.slowMs          - ответ медленнее - отдельный класс (100)
+ * - qabilling.fuzz.maxBytes        - предел длины тела (4096)
+ * - qabilling.fuzz.seed            - зерно мутаций (qabilling.testdata.seed или случайное, пишется в лог)
+ * - qabilling.fuzz.dir             - каталог корпуса (target/fuzz), его входы - старт следующего прогона
+ * - qabilling.fuzz.failOnFinding   - падать при находках (true)
+ */
+public class FuzzRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FuzzRunner.class);
+
+    private static final int SHRINK_EVERY = 8;
+    private static final int PREVIEW_CHARS = 120;
+
+    public static void main(String[] args) throws Exception {
+        List<FuzzTarget> targets = new ArrayList<>();
+        for (String name : System.getProperty("qabilling.fuzz.targets", "profile,balance").split(",")) {
+            targets.add(FuzzTarget.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        Duration duration = Duration.ofSeconds(Long.getLong("qabilling.fuzz.durationSeconds", 60));
+        long executions = Long.getLong("qabilling.fuzz.executions", 0);
+        int concurrency = Integer.getInteger("qabilling.fuzz.concurrency", 64);
+        long slowNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("qabilling.fuzz.slowMs", 100));
+        long seed = Long.getLong("qabilling.fuzz.seed",
+            TestDataGenerator.SEED != null ? TestDataGenerator.SEED : System.nanoTime());
+        Path dir = Path.of(System.getProperty("qabilling.fuzz.dir", "target/fuzz"));
+
+        Subscriber subscriber = null;
+        try {
+            subscriber = SubscriberFixtures.create(TestDataGenerator.Profile.valid());
+            AsyncBillingClient client = new AsyncBillingClient(ApiConfig.BASE_URL, ApiConfig::getToken,
+                Duration.ofMillis(Integer.getInteger("qabilling.http.connectTimeoutMs", 5_000)),
+                Duration.ofMillis(Integer.getInteger("qabilling.http.readTimeoutMs", 30_000)),
+                concurrency);
+
+            Map<FuzzTarget, FuzzCorpus> corpora = new EnumMap<>(FuzzTarget.class);
+            Map<FuzzTarget, List<byte[]>> seeds = new EnumMap<>(FuzzTarget.class);
+            for (FuzzTarget target : targets) {
+                List<byte[]> inputs = new ArrayList<>(target.seeds());
+                inputs.addAll(FuzzCorpus.load(dir.resolve(target.key())));
+                seeds.put(target, inputs);
+                corpora.put(target, new FuzzCorpus());
+            }
+
+            Semaphore permits = new Semaphore(concurrency);
+            AtomicLong executed = new AtomicLong();
+            AtomicLong findings = new AtomicLong();
+            ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fuzz-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long started = System.nanoTime();
+            progress.scheduleAtFixedRate(() -> log.info(String.format(Locale.ROOT,
+                "%,d выполнений (%.0f/с), классов %s, находок %d", executed.get(),
+                executed.get() / ((System.nanoTime() - started) / 1e9), sizes(corpora), findings.get())),
+                10, 10, TimeUnit.SECONDS);
+
+            log.info("Фаззинг {} - {} с, {} в полёте, зерно {}", targets, duration.toSeconds(), concurrency, seed);
+            int balanceId = subscriber.balanceId();
+            SplittableRandom random = new SplittableRandom(seed);
+            FuzzMutator mutator = new FuzzMutator(random, Integer.getInteger("qabilling.fuzz.maxBytes", 4096));
+            long end = started + duration.toNanos();
+            for (long execution = 0; (executions == 0 || execution < executions) && System.nanoTime() < end; execution++) {
+                permits.acquire();
+                FuzzTarget target = targets.get((int) (execution % targets.size()));
+                FuzzCorpus corpus = corpora.get(target);
+                List<byte[]> pending = seeds.get(target);
+                FuzzCorpus.Entry parent = corpus.pick(random);
+                byte[] input;
+                if (!pending.isEmpty()) {
+                    input = pending.remove(pending.size() - 1);
+                } else if (parent == null) {
+                    // Ответы на стартовые входы ещё не пришли - мутируем их самих
+                    List<byte[]> initial = target.seeds();
+                    input = mutator.mutate(initial.get(random.nextInt(initial.size())), null);
+                } else if (random.nextInt(SHRINK_EVERY) == 0) {
+                    input = mutator.shrink(parent.input());
+                } else {
+                    input = mutator.mutate(parent.input(), corpus.pick(random).input());
+                }
+                long number = execution;
+                long start = System.nanoTime();
+                CompletableFuture<ApiResponse> sent;
+                try {
+                    sent = target.send(client, balanceId, input);
+                } catch (RuntimeException e) {
+                    sent = CompletableFuture.failedFuture(e);
+                }
+                sent.whenComplete((response, error) -> {
+                    long nanos = System.nanoTime() - start;
+                    FuzzBucket bucket = error != null
+                        ? FuzzBucket.of(error, nanos > slowNanos)
+                        : FuzzBucket.of(response, nanos > slowNanos);
+                    if (corpus.offer(bucket, input, nanos, number) == FuzzCorpus.Offer.NEW) {
+                        if (bucket.finding()) {
+                            findings.incrementAndGet();
+                            log.warn("Находка {}: {} ← {}", target.key(), bucket, preview(input));
+                        } else {
+                            log.info("Новый класс {}: {} ← {}", target.key(), bucket, preview(input));
+                        }
+                    }
+                    executed.incrementAndGet();
+                    permits.release();
+                });
+            }
+            if (!permits.tryAcquire(concurrency, 30, TimeUnit.SECONDS)) {
+                log.warn("Не дождались {} запросов в полёте", concurrency - permits.availablePermits());
+            }
+            progress.shutdownNow();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            log.info(String.format(Locale.ROOT, "Фаззинг: %,d выполнений за %.0f с (%.0f/с)", executed.get(), seconds,
+                executed.get() / seconds));
+            report(corpora, dir);
+        } finally {
+            if (subscriber != null) {
+                SubscriberFixtures.delete(subscriber.profileId());
+            }
+            EmbeddedBillingServer.shutdownShared();
+        }
+    }
+
+    private static void report(Map<FuzzTarget, FuzzCorpus> corpora, Path dir) throws Exception {
+        List<String> findings = new ArrayList<>();
+        StringBuilder table = new StringBuilder();
+        for (Map.Entry<FuzzTarget, FuzzCorpus> target : corpora.entrySet()) {
+            Path targetDir = dir.resolve(target.getKey().key());
+            target.getValue().save(targetDir);
+            table.append(System.lineSeparator()).append(target.getKey().key()).append(" → ").append(targetDir)
+                .append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "  %-9s %10s %8s %8s %6s  %s", "код", "ответов", "p50 мс", "p99 мс",
+                    "байт", "форма"));
+            for (FuzzCorpus.Entry entry : target.getValue().entries()) {
+                table.append(System.lineSeparator()).append(String.format(Locale.ROOT, "  %-9s %,10d %8.2f %8.2f %6d  %s",
+                    entry.bucket.statusText() + (entry.bucket.slow() ? " slow" : ""), entry.hits.sum(),
+                    FuzzCorpus.millis(entry, 50), FuzzCorpus.millis(entry, 99), entry.input().length,
+                    entry.bucket.shape()));
+                if (entry.bucket.finding()) {
+                    findings.add(target.getKey().key() + ": " + entry.bucket + " ← " + preview(entry.input()));
+                }
+            }
+        }
+        log.info("Классы ответов:{}", table);
+        if (!findings.isEmpty() && Boolean.parseBoolean(System.getProperty("qabilling.fuzz.failOnFinding", "true"))) {
+            throw new IllegalStateException("Фаззер нашёл " + findings.size() + " проблем(ы):" + System.lineSeparator()
+                + String.join(System.lineSeparator(), findings));
+        }
+    }
+
+    private static String sizes(Map<FuzzTarget, FuzzCorpus> corpora) {
+        StringBuilder text = new StringBuilder();
+        corpora.forEach((target, corpus) -> text.append(text.isEmpty() ? "" : " ").append(target.key()).append('=')
+            .append(corpus.size()));
+        return text.toString();
+    }
+
+    /** Тело для лога: UTF-8, управляющие символы - \\xNN, не длиннее 120 символов */
+    private static String preview(byte[] input) {
+        String decoded = new String(input, StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        for (; i < decoded.length() && text.length() < PREVIEW_CHARS; i++) {
+            char c = decoded.charAt(i);
+            if (c < 0x20 || c == 0x7f) {
+                text.append(String.format("\\x%02x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        return i < decoded.length() ? text + "… (" + input.length + " байт)" : text.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package qabilling.load;
+
+import qabilling.core.dto.BalanceDto;
+import qabilling.core.http.ApiResponse;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.testdata.TestDataGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 🎯 Эндпоинты фаззера и их стартовые тела
+ *
+ * Стартовый корпус - валидные DTO из {@link TestDataGenerator} и фиксированные негативные
+ * входы из ProfileApiTest / BalanceApiTest ("123", "abcdefghijkl", "invalid_amount").
+ */
+enum FuzzTarget {
+
+    /** POST /api/admin/profile/create - тело ProfileDto */
+    PROFILE {
+        @Override
+        CompletableFuture<ApiResponse> send(AsyncBillingClient client, int balanceId, byte[] body) {
+            return client.raw("POST", "/api/admin/profile/create", body).thenCompose(response -> {
+                if (response.status() < 200 || response.status() >= 300 || !response.content().path("id").canConvertToInt()) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                // Мутация дала валидный профиль - удаляем, иначе за минуту накопятся тысячи
+                return client.deleteProfile(response.contentId()).thenApply(deleted -> response);
+            });
+        }
+
+        @Override
+        List<byte[]> seeds() {
+            List<byte[]> seeds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                seeds.add(TestDataGenerator.Profile.valid().toJsonBytes());
+            }
+            for (TestDataGenerator.MsisdnInvalidType type : TestDataGenerator.MsisdnInvalidType.values()) {
+                seeds.add(TestDataGenerator.Profile.withInvalidMsisdn(type).toJsonBytes());
+            }
+            seeds.add(utf8("{\"msisdn\": \"123\", \"userId\": 1, \"pricePlanId\": 1}"));
+            seeds.add(utf8("{\"msisdn\": \"abcdefghijkl\", \"userId\": 1, \"pricePlanId\": 1}"));
+            return seeds;
+        }
+    },
+
+    /** PUT /api/balance/update/{id} - тело BalanceDto, баланс служебного абонента */
+    BALANCE {
+        @Override
+        CompletableFuture<ApiResponse> send(AsyncBillingClient client, int balanceId, byte[] body) {
+            return client.raw("PUT", "/api/balance/update/" + balanceId, body);
+        }
+
+        @Override
+        List<byte[]> seeds() {
+            List<byte[]> seeds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                seeds.add(TestDataGenerator.Balance.valid().toJsonBytes());
+            }
+            seeds.add(new BalanceDto(0).toJsonBytes());
+            seeds.add(TestDataGenerator.Balance.negative().toJsonBytes());
+            seeds.add(utf8("{\"amount\": \"invalid_amount\"}"));
+            return seeds;
+        }
+    };
+
+    /**
+     * Отправить тело как есть. Не-2xx - не ошибка future, транспортные сбои и
+     * несоответствие 2xx ответа схеме - ошибка
+     */
+    abstract CompletableFuture<ApiResponse> send(AsyncBillingClient client, int balanceId, byte[] body);
+
+    abstract List<byte[]> seeds();
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
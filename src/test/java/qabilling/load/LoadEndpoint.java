@@ -0,0 +1,20 @@
+package qabilling.load;
+
+import java.net.http.HttpRequest;
+
+/**
+ * 🎯 Эндпоинт для нагрузочного теста
+ *
+ * name() - шаблон эндпоинта для отчёта, например "GET /api/balance/{id}".
+ * request() - новый запрос (без заголовка авторизации, его добавит генератор).
+ * onResponse() - ответ на запрос, в том числе на прогреве (например, запомнить ID созданного).
+ */
+public interface LoadEndpoint {
+
+    String name();
+
+    HttpRequest.Builder request(String baseUrl);
+
+    default void onResponse(int status, byte[] body) {
+    }
+}
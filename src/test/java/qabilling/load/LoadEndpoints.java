@@ -0,0 +1,120 @@
+package qabilling.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import qabilling.core.ApiConfig;
+import qabilling.core.dto.BaseDto;
+import qabilling.testdata.TestDataGenerator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 🧰 Готовые эндпоинты QABilling для нагрузки
+ *
+ * Тела запросов строятся теми же DTO и TestDataGenerator, что и в функциональных тестах.
+ * ids - откуда брать ID существующих ресурсов (например, заранее созданных абонентов).
+ */
+public final class LoadEndpoints {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private LoadEndpoints() {
+    }
+
+    /**
+     * @param created куда отдать ID созданного профиля (CleanupRegistry) - иначе за прогон
+     *                на стенде остаются тысячи профилей
+     */
+    public static LoadEndpoint createProfile(IntConsumer created) {
+        LoadEndpoint post = post("POST /api/admin/profile/create", "/api/admin/profile/create", TestDataGenerator.Profile::valid);
+        return new LoadEndpoint() {
+            @Override
+            public String name() {
+                return post.name();
+            }
+
+            @Override
+            public HttpRequest.Builder request(String baseUrl) {
+                return post.request(baseUrl);
+            }
+
+            @Override
+            public void onResponse(int status, byte[] body) {
+                if (status < 200 || status >= 300) {
+                    return;
+                }
+                try {
+                    JsonNode id = JSON.readTree(body).path("content").path("id");
+                    if (id.canConvertToInt()) {
+                        created.accept(id.asInt());
+                    }
+                } catch (IOException e) {
+                    // Не JSON - ID не достать, профиль (если создан) останется
+                }
+            }
+        };
+    }
+
+    public static LoadEndpoint getProfile(IntSupplier ids) {
+        return get("GET /api/admin/profile/{id}", "/api/admin/profile/", ids);
+    }
+
+    public static LoadEndpoint getBalance(IntSupplier ids) {
+        return get("GET /api/balance/{id}", "/api/balance/", ids);
+    }
+
+    public static LoadEndpoint updateBalance(IntSupplier ids) {
+        return new LoadEndpoint() {
+            @Override
+            public String name() {
+                return "PUT /api/balance/update/{id}";
+            }
+
+            @Override
+            public HttpRequest.Builder request(String baseUrl) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/balance/update/" + ids.getAsInt()))
+                    .header("Content-Type", ApiConfig.CONTENT_TYPE)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(TestDataGenerator.Balance.valid().toJsonBytes()));
+            }
+        };
+    }
+
+    public static LoadEndpoint getCounter(IntSupplier ids) {
+        return get("GET /api/counter/{id}", "/api/counter/", ids);
+    }
+
+    private static LoadEndpoint get(String name, String pathPrefix, IntSupplier ids) {
+        return new LoadEndpoint() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public HttpRequest.Builder request(String baseUrl) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + pathPrefix + ids.getAsInt())).GET();
+            }
+        };
+    }
+
+    private static LoadEndpoint post(String name, String path, Supplier<? extends BaseDto> body) {
+        return new LoadEndpoint() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public HttpRequest.Builder request(String baseUrl) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", ApiConfig.CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.get().toJsonBytes()));
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package qabilling.load;
+
+import qabilling.core.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 📋 Итоги нагрузочного прогона
+ *
+ * Для каждого эндпоинта: количество, ошибки, пропускная способность
+ * и перцентили задержки p50/p99/p99.9/max (мс, с поправкой на coordinated omission).
+ * Пишется в JSON (для машин) и в таблицу (для людей).
+ *
+ * Отброшенные на maxInFlight запросы (dropped) в гистограммы не попадают: при насыщении
+ * перцентили выглядят лучше всего именно тогда, когда сервер хуже всего. Поэтому при dropped > 0
+ * отчёт помечается как насыщенный ({@link #isSaturated()}) и перцентилям верить нельзя.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final List<EndpointStats> endpoints;
+    private final double targetRate;
+    private final long durationNanos;
+
+    public LoadReport(List<EndpointStats> endpoints, double targetRate, long durationNanos) {
+        this.endpoints = endpoints;
+        this.targetRate = targetRate;
+        this.durationNanos = durationNanos;
+    }
+
+    public List<EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    /** Фактическая пропускная способность эндпоинта, запросов в секунду */
+    public double throughput(EndpointStats endpoint) {
+        return endpoint.getCount() * 1_000_000_000.0 / durationNanos;
+    }
+
+    public long totalCount() {
+        return endpoints.stream().mapToLong(EndpointStats::getCount).sum();
+    }
+
+    public long totalErrors() {
+        return endpoints.stream().mapToLong(EndpointStats::getErrors).sum();
+    }
+
+    public long totalDropped() {
+        return endpoints.stream().mapToLong(EndpointStats::getDropped).sum();
+    }
+
+    /** Были отброшенные запросы - задержки занижены (coordinated omission), прогон не годится для выводов */
+    public boolean isSaturated() {
+        return totalDropped() > 0;
+    }
+
+    /**
+     * Человекочитаемая таблица
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.US, "Target rate: %.0f rps, window: %.1f s%n", targetRate, durationNanos / 1e9));
+        table.append(String.format(Locale.US, "%-32s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+            "endpoint", "count", "errors", "dropped", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointStats endpoint : endpoints) {
+            LatencyHistogram latency = endpoint.getResponseTime();
+            table.append(String.format(Locale.US, "%-32s %9d %7d %7d %9.1f", endpoint.getName(),
+                endpoint.getCount(), endpoint.getErrors(), endpoint.getDropped(), throughput(endpoint)));
+            for (double percentile : PERCENTILES) {
+                table.append(String.format(Locale.US, " %9.3f", millis(latency.getValueAtPercentile(percentile))));
+            }
+            table.append(String.format(Locale.US, " %9.3f%n", millis(latency.getMax())));
+        }
+        if (isSaturated()) {
+            table.append(String.format(Locale.US, "SATURATED: %d requests dropped at maxInFlight - percentiles exclude them "
+                + "and are too optimistic; lower the rate or raise qabilling.load.maxInFlight%n", totalDropped()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Машиночитаемый JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"targetRate\":").append(targetRate)
+            .append(",\"durationSeconds\":").append(durationNanos / 1e9)
+            .append(",\"dropped\":").append(totalDropped())
+            .append(",\"saturated\":").append(isSaturated())
+            .append(",\"endpoints\":[");
+        for (int i = 0; i < endpoints.size(); i++) {
+            EndpointStats endpoint = endpoints.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"endpoint\":\"").append(endpoint.getName()).append('"')
+                .append(",\"count\":").append(endpoint.getCount())
+                .append(",\"errors\":").append(endpoint.getErrors())
+                .append(",\"transportErrors\":").append(endpoint.getTransportErrors())
+                .append(",\"dropped\":").append(endpoint.getDropped())
+                .append(",\"throughput\":").append(String.format(Locale.US, "%.2f", throughput(endpoint)))
+                .append(",\"responseTimeMs\":");
+            appendLatency(json, endpoint.getResponseTime());
+            json.append(",\"serviceTimeMs\":");
+            appendLatency(json, endpoint.getServiceTime());
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Записать load-report.json и load-report.txt в каталог
+     */
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("load-report.json"), toJson(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("load-report.txt"), toTable(), StandardCharsets.UTF_8);
+    }
+
+    private static void appendLatency(StringBuilder json, LatencyHistogram latency) {
+        json.append(String.format(Locale.US,
+            "{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"p99.9\":%.3f,\"max\":%.3f,\"mean\":%.3f}",
+            millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+            millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+            millis(latency.getMax()), latency.getMean() / 1_000_000.0));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,100 @@
+package qabilling.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+import qabilling.core.fixtures.CleanupRegistry;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.fixtures.SubscriberFixtures;
+import qabilling.core.server.EmbeddedBillingServer;
+import qabilling.testdata.TestDataGenerator;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * ▶️ Точка входа нагрузочного прогона
+ *
+ * Запуск (URL берётся из ApiConfig, "embedded" = встроенный сервер):
+ *   mvn test-compile exec:java -Dqabilling.runner=load -Dqabilling.baseUrl=embedded -Dqabilling.load.rate=20000
+ *
+ * Параметры (системные свойства):
+ * - qabilling.load.rate              - запросов в секунду (1000)
+ * - qabilling.load.durationSeconds   - длительность замера (30)
+ * - qabilling.load.warmupSeconds     - прогрев (5)
+ * - qabilling.load.subscribers       - сколько абонентов создать под GET/PUT (16)
+ * - qabilling.load.maxInFlight       - максимум одновременных запросов, сверх - отбрасываются (10000)
+ * - qabilling.load.allowDropped      - не падать, если запросы отбрасывались (false): такой отчёт
+ *                                      помечен SATURATED, его перцентили занижены
+ * - qabilling.load.mix               - веса эндпоинтов (getProfile=4,getBalance=3,updateBalance=2,getCounter=1,createProfile=0)
+ * - qabilling.load.reportDir         - куда писать отчёт (target/load)
+ *
+ * Профили, созданные createProfile, удаляются после замера (реестр с отложенным удалением,
+ * настройки qabilling.cleanup.*) - чтобы удаления не мешали замеру и не оставались на стенде.
+ */
+public class LoadRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        int subscriberCount = Integer.getInteger("qabilling.load.subscribers", 16);
+        List<Subscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < subscriberCount; i++) {
+            subscribers.add(SubscriberFixtures.create(TestDataGenerator.Profile.valid()));
+        }
+        CleanupRegistry created = CleanupRegistry.fromProperties(true);
+        try {
+            LoadReport report = configure(subscribers, created::registerProfile).build().run();
+            log.info("\n{}", report.toTable());
+            Path reportDir = Path.of(System.getProperty("qabilling.load.reportDir", "target/load"));
+            report.writeTo(reportDir);
+            log.info("Отчёт записан в {}", reportDir.toAbsolutePath());
+            if (report.isSaturated() && !Boolean.getBoolean("qabilling.load.allowDropped")) {
+                throw new IllegalStateException("Отброшено " + report.totalDropped() + " запросов на maxInFlight - "
+                    + "перцентили без них занижены (coordinated omission). Снизь qabilling.load.rate, подними "
+                    + "qabilling.load.maxInFlight или -Dqabilling.load.allowDropped=true, если насыщение и нужно");
+            }
+        } finally {
+            created.close();
+            for (Subscriber subscriber : subscribers) {
+                SubscriberFixtures.delete(subscriber.profileId());
+            }
+            EmbeddedBillingServer.shutdownShared();
+        }
+    }
+
+    static OpenModelLoadGenerator.Builder configure(List<Subscriber> subscribers, IntConsumer createdProfiles) {
+        IntSupplier profileIds = () -> subscribers.get(ThreadLocalRandom.current().nextInt(subscribers.size())).profileId();
+        IntSupplier balanceIds = () -> subscribers.get(ThreadLocalRandom.current().nextInt(subscribers.size())).balanceId();
+        IntSupplier counterIds = () -> subscribers.get(ThreadLocalRandom.current().nextInt(subscribers.size())).counterId();
+
+        OpenModelLoadGenerator.Builder builder = OpenModelLoadGenerator.builder()
+            .baseUrl(ApiConfig.BASE_URL)
+            .ratePerSecond(Double.parseDouble(System.getProperty("qabilling.load.rate", "1000")))
+            .duration(Duration.ofSeconds(Long.getLong("qabilling.load.durationSeconds", 30)))
+            .warmup(Duration.ofSeconds(Long.getLong("qabilling.load.warmupSeconds", 5)))
+            .maxInFlight(Integer.getInteger("qabilling.load.maxInFlight", 10_000));
+
+        String mix = System.getProperty("qabilling.load.mix",
+            "getProfile=4,getBalance=3,updateBalance=2,getCounter=1,createProfile=0");
+        for (Map.Entry<String, Integer> weight : Weights.parse("qabilling.load.mix", mix).entrySet()) {
+            LoadEndpoint endpoint = switch (weight.getKey()) {
+                case "getProfile" -> LoadEndpoints.getProfile(profileIds);
+                case "getBalance" -> LoadEndpoints.getBalance(balanceIds);
+                case "updateBalance" -> LoadEndpoints.updateBalance(balanceIds);
+                case "getCounter" -> LoadEndpoints.getCounter(counterIds);
+                case "createProfile" -> LoadEndpoints.createProfile(createdProfiles);
+                default -> throw new IllegalArgumentException("Неизвестный эндпоинт в qabilling.load.mix: " + weight.getKey()
+                    + " (есть getProfile, getBalance, updateBalance, getCounter, createProfile)");
+            };
+            builder.endpoint(endpoint, weight.getValue());
+        }
+        return builder;
+    }
+}
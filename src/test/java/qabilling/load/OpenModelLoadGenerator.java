@@ -0,0 +1,217 @@
+package qabilling.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 🚀 Генератор нагрузки с открытой моделью (фиксированная частота запросов)
+ *
+ * Запрос i планируется на момент start + i / rate независимо от того,
+ * ответил ли сервер на предыдущие (в отличие от цикла "запрос → ждём → запрос").
+ * Задержка меряется от запланированного момента, поэтому если сервер
+ * притормозил, ожидание в очереди попадает в перцентили (coordinated omission).
+ *
+ * Каждый запрос выполняется в своём виртуальном потоке. Разрешение maxInFlight берётся
+ * в цикле отправки до запуска потока: если в полёте уже maxInFlight, запрос не отправляется
+ * и считается отброшенным (dropped в отчёте) - иначе при зависшем сервере потоки копились бы без предела.
+ *
+ * Используй:
+ *   LoadReport report = OpenModelLoadGenerator.builder()
+ *       .ratePerSecond(5_000)
+ *       .duration(Duration.ofSeconds(30))
+ *       .endpoint(LoadEndpoints.getBalance(() -> 1), 3)
+ *       .build()
+ *       .run();
+ */
+public class OpenModelLoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenModelLoadGenerator.class);
+
+    private final String baseUrl;
+    private final double ratePerSecond;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final LoadEndpoint[] weightedEndpoints;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final HttpClient client;
+
+    private OpenModelLoadGenerator(Builder builder) {
+        this.baseUrl = builder.baseUrl;
+        this.ratePerSecond = builder.ratePerSecond;
+        this.duration = builder.duration;
+        this.warmup = builder.warmup;
+        this.maxInFlight = builder.maxInFlight;
+        this.requestTimeout = builder.requestTimeout;
+        this.weightedEndpoints = builder.weighted.toArray(new LoadEndpoint[0]);
+        for (LoadEndpoint endpoint : weightedEndpoints) {
+            stats.computeIfAbsent(endpoint.name(), EndpointStats::new);
+        }
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(builder.connectTimeout)
+            .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder для генератора нагрузки
+     */
+    public static class Builder {
+        private String baseUrl = ApiConfig.BASE_URL;
+        private double ratePerSecond = 100;
+        private Duration duration = Duration.ofSeconds(10);
+        private Duration warmup = Duration.ZERO;
+        private int maxInFlight = 10_000;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private final List<LoadEndpoint> weighted = new ArrayList<>();
+
+        /** URL API (по умолчанию ApiConfig.BASE_URL) */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /** Целевая частота запросов в секунду (суммарно по всем эндпоинтам) */
+        public Builder ratePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+            return this;
+        }
+
+        /** Длительность замера (без учёта прогрева) */
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /** Прогрев: запросы идут, но в отчёт не попадают */
+        public Builder warmup(Duration warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
+        /** Максимум одновременных запросов; сверх него запросы отбрасываются */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /** Добавить эндпоинт с весом (доля в общем потоке запросов) */
+        public Builder endpoint(LoadEndpoint endpoint, int weight) {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+            return this;
+        }
+
+        public OpenModelLoadGenerator build() {
+            if (weighted.isEmpty()) {
+                throw new IllegalStateException("Нужен хотя бы один эндпоинт с весом > 0");
+            }
+            if (ratePerSecond <= 0) {
+                throw new IllegalStateException("ratePerSecond должен быть > 0");
+            }
+            return new OpenModelLoadGenerator(this);
+        }
+    }
+
+    /**
+     * Запустить нагрузку и дождаться завершения всех запросов
+     */
+    public LoadReport run() {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = 1_000_000_000.0 / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        log.info("Нагрузка: {} rps на {} в течение {} (прогрев {})", ratePerSecond, baseUrl, duration, warmup);
+
+        long sent = 0;
+        long dropped = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadEndpoint endpoint = weightedEndpoints[ThreadLocalRandom.current().nextInt(weightedEndpoints.length)];
+                boolean measured = intended >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        stats.get(endpoint.name()).recordDropped();
+                    }
+                    dropped++;
+                    continue;
+                }
+                executor.execute(() -> fire(endpoint, intended, measured, inFlight));
+                sent++;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Отброшено {} запросов: в полёте было {} (сервер не успевает)", dropped, maxInFlight);
+        }
+        log.info("Нагрузка завершена: отправлено {} запросов", sent);
+        return new LoadReport(new ArrayList<>(stats.values()), ratePerSecond, duration.toNanos());
+    }
+
+    /** Разрешение inFlight уже взято в цикле отправки, здесь только освобождается */
+    private void fire(LoadEndpoint endpoint, long intendedStart, boolean measured, Semaphore inFlight) {
+        EndpointStats endpointStats = stats.get(endpoint.name());
+        try {
+            HttpRequest request = endpoint.request(baseUrl)
+                .header("Authorization", "Bearer " + ApiConfig.getToken())
+                .timeout(requestTimeout)
+                .build();
+            long sentAt = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long done = System.nanoTime();
+            if (measured) {
+                endpointStats.record(done - intendedStart, done - sentAt, response.statusCode());
+            }
+            endpoint.onResponse(response.statusCode(), response.body());
+        } catch (IOException e) {
+            if (measured) {
+                endpointStats.recordTransportError(System.nanoTime() - intendedStart);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.release();
+        }
+    }
+}
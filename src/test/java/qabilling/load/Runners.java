@@ -0,0 +1,48 @@
+package qabilling.load;
+
+import qabilling.core.sharding.ShardMerge;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ▶️ Общая точка входа exec:java: раннер выбирается свойством qabilling.runner
+ *
+ *   mvn test-compile exec:java -Dqabilling.runner=fuzz -Dqabilling.baseUrl=embedded
+ *
+ * - load               - {@link LoadRunner}
+ * - balance-contention - {@link BalanceContentionRunner}
+ * - soak               - {@link SoakRunner}
+ * - fuzz               - {@link FuzzRunner}
+ * - shard-merge        - {@link ShardMerge} (каталоги - через -Dexec.args)
+ * Свойство само включает профиль runner в pom.xml, -P не нужен.
+ */
+public final class Runners {
+
+    private interface Main {
+        void run(String[] args) throws Exception;
+    }
+
+    private static final Map<String, Main> RUNNERS = new LinkedHashMap<>();
+
+    static {
+        RUNNERS.put("load", LoadRunner::main);
+        RUNNERS.put("balance-contention", BalanceContentionRunner::main);
+        RUNNERS.put("soak", SoakRunner::main);
+        RUNNERS.put("fuzz", FuzzRunner::main);
+        RUNNERS.put("shard-merge", ShardMerge::main);
+    }
+
+    private Runners() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String name = System.getProperty("qabilling.runner");
+        Main runner = name == null ? null : RUNNERS.get(name);
+        if (runner == null) {
+            throw new IllegalArgumentException("Укажи -Dqabilling.runner=" + String.join("|", RUNNERS.keySet())
+                + (name == null ? "" : ", а не " + name));
+        }
+        runner.run(args);
+    }
+}
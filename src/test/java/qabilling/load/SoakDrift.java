@@ -0,0 +1,165 @@
+package qabilling.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 📉 Дрейф soak прогона: значимо ли поздние окна хуже ранних
+ *
+ * Окна после прогрева делятся на трети; сравниваются первая и последняя.
+ * - p95 сценариев, куча после сборки, потоки, дескрипторы - односторонний тест Манна-Уитни
+ *   по значениям окон (поздние больше ранних?), без предположений о распределении
+ * - доля ошибок сценария и доля пропущенных на maxInFlight итераций - z-тест двух долей
+ *   по суммам итераций
+ * Дрейф = p < alpha и рост не меньше minRatio (значимо, но на 2% - не дрейф).
+ * Для alpha 0.01 нужно хотя бы ~8 окон в трети - короче прогон ничего не найдёт.
+ */
+final class SoakDrift {
+
+    /**
+     * Сравнение одной метрики: медианы окон (для ошибок - доли, %) ранней и поздней трети
+     */
+    record Comparison(String metric, double early, double late, double pValue, boolean drift) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-26s %10.2f → %10.2f  p=%.4f%s",
+                metric, early, late, pValue, drift ? "  ДРЕЙФ" : "");
+        }
+    }
+
+    private SoakDrift() {
+    }
+
+    /**
+     * @param warmupWindows сколько первых окон не учитывать (JIT, прогрев пулов)
+     * @return сравнения всех метрик (пусто - окон слишком мало)
+     */
+    static List<Comparison> compare(List<SoakMonitor.Window> windows, int warmupWindows, double alpha, double minRatio) {
+        List<SoakMonitor.Window> measured = windows.subList(Math.min(warmupWindows, windows.size()), windows.size());
+        int third = measured.size() / 3;
+        if (third < 2) {
+            return List.of();
+        }
+        List<SoakMonitor.Window> early = measured.subList(0, third);
+        List<SoakMonitor.Window> late = measured.subList(measured.size() - third, measured.size());
+
+        List<Comparison> comparisons = new ArrayList<>();
+        for (SoakScenario scenario : SoakScenario.values()) {
+            comparisons.add(series(scenario.key() + ".p95_ms", early, late,
+                window -> window.scenarios().get(scenario).p95(), alpha, minRatio));
+            comparisons.add(errorRate(scenario, early, late, alpha, minRatio));
+        }
+        comparisons.add(proportion("skipped_%", early, late, SoakMonitor.Window::skipped,
+            window -> window.skipped() + window.started(), alpha, minRatio));
+        if (windows.get(0).heapAfterGcMb() >= 0) {
+            comparisons.add(series("heap_after_gc_mb", early, late, SoakMonitor.Window::heapAfterGcMb, alpha, minRatio));
+        }
+        comparisons.add(series("threads", early, late, SoakMonitor.Window::threads, alpha, minRatio));
+        if (windows.get(0).openFiles() >= 0) {
+            comparisons.add(series("open_files", early, late, SoakMonitor.Window::openFiles, alpha, minRatio));
+        }
+        return comparisons;
+    }
+
+    private static Comparison series(String metric, List<SoakMonitor.Window> early, List<SoakMonitor.Window> late,
+                                     ToDoubleFunction<SoakMonitor.Window> value, double alpha, double minRatio) {
+        double[] a = early.stream().mapToDouble(value).toArray();
+        double[] b = late.stream().mapToDouble(value).toArray();
+        double earlyMedian = median(a);
+        double lateMedian = median(b);
+        double p = mannWhitneyGreater(a, b);
+        return new Comparison(metric, earlyMedian, lateMedian, p, p < alpha && lateMedian >= earlyMedian * minRatio
+            && lateMedian > earlyMedian);
+    }
+
+    private static Comparison errorRate(SoakScenario scenario, List<SoakMonitor.Window> early,
+                                        List<SoakMonitor.Window> late, double alpha, double minRatio) {
+        return proportion(scenario.key() + ".errors_%", early, late,
+            window -> window.scenarios().get(scenario).errors(),
+            window -> window.scenarios().get(scenario).errors() + window.scenarios().get(scenario).ok(),
+            alpha, minRatio);
+    }
+
+    /**
+     * z-тест двух долей: события / всего по суммам окон ранней и поздней трети
+     */
+    private static Comparison proportion(String metric, List<SoakMonitor.Window> early, List<SoakMonitor.Window> late,
+                                         ToLongFunction<SoakMonitor.Window> events,
+                                         ToLongFunction<SoakMonitor.Window> total, double alpha, double minRatio) {
+        long earlyEvents = early.stream().mapToLong(events).sum();
+        long earlyTotal = early.stream().mapToLong(total).sum();
+        long lateEvents = late.stream().mapToLong(events).sum();
+        long lateTotal = late.stream().mapToLong(total).sum();
+        double earlyRate = earlyTotal == 0 ? 0 : (double) earlyEvents / earlyTotal;
+        double lateRate = lateTotal == 0 ? 0 : (double) lateEvents / lateTotal;
+
+        double pooled = earlyTotal + lateTotal == 0 ? 0 : (double) (earlyEvents + lateEvents) / (earlyTotal + lateTotal);
+        double se = Math.sqrt(pooled * (1 - pooled) * (1.0 / Math.max(earlyTotal, 1) + 1.0 / Math.max(lateTotal, 1)));
+        double p = se == 0 ? 1 : upperTail((lateRate - earlyRate) / se);
+        return new Comparison(metric, earlyRate * 100, lateRate * 100, p,
+            p < alpha && lateRate > earlyRate * minRatio);
+    }
+
+    /**
+     * P(такой или больший перевес b над a) по U-статистике Манна-Уитни,
+     * нормальное приближение с поправкой на совпадения и на непрерывность
+     */
+    static double mannWhitneyGreater(double[] a, double[] b) {
+        int n1 = a.length;
+        int n2 = b.length;
+        int n = n1 + n2;
+        double[] all = new double[n];
+        System.arraycopy(a, 0, all, 0, n1);
+        System.arraycopy(b, 0, all, n1, n2);
+        Integer[] order = new Integer[n];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (x, y) -> Double.compare(all[x], all[y]));
+
+        double rankSumB = 0;
+        double ties = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && all[order[j + 1]] == all[order[i]]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (order[k] >= n1) {
+                    rankSumB += rank;
+                }
+            }
+            double t = j - i + 1;
+            ties += t * t * t - t;
+            i = j + 1;
+        }
+        double u = rankSumB - n2 * (n2 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - ties / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        return upperTail((u - mean - 0.5) / Math.sqrt(variance));
+    }
+
+    /** P(Z >= z) стандартного нормального (erfc, погрешность < 1.2e-7) */
+    static double upperTail(double z) {
+        double x = z / Math.sqrt(2);
+        double t = 1 / (1 + 0.5 * Math.abs(x));
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+            + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+            + t * (-0.82215223 + t * 0.17087277)))))))));
+        return 0.5 * (x >= 0 ? erfc : 2 - erfc);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -0,0 +1,140 @@
+package qabilling.load;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import qabilling.core.metrics.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 🩺 Окна soak прогона: задержки и ошибки сценариев плюс состояние клиента
+ *
+ * Итерации пишут в текущее окно ({@link #record}, {@link #skipped}), раз в окно
+ * {@link #roll} закрывает его снимком: перцентили по сценариям, куча (сейчас и после
+ * последней сборки - по ней видна утечка), число потоков, открытых дескрипторов
+ * (сокеты JDK HttpClient отдельно не считаются - утечку соединений видно здесь)
+ * и итераций в полёте асинхронного клиента.
+ */
+final class SoakMonitor {
+
+    /** Итог сценария за окно (задержки в мс) */
+    record ScenarioWindow(long ok, long errors, double p50, double p95, double p99) {
+
+        double errorRate() {
+            return ok + errors == 0 ? 0 : (double) errors / (ok + errors);
+        }
+    }
+
+    /**
+     * Закрытое окно
+     * @param heapAfterGcMb сумма heap пулов после последней сборки (-1 - JVM не сообщает)
+     * @param openFiles     открытые дескрипторы процесса (-1 - не Unix)
+     */
+    record Window(int index, long elapsedSeconds, Map<SoakScenario, ScenarioWindow> scenarios, long skipped,
+                  double heapUsedMb, double heapAfterGcMb, int threads, long openFiles, int inFlight) {
+
+        /** Итерации, которые сценарии успели запустить (успешные и с ошибкой) */
+        long started() {
+            return scenarios.values().stream().mapToLong(stats -> stats.ok() + stats.errors()).sum();
+        }
+    }
+
+    private static final class Accumulator {
+        final Map<SoakScenario, LatencyHistogram> latency = new EnumMap<>(SoakScenario.class);
+        final Map<SoakScenario, LongAdder> errors = new EnumMap<>(SoakScenario.class);
+        final LongAdder skipped = new LongAdder();
+
+        Accumulator() {
+            for (SoakScenario scenario : SoakScenario.values()) {
+                latency.put(scenario, new LatencyHistogram());
+                errors.put(scenario, new LongAdder());
+            }
+        }
+    }
+
+    private final AtomicReference<Accumulator> current = new AtomicReference<>(new Accumulator());
+    private final IntSupplier inFlight;
+    private final long startedNanos = System.nanoTime();
+    private int index;
+
+    /**
+     * @param inFlight сколько итераций сейчас ждут ответа
+     */
+    SoakMonitor(IntSupplier inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    /** Итерация завершилась (успешная - в задержки, с ошибкой - в счётчик ошибок) */
+    void record(SoakScenario scenario, long nanos, boolean failed) {
+        Accumulator window = current.get();
+        if (failed) {
+            window.errors.get(scenario).increment();
+        } else {
+            window.latency.get(scenario).record(nanos);
+        }
+    }
+
+    /** Итерация не запущена: в полёте уже maxInFlight (клиент или сервер не успевает) */
+    void skipped() {
+        current.get().skipped.increment();
+    }
+
+    /**
+     * Закрыть окно и начать новое
+     */
+    Window roll() {
+        Accumulator closed = current.getAndSet(new Accumulator());
+        Map<SoakScenario, ScenarioWindow> scenarios = new EnumMap<>(SoakScenario.class);
+        closed.latency.forEach((scenario, histogram) -> scenarios.put(scenario, new ScenarioWindow(
+            histogram.getCount(), closed.errors.get(scenario).sum(),
+            histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(95) / 1e6,
+            histogram.getValueAtPercentile(99) / 1e6)));
+
+        double heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1048576.0;
+        double heapAfterGc = -1;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                heapAfterGc = Math.max(heapAfterGc, 0) + afterGc.getUsed() / 1048576.0;
+            }
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        long openFiles = os instanceof UnixOperatingSystemMXBean unix ? unix.getOpenFileDescriptorCount() : -1;
+        return new Window(++index, (System.nanoTime() - startedNanos) / 1_000_000_000L, scenarios,
+            closed.skipped.sum(), heapUsed, heapAfterGc, ManagementFactory.getThreadMXBean().getThreadCount(),
+            openFiles, inFlight.getAsInt());
+    }
+
+    /** Заголовок soak.tsv */
+    static String header() {
+        StringBuilder header = new StringBuilder("window\telapsed_s");
+        for (SoakScenario scenario : SoakScenario.values()) {
+            String key = scenario.key();
+            header.append('\t').append(key).append("_ok\t").append(key).append("_errors\t")
+                .append(key).append("_p50_ms\t").append(key).append("_p95_ms\t").append(key).append("_p99_ms");
+        }
+        return header.append("\tskipped\theap_used_mb\theap_after_gc_mb\tthreads\topen_files\tin_flight\n").toString();
+    }
+
+    /** Строка окна в soak.tsv */
+    static String row(Window window) {
+        StringBuilder row = new StringBuilder().append(window.index()).append('\t').append(window.elapsedSeconds());
+        for (SoakScenario scenario : SoakScenario.values()) {
+            ScenarioWindow stats = window.scenarios().get(scenario);
+            row.append(String.format(Locale.ROOT, "\t%d\t%d\t%.3f\t%.3f\t%.3f",
+                stats.ok(), stats.errors(), stats.p50(), stats.p95(), stats.p99()));
+        }
+        return row.append(String.format(Locale.ROOT, "\t%d\t%.1f\t%.1f\t%d\t%d\t%d%n",
+            window.skipped(), window.heapUsedMb(), window.heapAfterGcMb(), window.threads(), window.openFiles(),
+            window.inFlight())).toString();
+    }
+}
@@ -0,0 +1,212 @@
+package qabilling.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import qabilling.core.ApiConfig;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.fixtures.SubscriberFixtures;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.core.server.EmbeddedBillingServer;
+import qabilling.testdata.TestDataGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ▶️ Soak прогон: сценарии профиля, баланса и счётчика по кругу часами с постоянным темпом
+ *
+ * Запуск:
+ *   mvn test-compile exec:java -Dqabilling.runner=soak -Dqabilling.soak.durationMinutes=240
+ *
+ * Раз в окно пишет строку в soak.tsv (перцентили и ошибки сценариев, куча, потоки,
+ * дескрипторы, итерации в полёте и пропуски - см. {@link SoakMonitor}), в конце сравнивает ранние и поздние
+ * окна ({@link SoakDrift}) и падает, если нашёл значимый дрейф.
+ * Задержка итерации считается от запланированного старта - отставание генератора не прячет паузы сервера.
+ *
+ * Параметры (системные свойства):
+ * - qabilling.soak.durationMinutes - длительность (60)
+ * - qabilling.soak.windowSeconds   - окно снимка (60)
+ * - qabilling.soak.rate            - итераций сценариев в секунду (20)
+ * - qabilling.soak.mix             - веса сценариев (profile=1,balance=3,counter=3)
+ * - qabilling.soak.subscribers     - абонентов под balance/counter (8)
+ * - qabilling.soak.maxInFlight     - одновременных итераций, сверх - пропуск (64)
+ * - qabilling.soak.warmupWindows   - первые окна вне сравнения (1)
+ * - qabilling.soak.alpha / qabilling.soak.minRatio - порог значимости (0.01) и роста (1.2)
+ * - qabilling.soak.failOnDrift     - падать при дрейфе (true)
+ * - qabilling.load.reportDir       - куда писать soak.tsv и soak-drift.txt (target/load)
+ */
+public class SoakRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SoakRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        Duration duration = Duration.ofMinutes(Long.getLong("qabilling.soak.durationMinutes", 60));
+        Duration window = Duration.ofSeconds(Long.getLong("qabilling.soak.windowSeconds", 60));
+        double rate = Double.parseDouble(System.getProperty("qabilling.soak.rate", "20"));
+        int maxInFlight = Integer.getInteger("qabilling.soak.maxInFlight", 64);
+        Map<SoakScenario, Integer> mix = mix(System.getProperty("qabilling.soak.mix", "profile=1,balance=3,counter=3"));
+        Path reportDir = Path.of(System.getProperty("qabilling.load.reportDir", "target/load"));
+
+        List<Subscriber> subscribers = new ArrayList<>();
+        try {
+            for (int i = 0, count = Integer.getInteger("qabilling.soak.subscribers", 8); i < count; i++) {
+                subscribers.add(SubscriberFixtures.create(TestDataGenerator.Profile.valid()));
+            }
+            AsyncBillingClient client = new AsyncBillingClient(ApiConfig.BASE_URL, ApiConfig::getToken,
+                Duration.ofMillis(Integer.getInteger("qabilling.http.connectTimeoutMs", 5_000)),
+                Duration.ofMillis(Integer.getInteger("qabilling.http.readTimeoutMs", 30_000)),
+                maxInFlight);
+
+            Semaphore permits = new Semaphore(maxInFlight);
+            SoakMonitor monitor = new SoakMonitor(() -> maxInFlight - permits.availablePermits());
+            AtomicReference<String> lastError = new AtomicReference<>();
+            List<SoakMonitor.Window> windows = Collections.synchronizedList(new ArrayList<>());
+
+            Files.createDirectories(reportDir);
+            Path series = reportDir.resolve("soak.tsv");
+            Files.writeString(series, SoakMonitor.header(), StandardCharsets.UTF_8);
+            ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "soak-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshots.scheduleAtFixedRate(() -> {
+                SoakMonitor.Window closed = monitor.roll();
+                windows.add(closed);
+                append(series, SoakMonitor.row(closed));
+                log.info(describe(closed, lastError.getAndSet(null)));
+            }, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+
+            log.info("Soak: {} мин, {} итераций/с, окно {} с, сценарии {} → {}", duration.toMinutes(), rate,
+                window.toSeconds(), mix, series);
+            drive(client, subscribers, mix, rate, duration, permits, monitor, lastError);
+
+            snapshots.shutdownNow();
+            if (!permits.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS)) {
+                log.warn("Не дождались {} итераций в полёте", maxInFlight - permits.availablePermits());
+            }
+            report(List.copyOf(windows), reportDir);
+        } finally {
+            for (Subscriber subscriber : subscribers) {
+                SubscriberFixtures.delete(subscriber.profileId());
+            }
+            EmbeddedBillingServer.shutdownShared();
+        }
+    }
+
+    /**
+     * Открытая модель: итерация стартует по расписанию, не дожидаясь предыдущих
+     */
+    private static void drive(AsyncBillingClient client, List<Subscriber> subscribers, Map<SoakScenario, Integer> mix,
+                              double rate, Duration duration, Semaphore permits, SoakMonitor monitor,
+                              AtomicReference<String> lastError) {
+        SoakScenario[] wheel = mix.entrySet().stream()
+            .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+            .toArray(SoakScenario[]::new);
+        long interval = (long) (1_000_000_000L / rate);
+        long end = System.nanoTime() + duration.toNanos();
+        long next = System.nanoTime();
+        for (long now = next; now < end; now = System.nanoTime()) {
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            long scheduled = next;
+            next += interval;
+            if (!permits.tryAcquire()) {
+                monitor.skipped();
+                continue;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            SoakScenario scenario = wheel[random.nextInt(wheel.length)];
+            CompletableFuture<?> iteration;
+            try {
+                iteration = scenario.run(client, subscribers.get(random.nextInt(subscribers.size())));
+            } catch (RuntimeException e) {
+                iteration = CompletableFuture.failedFuture(e);
+            }
+            iteration.whenComplete((result, error) -> {
+                monitor.record(scenario, System.nanoTime() - scheduled, error != null);
+                if (error != null) {
+                    lastError.set(scenario.key() + ": " + (error.getCause() != null ? error.getCause() : error));
+                }
+                permits.release();
+            });
+        }
+    }
+
+    private static void report(List<SoakMonitor.Window> windows, Path reportDir) throws IOException {
+        List<SoakDrift.Comparison> comparisons = SoakDrift.compare(windows,
+            Integer.getInteger("qabilling.soak.warmupWindows", 1),
+            Double.parseDouble(System.getProperty("qabilling.soak.alpha", "0.01")),
+            Double.parseDouble(System.getProperty("qabilling.soak.minRatio", "1.2")));
+        if (comparisons.isEmpty()) {
+            log.warn("Окон {} - слишком мало для сравнения ранних и поздних (нужно хотя бы 6 после прогрева)",
+                windows.size());
+            return;
+        }
+        StringBuilder text = new StringBuilder("метрика                    ранние (медиана) → поздние\n");
+        comparisons.forEach(comparison -> text.append(comparison).append('\n'));
+        Files.writeString(reportDir.resolve("soak-drift.txt"), text, StandardCharsets.UTF_8);
+        log.info("Дрейф ранних и поздних окон ({} окон):{}{}", windows.size(), System.lineSeparator(), text);
+
+        List<SoakDrift.Comparison> drifted = comparisons.stream().filter(SoakDrift.Comparison::drift).toList();
+        if (!drifted.isEmpty() && Boolean.parseBoolean(System.getProperty("qabilling.soak.failOnDrift", "true"))) {
+            throw new IllegalStateException("Soak: значимый дрейф " + drifted.stream()
+                .map(SoakDrift.Comparison::metric).toList());
+        }
+    }
+
+    private static String describe(SoakMonitor.Window window, String lastError) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "окно %d (%d с):", window.index(),
+            window.elapsedSeconds()));
+        window.scenarios().forEach((scenario, stats) -> line.append(String.format(Locale.ROOT,
+            " %s p95=%.1f мс ok=%d err=%d;", scenario.key(), stats.p95(), stats.ok(), stats.errors())));
+        line.append(String.format(Locale.ROOT, " куча %.0f МБ (после GC %.0f), потоков %d, дескрипторов %d, пропущено %d",
+            window.heapUsedMb(), window.heapAfterGcMb(), window.threads(), window.openFiles(), window.skipped()));
+        if (lastError != null) {
+            line.append(System.lineSeparator()).append("  последняя ошибка: ").append(lastError);
+        }
+        return line.toString();
+    }
+
+    private static void append(Path file, String row) {
+        try {
+            Files.writeString(file, row, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // Бросать нельзя - исключение остановит снимки до конца прогона
+            log.warn("Не удалось дописать {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Map<SoakScenario, Integer> mix(String text) {
+        Map<SoakScenario, Integer> mix = new EnumMap<>(SoakScenario.class);
+        Weights.parse("qabilling.soak.mix", text).forEach((name, weight) -> {
+            try {
+                mix.put(SoakScenario.valueOf(name.toUpperCase(Locale.ROOT)), weight);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный сценарий в qabilling.soak.mix: " + name
+                    + " (есть profile, balance, counter)", e);
+            }
+        });
+        return mix;
+    }
+}
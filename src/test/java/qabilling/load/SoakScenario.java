@@ -0,0 +1,75 @@
+package qabilling.load;
+
+import qabilling.core.dto.ProfileDto;
+import qabilling.core.fixtures.Subscriber;
+import qabilling.core.http.ApiResponse;
+import qabilling.core.http.AsyncBillingClient;
+import qabilling.testdata.TestDataGenerator;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 🔁 Сценарии soak прогона - цепочки из ProfileApiTest, BalanceApiTest и CounterApiTest
+ *
+ * Каждая итерация - цепочка запросов через {@link AsyncBillingClient} с проверкой кодов;
+ * неожиданный код завершает future ошибкой (AssertionError).
+ * Значения не сверяются: итерации на одних и тех же абонентах идут одновременно.
+ */
+public enum SoakScenario {
+
+    /** Жизненный цикл профиля: создать → по ID → по MSISDN → обновить → удалить */
+    PROFILE {
+        @Override
+        CompletableFuture<?> run(AsyncBillingClient client, Subscriber subscriber) {
+            ProfileDto profile = TestDataGenerator.Profile.valid();
+            return client.createProfile(profile)
+                .thenApply(ApiResponse::expectSuccess)
+                .thenCompose(created -> {
+                    int id = created.contentId();
+                    return client.getProfile(id)
+                        .thenApply(response -> response.expectStatus(200))
+                        .thenCompose(ignored -> client.getProfileByMsisdn(profile.getMsisdn()))
+                        .thenApply(response -> response.expectStatus(200))
+                        .thenCompose(ignored -> client.updateProfile(id, TestDataGenerator.Profile.valid()))
+                        .thenApply(ApiResponse::expectSuccess)
+                        // Удаляем и после упавшего шага - иначе за часы накопятся тысячи профилей
+                        .handle((response, error) -> error)
+                        .thenCompose(error -> client.deleteProfile(id).thenCompose(deleted -> error != null
+                            ? CompletableFuture.failedFuture(error)
+                            : CompletableFuture.completedFuture(deleted.expectSuccess())));
+                });
+        }
+    },
+
+    /** Баланс: обновить → прочитать */
+    BALANCE {
+        @Override
+        CompletableFuture<?> run(AsyncBillingClient client, Subscriber subscriber) {
+            return client.updateBalance(subscriber.balanceId(), TestDataGenerator.Balance.valid())
+                .thenApply(ApiResponse::expectSuccess)
+                .thenCompose(ignored -> client.getBalance(subscriber.balanceId()))
+                .thenApply(response -> response.expectStatus(200));
+        }
+    },
+
+    /** Счётчик: прочитать по ID */
+    COUNTER {
+        @Override
+        CompletableFuture<?> run(AsyncBillingClient client, Subscriber subscriber) {
+            return client.getCounter(subscriber.counterId())
+                .thenApply(response -> response.expectStatus(200));
+        }
+    };
+
+    /**
+     * Одна итерация сценария
+     * @param subscriber готовый абонент (PROFILE создаёт своего)
+     */
+    abstract CompletableFuture<?> run(AsyncBillingClient client, Subscriber subscriber);
+
+    /** "profile", "balance", "counter" - в qabilling.soak.mix и колонках soak.tsv */
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
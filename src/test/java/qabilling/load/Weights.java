@@ -0,0 +1,48 @@
+package qabilling.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ⚖️ Разбор весов вида "getProfile=4,getBalance=3" (qabilling.load.mix, qabilling.soak.mix)
+ *
+ * - каждый элемент - имя=целое ≥ 0, иначе IllegalArgumentException с именем свойства
+ * - вес 0 - элемент выключен и в результат не попадает
+ * - порядок - как в строке; хотя бы один вес должен быть > 0
+ */
+final class Weights {
+
+    private Weights() {
+    }
+
+    /**
+     * @param property имя свойства - для сообщения об ошибке
+     * @return имя → вес (> 0)
+     */
+    static Map<String, Integer> parse(String property, String text) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split("=", -1);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException(property + ": ожидалось имя=вес, а не '" + entry.trim() + "' в " + text);
+            }
+            int weight;
+            try {
+                weight = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(property + ": вес '" + parts[1].trim() + "' у " + parts[0].trim()
+                    + " - не целое число", e);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException(property + ": отрицательный вес у " + parts[0].trim());
+            }
+            if (weight > 0) {
+                weights.put(parts[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("В " + property + " нет элементов с весом > 0: " + text);
+        }
+        return weights;
+    }
+}
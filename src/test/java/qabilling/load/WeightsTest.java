@@ -0,0 +1,33 @@
+package qabilling.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⚖️ Weights: разбор qabilling.*.mix и понятные ошибки на кривых строках
+ */
+class WeightsTest {
+
+    @Test
+    void shouldKeepOrderAndSkipZeroWeights() {
+        Map<String, Integer> weights = Weights.parse("qabilling.load.mix", " getProfile=4, createProfile=0,getBalance = 3");
+
+        assertEquals(List.of("getProfile", "getBalance"), List.copyOf(weights.keySet()));
+        assertEquals(3, weights.get("getBalance"));
+    }
+
+    @Test
+    void shouldRejectMalformedEntriesWithPropertyName() {
+        for (String text : List.of("getProfile", "getProfile=", "=3", "getProfile=x", "getProfile=-1", "a=1=2", "getProfile=0")) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> Weights.parse("qabilling.load.mix", text), text);
+            assertTrue(error.getMessage().contains("qabilling.load.mix"), error.getMessage());
+        }
+    }
+}
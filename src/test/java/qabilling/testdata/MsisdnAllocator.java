@@ -0,0 +1,214 @@
+package qabilling.testdata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 📞 Выдача уникальных MSISDN (99680 + 7 цифр) без повторов
+ *
+ * Случайный суффикс из 10^7 вариантов даёт дубликаты уже на нескольких тысячах
+ * профилей (парадокс дней рождения) → ложные 400/409 на /api/admin/profile/create.
+ * Здесь суффиксы выдаются подряд, без повторов, пока не пройдено всё пространство:
+ * - горячий путь: CAS в одной из полос (полоса выбирается по id потока), без общих блокировок
+ * - полоса берёт блок из BLOCK номеров из текущего чанка (редко, под локом)
+ * - чанк из CHUNK номеров резервируется у источника: в памяти со случайного старта
+ *   или в файле -Dqabilling.msisdn.stateFile (под FileLock - уникально и между JVM/прогонами)
+ */
+public final class MsisdnAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(MsisdnAllocator.class);
+
+    public static final String PREFIX = "99680";
+    static final long SUFFIX_SPACE = 10_000_000;
+    static final int BLOCK = 256;
+    static final int CHUNK = 64 * BLOCK;
+
+    // Степень двойки ≥ 2 × CPU, чтобы потоки редко делили полосу
+    private static final int STRIPES = Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors() * 2) - 1) << 1;
+
+    private static volatile MsisdnAllocator shared;
+
+    private final ChunkSource source;
+    // Полоса - один long: старшие 48 бит - следующий номер, младшие 16 - сколько осталось в блоке
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private long chunkNext;
+    private long chunkEnd;
+    private boolean wrapped;
+
+    MsisdnAllocator(ChunkSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Общий аллокатор на JVM (источник - файл из qabilling.msisdn.stateFile, иначе память
+     * со случайного старта; с qabilling.testdata.seed старт воспроизводимый)
+     */
+    public static MsisdnAllocator shared() {
+        MsisdnAllocator allocator = shared;
+        if (allocator == null) {
+            synchronized (MsisdnAllocator.class) {
+                if (shared == null) {
+                    String stateFile = System.getProperty("qabilling.msisdn.stateFile");
+                    shared = new MsisdnAllocator(stateFile == null || stateFile.isBlank()
+                        ? ChunkSource.inMemory(TestDataGenerator.random().nextLong(SUFFIX_SPACE / CHUNK) * CHUNK)
+                        : ChunkSource.file(Path.of(stateFile)));
+                }
+                allocator = shared;
+            }
+        }
+        return allocator;
+    }
+
+    /**
+     * Забыть общий аллокатор: следующий shared() начнёт новое пространство номеров.
+     * Только для бенчмарков - в их форке номера не уходят на стенд, а 10^7 номеров
+     * иначе кончаются за доли секунды
+     */
+    public static void resetShared() {
+        synchronized (MsisdnAllocator.class) {
+            shared = null;
+        }
+    }
+
+    /**
+     * Следующий уникальный MSISDN, например "996800012345"
+     */
+    public String next() {
+        long suffix = nextIndex() % SUFFIX_SPACE;
+        byte[] digits = new byte[12];
+        for (int i = 0; i < 5; i++) {
+            digits[i] = (byte) PREFIX.charAt(i);
+        }
+        for (int i = 11; i >= 5; i--) {
+            digits[i] = (byte) ('0' + suffix % 10);
+            suffix /= 10;
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Следующий логический номер (растёт монотонно; суффикс = номер mod 10^7)
+     */
+    long nextIndex() {
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        while (true) {
+            long state = stripes.get(stripe);
+            long remaining = state & 0xFFFF;
+            if (remaining > 0) {
+                long next = state >>> 16;
+                if (stripes.compareAndSet(stripe, state, ((next + 1) << 16) | (remaining - 1))) {
+                    return next;
+                }
+                continue;
+            }
+            // Блок кончился: взять новый; если CAS проиграл гонку - блок пропадает, это редко
+            long block = nextBlock();
+            if (stripes.compareAndSet(stripe, state, ((block + 1) << 16) | (BLOCK - 1))) {
+                return block;
+            }
+        }
+    }
+
+    private long nextBlock() {
+        refillLock.lock();
+        try {
+            if (chunkNext >= chunkEnd) {
+                chunkNext = source.reserve(CHUNK);
+                chunkEnd = chunkNext + CHUNK;
+                // По курсору источника, а не по счёту этой JVM: с файлом его двигают все шарды и прогоны
+                if (!wrapped && chunkEnd - source.origin() > SUFFIX_SPACE) {
+                    wrapped = true;
+                    log.warn("Пространство MSISDN (10^7) пройдено целиком (курсор {}, начало {}) - номера пошли по второму кругу",
+                        chunkEnd, source.origin());
+                }
+            }
+            long block = chunkNext;
+            chunkNext += BLOCK;
+            return block;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Откуда брать чанки номеров
+     */
+    interface ChunkSource {
+
+        /** Зарезервировать size номеров, вернуть первый */
+        long reserve(int size);
+
+        /** Первый номер источника: номера дальше origin + 10^7 повторяют уже выданные суффиксы */
+        default long origin() {
+            return 0;
+        }
+
+        static ChunkSource inMemory(long start) {
+            AtomicLong cursor = new AtomicLong(start);
+            return new ChunkSource() {
+                @Override
+                public long reserve(int size) {
+                    return cursor.getAndAdd(size);
+                }
+
+                @Override
+                public long origin() {
+                    return start;
+                }
+            };
+        }
+
+        /**
+         * Курсор в файле (текстом): следующий свободный номер, начиная с 0.
+         * FileLock защищает от параллельных JVM (шарды, форки surefire), снимается в finally
+         */
+        static ChunkSource file(Path path) {
+            return size -> {
+                try {
+                    Path parent = path.toAbsolutePath().getParent();
+                    if (parent != null) {
+                        Files.createDirectories(parent);
+                    }
+                    try (FileChannel channel = FileChannel.open(path,
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                        // Не try-with-resources: неиспользуемый ресурс даёт предупреждение -Xlint:try
+                        FileLock lock = channel.lock();
+                        try {
+                            return advance(channel, size);
+                        } finally {
+                            lock.release();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось зарезервировать MSISDN в " + path, e);
+                }
+            };
+        }
+
+        /** Прочитать курсор из файла и сдвинуть его на size (под блокировкой вызывающего) */
+        private static long advance(FileChannel channel, long size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            channel.read(buffer, 0);
+            String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+            long start = text.isEmpty() ? 0 : Long.parseLong(text);
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Long.toString(start + size).getBytes(StandardCharsets.US_ASCII)), 0);
+            channel.force(false);
+            return start;
+        }
+    }
+}
@@ -3,15 +3,32 @@ package qabilling.testdata;
 import qabilling.core.dto.ProfileDto;
 import qabilling.core.dto.BalanceDto;
 import qabilling.core.dto.CounterDto;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * 🎲 Генератор тестовых данных для API тестов
  * 
  * ✅ FIX: Добавлен полный набор для Counter с DTO
+ *
+ * -Dqabilling.testdata.seed=N делает данные воспроизводимыми (одинаковыми от прогона к прогону
+ * при последовательном запуске) - нужно для записи/воспроизведения кассет.
  */
 public class TestDataGenerator {
     
+    /** Зерно из qabilling.testdata.seed (null - данные случайные) */
+    public static final Long SEED = Long.getLong("qabilling.testdata.seed");
+    
+    private static final Random SEEDED = SEED == null ? null : new Random(SEED);
+    
+    /**
+     * Источник случайных чисел: с зерном - общий воспроизводимый, иначе ThreadLocalRandom
+     */
+    public static RandomGenerator random() {
+        return SEEDED != null ? SEEDED : ThreadLocalRandom.current();
+    }
+    
     /**
      * Enum для типов невалидных MSISDN
      * Enum - это способ создания константных значений в Java.
@@ -44,14 +61,13 @@ public class TestDataGenerator {
         /**
          * Генерирует валидный MSISDN согласно Swagger pattern: ^99680\d{7}$
          * 
-         * @return строка вида "99680xxxxxxx" где x - случайная цифра (12 цифр всего)
+         * @return строка вида "99680xxxxxxx" (12 цифр всего), уникальная в пределах прогона
          * 
-         * Примеры: "996801234567", "996809876543"
+         * Примеры: "996801234567", "996800098765"
          */
         public static String valid() {
-            // ThreadLocalRandom лучше чем Random в многопоточной среде
-            int randomPart = ThreadLocalRandom.current().nextInt(1_000_000, 10_000_000);
-            return "99680" + randomPart; // Это корректно: 99680 (5 цифр) + 7 цифр = 12 цифр
+            // ✅ Не случайный суффикс: при тысячах профилей случайные номера совпадают (409 на create)
+            return MsisdnAllocator.shared().next();
         }
         
         /**
@@ -65,7 +81,7 @@ public class TestDataGenerator {
                 case TOO_SHORT -> "123"; // 3 цифры вместо 12
                 case TOO_LONG -> "996801234567890"; // 15 цифр вместо 12
                 case WRONG_PREFIX -> {
-                    int randomPart = ThreadLocalRandom.current().nextInt(1_000_000, 10_000_000);
+                    int randomPart = random().nextInt(1_000_000, 10_000_000);
                     yield "99681" + randomPart; // 99681 вместо 99680
                 }
                 case CONTAINS_LETTERS -> "abcdefghijkl"; // 12 букв вместо цифр
@@ -98,7 +114,7 @@ public class TestDataGenerator {
          * @return очень большое число (9-10 миллионов)
          */
         public static int nonExistent() {
-            return ThreadLocalRandom.current().nextInt(9_000_000, 10_000_001);
+            return random().nextInt(9_000_000, 10_000_001);
         }
         
         /**
@@ -107,7 +123,7 @@ public class TestDataGenerator {
          * @return отрицательное число
          */
         public static int negative() {
-            return -ThreadLocalRandom.current().nextInt(1, 1001);
+            return -random().nextInt(1, 1001);
         }
     }
     
@@ -125,7 +141,7 @@ public class TestDataGenerator {
             return ProfileDto.builder()
                 .msisdn(Msisdn.valid())
                 .userId(1) // Используем фиксированный user ID для стабильности тестов
-                .pricePlanId(ThreadLocalRandom.current().nextInt(1, 6)) // Price plan от 1 до 5
+                .pricePlanId(random().nextInt(1, 6)) // Price plan от 1 до 5
                 .build();
         }
         
@@ -171,7 +187,7 @@ public class TestDataGenerator {
          * @return готовый к использованию BalanceDto
          */
         public static BalanceDto valid() {
-            return BalanceDto.createValidRandom();
+            return BalanceDto.createValidRandom(random()); // От 10.00 до 1000.00, 2 знака
         }
         
         /**
@@ -192,7 +208,7 @@ public class TestDataGenerator {
          * @return BalanceDto с невалидными данными
          */
         public static BalanceDto negative() {
-            double negativeAmount = -ThreadLocalRandom.current().nextDouble(1.0, 1000.0);
+            double negativeAmount = -random().nextDouble(1.0, 1000.0);
             return BalanceDto.createInvalidWithNegativeAmount(negativeAmount);
         }
     }
@@ -268,5 +284,20 @@ public class TestDataGenerator {
                 .endDate("2025-10-31T23:59:59")
                 .build();
         }
+
+        /**
+         * Поток событий расхода (MB, секунды, SMS) для нескольких абонентов вместо одного
+         * статичного счётчика: см. {@link UsageStream} (эндпоинта начисления в API пока нет)
+         *
+         * @param subscribers сколько абонентов в потоке
+         * @param events сколько событий
+         * @return builder потока с зерном из {@link #random()}
+         */
+        public static UsageStream.Builder usageStream(int subscribers, long events) {
+            return UsageStream.builder()
+                .subscribers(subscribers)
+                .events(events)
+                .seed(random().nextLong());
+        }
     }
 }
\ No newline at end of file
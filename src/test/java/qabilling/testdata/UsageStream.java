@@ -0,0 +1,242 @@
+package qabilling.testdata;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+/**
+ * 📶 Поток событий расхода абонентов: MB, секунды разговора, SMS - упорядочен по времени
+ *
+ * Миллионы событий без объекта на событие: генератор заполняет переиспользуемую пачку
+ * {@link Batch} (параллельные примитивные массивы) и держит в памяти только суммы по абонентам.
+ *
+ * Модель (все параметры в {@link Builder}):
+ * - события абонентов - пуассоновские потоки; их сумма тоже пуассоновская, поэтому
+ *   следующий момент - экспоненциальный шаг, а абонент выбирается по весу его активности
+ * - активность абонентов - по Ципфу (activitySkew): немного «тяжёлых» и длинный хвост
+ * - тип события - по долям mix; MB и секунды - логнормальные (среднее и sigma), SMS - по одной
+ * - одно зерно - одна и та же последовательность (по умолчанию из {@link TestDataGenerator#random()})
+ *
+ * Используй:
+ *   UsageStream stream = UsageStream.builder().subscribers(16).events(1_000_000).build();
+ *   UsageStream.Batch batch = new UsageStream.Batch(4096);
+ *   while (stream.next(batch) > 0) { ... batch.subscriber(i), batch.kind(i), batch.amount(i) ... }
+ *   stream.total(3, UsageStream.Kind.MEGABYTES);   // сколько MB сгенерировано абоненту 3
+ */
+public final class UsageStream {
+
+    /** Вид расхода; в пачке хранится ordinal() */
+    public enum Kind { MEGABYTES, SECONDS, SMS }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    /** Предел одного события: логнормальный хвост не должен переполнить int счётчика */
+    private static final int MAX_AMOUNT = 100_000;
+
+    /**
+     * Пачка событий: i-е событие - i-е элементы массивов
+     */
+    public static final class Batch {
+
+        private final long[] timeMillis;
+        private final int[] subscriber;
+        private final byte[] kind;
+        private final int[] amount;
+        private int size;
+
+        public Batch(int capacity) {
+            timeMillis = new long[capacity];
+            subscriber = new int[capacity];
+            kind = new byte[capacity];
+            amount = new int[capacity];
+        }
+
+        public int size() { return size; }
+        public int capacity() { return amount.length; }
+        /** Момент события, epoch millis */
+        public long timeMillis(int i) { return timeMillis[i]; }
+        /** Номер абонента 0..subscribers-1 */
+        public int subscriber(int i) { return subscriber[i]; }
+        public Kind kind(int i) { return KINDS[kind[i]]; }
+        public int amount(int i) { return amount[i]; }
+    }
+
+    private final int subscribers;
+    private final SplittableRandom random;
+    private final double[] cumulativeActivity;
+    private final double[] cumulativeMix;
+    private final double meanIntervalMillis;
+    private final double[] logMean;
+    private final double[] logSigma;
+    private final long[] totals;
+    private long remaining;
+    private double clockMillis;
+
+    private UsageStream(Builder builder) {
+        subscribers = builder.subscribers;
+        random = new SplittableRandom(builder.seed != null ? builder.seed : TestDataGenerator.random().nextLong());
+        remaining = builder.events;
+        clockMillis = builder.start.toEpochMilli();
+
+        cumulativeActivity = new double[subscribers];
+        double activity = 0;
+        for (int i = 0; i < subscribers; i++) {
+            activity += 1.0 / Math.pow(i + 1, builder.activitySkew);
+            cumulativeActivity[i] = activity;
+        }
+        cumulativeMix = new double[KINDS.length];
+        double mix = 0;
+        for (int i = 0; i < KINDS.length; i++) {
+            mix += builder.mix[i];
+            cumulativeMix[i] = mix;
+        }
+        // Суммарная частота всех абонентов: события в час на абонента × абоненты
+        meanIntervalMillis = 3_600_000.0 / (builder.eventsPerSubscriberPerHour * subscribers);
+
+        logSigma = new double[] {builder.megabytesSigma, builder.callSecondsSigma, 0};
+        logMean = new double[] {
+            Math.log(builder.meanMegabytes) - builder.megabytesSigma * builder.megabytesSigma / 2,
+            Math.log(builder.meanCallSeconds) - builder.callSecondsSigma * builder.callSecondsSigma / 2,
+            0};
+        totals = new long[subscribers * KINDS.length];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Заполнить пачку следующими событиями
+     * @return сколько событий в пачке (0 - поток закончился)
+     */
+    public int next(Batch batch) {
+        int size = (int) Math.min(batch.capacity(), remaining);
+        for (int i = 0; i < size; i++) {
+            clockMillis += random.nextExponential() * meanIntervalMillis;
+            int subscriber = pick(cumulativeActivity, random.nextDouble() * cumulativeActivity[subscribers - 1]);
+            int kind = pick(cumulativeMix, random.nextDouble() * cumulativeMix[KINDS.length - 1]);
+            int amount = kind == Kind.SMS.ordinal() ? 1 : logNormal(kind);
+
+            batch.timeMillis[i] = (long) clockMillis;
+            batch.subscriber[i] = subscriber;
+            batch.kind[i] = (byte) kind;
+            batch.amount[i] = amount;
+            totals[subscriber * KINDS.length + kind] += amount;
+        }
+        batch.size = size;
+        remaining -= size;
+        return size;
+    }
+
+    /** Сколько всего сгенерировано абоненту данного расхода (по уже выданным пачкам) */
+    public long total(int subscriber, Kind kind) {
+        return totals[subscriber * KINDS.length + kind.ordinal()];
+    }
+
+    public int subscribers() {
+        return subscribers;
+    }
+
+    /** Сколько событий ещё осталось выдать */
+    public long remaining() {
+        return remaining;
+    }
+
+    private int logNormal(int kind) {
+        double value = Math.exp(logMean[kind] + logSigma[kind] * random.nextGaussian());
+        return (int) Math.max(1, Math.min(MAX_AMOUNT, Math.round(value)));
+    }
+
+    /** Первый индекс, где накопленный вес больше point (двоичный поиск) */
+    private static int pick(double[] cumulative, double point) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > point) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Параметры потока; по умолчанию - похоже на обычный месяц абонента мобильной связи
+     */
+    public static class Builder {
+        private int subscribers = 16;
+        private long events = 100_000;
+        private Long seed;
+        private Instant start = Instant.parse("2025-10-01T00:00:00Z");
+        private double eventsPerSubscriberPerHour = 6;
+        private final double[] mix = {60, 30, 10};
+        private double meanMegabytes = 8;
+        private double megabytesSigma = 1.2;
+        private double meanCallSeconds = 90;
+        private double callSecondsSigma = 0.9;
+        private double activitySkew = 1.0;
+
+        public Builder subscribers(int subscribers) {
+            if (subscribers < 1) {
+                throw new IllegalArgumentException("subscribers должен быть >= 1");
+            }
+            this.subscribers = subscribers;
+            return this;
+        }
+
+        public Builder events(long events) {
+            this.events = events;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Время первого события (отсчёт модельного времени) */
+        public Builder start(Instant start) {
+            this.start = start;
+            return this;
+        }
+
+        /** Средняя частота событий одного абонента в модельном времени */
+        public Builder eventsPerSubscriberPerHour(double rate) {
+            this.eventsPerSubscriberPerHour = rate;
+            return this;
+        }
+
+        /** Доли видов расхода, например 60/30/10 */
+        public Builder mix(double megabytes, double seconds, double sms) {
+            mix[0] = megabytes;
+            mix[1] = seconds;
+            mix[2] = sms;
+            return this;
+        }
+
+        /** MB на сессию: среднее и sigma логнормального */
+        public Builder megabytes(double mean, double sigma) {
+            this.meanMegabytes = mean;
+            this.megabytesSigma = sigma;
+            return this;
+        }
+
+        /** Длительность звонка, с: среднее и sigma логнормального */
+        public Builder callSeconds(double mean, double sigma) {
+            this.meanCallSeconds = mean;
+            this.callSecondsSigma = sigma;
+            return this;
+        }
+
+        /** Показатель Ципфа активности абонентов (0 - все одинаковы) */
+        public Builder activitySkew(double skew) {
+            this.activitySkew = skew;
+            return this;
+        }
+
+        public UsageStream build() {
+            return new UsageStream(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package qabilling.testdata.corpus;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+
+import java.util.stream.Stream;
+
+/**
+ * 📦 Отдаёт корпус {@link CorpusSource} пачками - по одному {@link CorpusBatch} на вызов теста
+ *
+ * Поток ленивый: файл просматривается сегментами только до границы следующей пачки,
+ * строки в объекты не превращаются - это делает сама пачка при выполнении.
+ */
+public class CorpusArgumentsProvider implements ArgumentsProvider, AnnotationConsumer<CorpusSource> {
+
+    private CorpusSource source;
+
+    @Override
+    public void accept(CorpusSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+        long limit = Long.getLong("qabilling.corpus.limit", Long.MAX_VALUE);
+        int batchSize = Integer.getInteger("qabilling.corpus.batchSize", source.batchSize());
+        return CorpusFile.open(source.value()).batches(batchSize, limit).map(Arguments::of);
+    }
+}
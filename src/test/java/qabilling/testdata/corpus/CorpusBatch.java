@@ -0,0 +1,184 @@
+package qabilling.testdata.corpus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 📦 Пачка строк корпуса - аргумент одного вызова теста с {@link CorpusSource}
+ *
+ * Держит срез отображённого в память файла; строки разбираются в {@link CorpusCase}
+ * только в {@link #cases()} / {@link #verify}, то есть когда пачка выполняется.
+ *
+ * {@link #verify} отправляет проверки всех случаев сразу и ждёт их вместе: запросы
+ * идут параллельно (сколько одновременно - решает AsyncBillingClient, maxInFlight),
+ * а в отчёте JUnit одна строка на пачку, а не на каждый из миллиона случаев.
+ */
+public final class CorpusBatch {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    private final String source;
+    private final CorpusFile.Format format;
+    private final String[] header;
+    private final ByteBuffer bytes;
+    private final long firstLine;
+    private final int lines;
+
+    CorpusBatch(String source, CorpusFile.Format format, String[] header, ByteBuffer bytes, long firstLine, int lines) {
+        this.source = source;
+        this.format = format;
+        this.header = header;
+        this.bytes = bytes;
+        this.firstLine = firstLine;
+        this.lines = lines;
+    }
+
+    /**
+     * Разобрать строки пачки (пустые и комментарии CSV пропускаются)
+     */
+    public List<CorpusCase> cases() {
+        List<CorpusCase> cases = new ArrayList<>(lines);
+        String[] names = header;
+        int start = 0;
+        long line = firstLine;
+        for (int i = 0; i <= bytes.limit(); i++) {
+            if (i < bytes.limit() && bytes.get(i) != '\n') {
+                continue;
+            }
+            int end = i > start && bytes.get(i - 1) == '\r' ? i - 1 : i;
+            if (end > start) {
+                byte[] raw = new byte[end - start];
+                bytes.get(start, raw);
+                String text = new String(raw, StandardCharsets.UTF_8);
+                if (format == CorpusFile.Format.CSV && !text.startsWith("#")) {
+                    cases.add(new CorpusCase(line, names, splitCsv(text, line).toArray(String[]::new)));
+                } else if (format == CorpusFile.Format.NDJSON && !text.isBlank()) {
+                    Parsed parsed = parseJsonLine(raw, line, names);
+                    names = parsed.names();
+                    cases.add(parsed.value());
+                }
+            }
+            start = i + 1;
+            line++;
+        }
+        return cases;
+    }
+
+    /**
+     * Проверить все случаи пачки параллельно
+     * @param check проверка случая: future с описанием расхождения, null - случай прошёл
+     * @throws AssertionError со списком первых расхождений, если хоть один случай не прошёл
+     */
+    public void verify(Function<CorpusCase, CompletableFuture<String>> check) {
+        List<CorpusCase> cases = cases();
+        List<CompletableFuture<String>> results = new ArrayList<>(cases.size());
+        for (CorpusCase corpusCase : cases) {
+            CompletableFuture<String> result;
+            try {
+                result = check.apply(corpusCase);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            results.add(result.handle((failure, error) -> error != null
+                ? "ошибка " + (error.getCause() != null ? error.getCause() : error)
+                : failure));
+        }
+        List<String> failures = new ArrayList<>();
+        Iterator<CorpusCase> caseIterator = cases.iterator();
+        for (CompletableFuture<String> result : results) {
+            CorpusCase corpusCase = caseIterator.next();
+            String failure = result.join();
+            if (failure != null) {
+                failures.add(corpusCase + " → " + failure);
+            }
+        }
+        if (!failures.isEmpty()) {
+            StringBuilder message = new StringBuilder(this + ": не прошло " + failures.size() + " из " + cases.size());
+            failures.stream().limit(MAX_REPORTED_FAILURES).forEach(failure ->
+                message.append(System.lineSeparator()).append("  ").append(failure));
+            if (failures.size() > MAX_REPORTED_FAILURES) {
+                message.append(System.lineSeparator()).append("  ...");
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source + " строки " + firstLine + "-" + (firstLine + lines - 1);
+    }
+
+    /**
+     * Поля строки CSV: запятая - разделитель, поле в кавычках может содержать запятые, "" - кавычка
+     */
+    static List<String> splitCsv(String text, long line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Строка " + line + ": незакрытая кавычка");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Разобранная строка NDJSON и имена её полей (переиспользуются, если совпали с предыдущей строкой) */
+    private record Parsed(String[] names, CorpusCase value) { }
+
+    private Parsed parseJsonLine(byte[] raw, long line, String[] previousNames) {
+        JsonNode node;
+        try {
+            node = JSON.readTree(raw);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(source + " строка " + line + ": не JSON - " + e.getMessage(), e);
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException(source + " строка " + line + ": ожидался объект JSON");
+        }
+        String[] names = new String[node.size()];
+        String[] values = new String[node.size()];
+        int i = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); i++) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            names[i] = field.getKey();
+            JsonNode value = field.getValue();
+            values[i] = value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString();
+        }
+        if (previousNames != null && Arrays.equals(previousNames, names)) {
+            names = previousNames;
+        }
+        return new Parsed(names, new CorpusCase(line, names, values));
+    }
+}
@@ -0,0 +1,54 @@
+package qabilling.testdata.corpus;
+
+/**
+ * 📄 Один случай корпуса: поля строки CSV (по заголовку) или объекта NDJSON
+ *
+ * Значения - строки как в файле (числа NDJSON - их текст, вложенные объекты - JSON);
+ * отсутствующее поле и JSON null - null.
+ */
+public final class CorpusCase {
+
+    private final long line;
+    private final String[] names;
+    private final String[] values;
+
+    CorpusCase(long line, String[] names, String[] values) {
+        this.line = line;
+        this.names = names;
+        this.values = values;
+    }
+
+    /** Номер строки в файле (с 1) */
+    public long line() {
+        return line;
+    }
+
+    public String get(String field) {
+        for (int i = 0; i < names.length && i < values.length; i++) {
+            if (names[i].equals(field)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Поле, которое обязано быть целым числом (ожидаемый код ответа и т.п.)
+     */
+    public int getInt(String field) {
+        String value = get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("В строке " + line + " нет поля " + field);
+        }
+        return Integer.parseInt(value.strip());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("строка ").append(line).append(':');
+        for (int i = 0; i < names.length && i < values.length; i++) {
+            text.append(' ').append(names[i]).append('=').append(values[i]);
+        }
+        return text.toString();
+    }
+}
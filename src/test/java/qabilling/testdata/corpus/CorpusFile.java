@@ -0,0 +1,212 @@
+package qabilling.testdata.corpus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 🗂️ Файл корпуса тестовых случаев, отображённый в память сегментами
+ *
+ * - сегмент - до 256 МБ, обрезается по последнему переводу строки (строка не рвётся между сегментами),
+ *   так что файл может быть больше 2 ГБ
+ * - {@link #batches} только ищет границы пачек ('\n'), разбор строк - в {@link CorpusBatch}
+ * - пачка держит срез отображения, а не копию: данные в куче не лежат, страницы подгружает ОС.
+ *   Отображение живёт и после закрытия канала, поэтому пачки можно выполнять и после
+ *   того, как JUnit закрыл поток аргументов
+ *
+ * Форматы (по расширению): .csv - первая строка заголовок, строки на '#' - комментарии;
+ * .ndjson/.jsonl - по объекту JSON на строку. Пустые строки пропускаются.
+ */
+public final class CorpusFile {
+
+    enum Format { CSV, NDJSON }
+
+    private static final long SEGMENT_BYTES = 256L * 1024 * 1024;
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final String name;
+    private final Path path;
+    private final Format format;
+
+    private CorpusFile(String name, Path path, Format format) {
+        this.name = name;
+        this.path = path;
+        this.format = format;
+    }
+
+    /**
+     * Найти корпус: сначала в qabilling.corpus.dir, потом в classpath
+     */
+    public static CorpusFile open(String location) {
+        String fileName = location.substring(location.lastIndexOf('/') + 1);
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        Format format = switch (extension) {
+            case "csv" -> Format.CSV;
+            case "ndjson", "jsonl" -> Format.NDJSON;
+            default -> throw new IllegalArgumentException("Корпус должен быть .csv, .ndjson или .jsonl: " + location);
+        };
+        return new CorpusFile(fileName, resolve(location), format);
+    }
+
+    /**
+     * Ленивый поток пачек (поток закрывает файл)
+     * @param limit не больше стольких строк данных
+     */
+    public Stream<CorpusBatch> batches(int batchSize, long limit) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize должен быть >= 1");
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть корпус " + path, e);
+        }
+        BatchSpliterator batches = new BatchSpliterator(channel, batchSize, limit);
+        return StreamSupport.stream(batches, false).onClose(batches::close);
+    }
+
+    private static Path resolve(String location) {
+        String directory = System.getProperty("qabilling.corpus.dir");
+        if (directory != null && Files.isRegularFile(Path.of(directory, location))) {
+            return Path.of(directory, location);
+        }
+        URL resource = CorpusFile.class.getClassLoader().getResource(location);
+        if (resource == null) {
+            throw new IllegalArgumentException("Корпус " + location + " не найден ни в qabilling.corpus.dir ("
+                + directory + "), ни в classpath");
+        }
+        if (!"file".equals(resource.getProtocol())) {
+            throw new IllegalArgumentException("Корпус " + location + " внутри архива (" + resource
+                + ") - отобразить в память можно только файл");
+        }
+        try {
+            return Path.of(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Некорректный путь корпуса " + resource, e);
+        }
+    }
+
+    /**
+     * Идёт по файлу сегментами и режет их на пачки по batchSize строк
+     */
+    private final class BatchSpliterator extends Spliterators.AbstractSpliterator<CorpusBatch> {
+
+        private final FileChannel channel;
+        private final int batchSize;
+        private final long size;
+        private long remaining;
+        private String[] header;
+        private ByteBuffer segment;
+        private long segmentEnd;
+        private int position;
+        private long line;
+
+        BatchSpliterator(FileChannel channel, int batchSize, long limit) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.channel = channel;
+            this.batchSize = batchSize;
+            this.remaining = limit;
+            try {
+                this.size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать размер корпуса " + path, e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CorpusBatch> action) {
+            if (remaining <= 0) {
+                return false;
+            }
+            if (format == Format.CSV && header == null) {
+                readHeader();
+            }
+            if ((segment == null || position == segment.limit()) && !mapNextSegment()) {
+                return false;
+            }
+            int start = position;
+            int lines = 0;
+            long wanted = Math.min(batchSize, remaining);
+            while (position < segment.limit() && lines < wanted) {
+                if (segment.get(position++) == '\n') {
+                    lines++;
+                }
+            }
+            if (position == segment.limit() && position > start && segment.get(position - 1) != '\n') {
+                lines++; // последняя строка файла без перевода строки
+            }
+            action.accept(new CorpusBatch(name, format, header, segment.slice(start, position - start), line + 1, lines));
+            line += lines;
+            remaining -= lines;
+            return true;
+        }
+
+        private void readHeader() {
+            ByteBuffer head = map(0, Math.min(size, MAX_HEADER_BYTES));
+            int end = 0;
+            while (end < head.limit() && head.get(end) != '\n') {
+                end++;
+            }
+            if (end == head.limit() && end == MAX_HEADER_BYTES) {
+                throw new IllegalStateException("Заголовок CSV корпуса " + path + " длиннее " + MAX_HEADER_BYTES + " байт");
+            }
+            byte[] bytes = new byte[end];
+            head.get(0, bytes);
+            header = CorpusBatch.splitCsv(new String(bytes, StandardCharsets.UTF_8).strip(), 0).toArray(String[]::new);
+            segmentEnd = Math.min(size, end + 1L);
+            line = 1;
+        }
+
+        private boolean mapNextSegment() {
+            long start = segmentEnd;
+            if (start >= size) {
+                return false;
+            }
+            long length = Math.min(SEGMENT_BYTES, size - start);
+            ByteBuffer mapped = map(start, length);
+            int limit = (int) length;
+            if (start + length < size) {
+                while (limit > 0 && mapped.get(limit - 1) != '\n') {
+                    limit--;
+                }
+                if (limit == 0) {
+                    throw new IllegalStateException("Строка корпуса " + path + " длиннее " + SEGMENT_BYTES + " байт");
+                }
+            }
+            segment = mapped.slice(0, limit);
+            segmentEnd = start + limit;
+            position = 0;
+            return true;
+        }
+
+        private ByteBuffer map(long start, long length) {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось отобразить корпус " + path, e);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
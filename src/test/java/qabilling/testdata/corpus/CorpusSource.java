@@ -0,0 +1,37 @@
+package qabilling.testdata.corpus;
+
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 📦 Источник параметров из файла-корпуса (CSV или NDJSON), пачками
+ *
+ * Каждый вызов теста получает {@link CorpusBatch} - до batchSize строк файла,
+ * прочитанных через отображение в память и разбираемых только при выполнении пачки.
+ *
+ * Используй:
+ *   @ParameterizedTest(name = "{0}")
+ *   @CorpusSource("corpus/msisdn-invalid.csv")
+ *   void shouldRejectInvalidMsisdnCorpus(CorpusBatch batch) { batch.verify(this::check); }
+ *
+ * Файл ищется в -Dqabilling.corpus.dir (большие корпуса вне репозитория), затем в classpath.
+ * -Dqabilling.corpus.limit=N - не больше N строк из каждого корпуса (быстрый прогон),
+ * -Dqabilling.corpus.batchSize=N - размер пачки для всех корпусов (для миллионных - 5000-10000).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ArgumentsSource(CorpusArgumentsProvider.class)
+public @interface CorpusSource {
+
+    /** Путь к корпусу: .csv (первая строка - заголовок) или .ndjson/.jsonl */
+    String value();
+
+    /** Строк в одной пачке (один вызов теста); перекрывается qabilling.corpus.batchSize */
+    int batchSize() default 1000;
+}
@@ -4,6 +4,11 @@ import org.junit.jupiter.api.Test;
 import qabilling.core.ApiConfig;
 import qabilling.core.BaseApiTest;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static io.restassured.RestAssured.given;
 
 /**
@@ -24,7 +29,7 @@ public class AuthApiTest extends BaseApiTest {
         String token = ApiConfig.getToken();
         assert token != null && !token.trim().isEmpty() : "Токен не должен быть пустым";
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/counter/all-active")
@@ -34,7 +39,7 @@ public class AuthApiTest extends BaseApiTest {
 
     @Test
     void shouldRejectInvalidToken() {
-        given()
+        given(api())
             .header("Authorization", "Bearer invalid.token.here")
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/counter/all-active")
@@ -44,10 +49,27 @@ public class AuthApiTest extends BaseApiTest {
 
     @Test
     void shouldRejestRequestWithoutToken() {
-        given()
+        given(api())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/counter/all-active")
         .then()
             .statusCode(401);
     }
+
+    @Test
+    void shouldShareOneTokenAcrossThreads() throws Exception {
+        ApiConfig.getToken();
+        // Фоновое обновление (refreshes) может случиться в любой момент - считаем только логины в потоке теста
+        long fetchesBefore = ApiConfig.tokenStats().fetches();
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        
+        try (ExecutorService workers = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                workers.submit(() -> tokens.add(ApiConfig.getToken()));
+            }
+        }
+        
+        assert tokens.size() == 1 : "Все потоки должны получить один и тот же токен: " + tokens.size();
+        assert ApiConfig.tokenStats().fetches() == fetchesBefore : "Повторный логин не нужен";
+    }
 }
@@ -4,7 +4,6 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import qabilling.core.ApiConfig;
 import qabilling.core.BaseApiTest;
-import qabilling.testdata.TestDataGenerator;
 
 import static io.restassured.RestAssured.given;
 
@@ -17,9 +16,9 @@ class CounterApiTest extends BaseApiTest {
     @Test
     @DisplayName("Get counter by valid ID")
     void shouldGetCounterById() {
-        int counterId = TestDataGenerator.Counter.validId();
+        int counterId = leaseSubscriber().counterId();
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/counter/" + counterId)
@@ -30,7 +29,7 @@ class CounterApiTest extends BaseApiTest {
     @Test
     @DisplayName("Get all active counters")
     void shouldGetAllActiveCounters() {
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/counter/active")
@@ -41,7 +40,7 @@ class CounterApiTest extends BaseApiTest {
     @Test
     @DisplayName("Cannot get counter without auth")
     void shouldNotGetCounterWithoutAuth() {
-        given()
+        given(api())
         .when()
             .get(ApiConfig.BASE_URL + "/api/counter/1")
         .then()
@@ -51,7 +50,7 @@ class CounterApiTest extends BaseApiTest {
     @Test
     @DisplayName("Cannot get counter with invalid ID")
     void shouldNotGetCounterWithInvalidId() {
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/counter/99999")
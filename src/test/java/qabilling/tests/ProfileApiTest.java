@@ -1,17 +1,28 @@
 package qabilling.tests;
 
+import io.restassured.response.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
 import qabilling.core.ApiConfig;
 import qabilling.core.BaseApiTest;
+import qabilling.core.assertions.JsonShape;
+import qabilling.core.assertions.StreamingListAssert;
 import qabilling.core.dto.ProfileDto;
+import qabilling.core.fixtures.CleanupRegistry;
 import qabilling.testdata.TestDataGenerator;
+import qabilling.testdata.corpus.CorpusBatch;
+import qabilling.testdata.corpus.CorpusSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.notNullValue;
-import static org.hamcrest.Matchers.isA;
-import static org.hamcrest.Matchers.greaterThan;
 
 /**
  * 👤 Тесты для профилей абонентов
@@ -37,6 +48,12 @@ import static org.hamcrest.Matchers.greaterThan;
 @DisplayName("Profile API Tests - Тесты API для работы с профилями абонентов")
 public class ProfileApiTest extends BaseApiTest {
 
+    private static final JsonShape PROFILE_SHAPE = JsonShape.object()
+        .integer("id")
+        .string("msisdn", Pattern.compile("^\\d{12}$"))
+        .object("user", JsonShape.object().integer("id"))
+        .object("pricePlan", JsonShape.object().integer("id"));
+
     // =============================================
     // ПОЗИТИВНЫЕ ТЕСТЫ (Happy Path)
     // =============================================
@@ -47,14 +64,16 @@ public class ProfileApiTest extends BaseApiTest {
         // Создаем валидный DTO с помощью нашего генератора
         ProfileDto profile = TestDataGenerator.Profile.valid();
         
-        System.out.println("Создаем профиль: " + profile.toString());
+        log.debug("Создаем профиль: {}", profile);
         
-        given()
+        Response response = given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(profile.toJson()) // Используем метод DTO для получения JSON
         .when()
-            .post(ApiConfig.BASE_URL + "/api/admin/profile/create")
+            .post(ApiConfig.BASE_URL + "/api/admin/profile/create");
+
+        cleanupCreatedProfile(response) // Профиль удалится в фоне (CleanupRegistry)
         .then()
             .statusCode(200) // Согласно Swagger должен возвращать строго 200
             .body("content.msisdn", equalTo(profile.getMsisdn()))
@@ -73,14 +92,16 @@ public class ProfileApiTest extends BaseApiTest {
             .pricePlanId(3)        // Используем существующий тарифный план
             .build();
         
-        System.out.println("Создаем профиль с конкретными параметрами: " + profile);
+        log.debug("Создаем профиль с конкретными параметрами: {}", profile);
         
-        given()
+        Response response = given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(profile.toJson())
         .when()
-            .post(ApiConfig.BASE_URL + "/api/admin/profile/create")
+            .post(ApiConfig.BASE_URL + "/api/admin/profile/create");
+
+        cleanupCreatedProfile(response)
         .then()
             .statusCode(200); // Согласно Swagger должен возвращать строго 200
     }
@@ -88,9 +109,9 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Получение профиля по ID")
     void shouldGetProfileById() {
-        int existingProfileId = 1; // Существующий профиль
+        int existingProfileId = leaseSubscriber().profileId(); // Свой профиль на каждый тест
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/" + existingProfileId)
@@ -106,15 +127,48 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Получение списка всех профилей")
     void shouldGetAllProfiles() {
-        given()
+        // Список может быть огромным - проверяем потоком, не строя JsonPath дерево
+        StreamingListAssert.get(ApiConfig.BASE_URL + "/api/admin/profile/all")
             .header("Authorization", getAuthHeader())
-        .when()
-            .get(ApiConfig.BASE_URL + "/api/admin/profile/all")
-        .then()
-            .statusCode(200)
-            .body("code", equalTo("OK"))
-            .body("content", isA(java.util.List.class))
-            .body("content.size()", greaterThan(0)); // API возвращает обернутый ответ
+            .hasStatus(200)
+            .hasCode("OK")
+            .eachElement(PROFILE_SHAPE)
+            .hasSizeGreaterThan(0)
+            .verify();
+    }
+
+    @Test
+    @DisplayName("Параллельные сценарии create → get → update → delete")
+    void shouldRunProfileLifecycleScenariosConcurrently() {
+        // Цепочки независимы - идут одновременно, тест ждёт только общий итог
+        List<CompletableFuture<Void>> scenarios = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            scenarios.add(profileLifecycle(TestDataGenerator.Profile.valid()));
+        }
+        CompletableFuture.allOf(scenarios.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<Void> profileLifecycle(ProfileDto profile) {
+        ProfileDto renamed = ProfileDto.builder()
+            .msisdn(TestDataGenerator.Msisdn.valid())
+            .userId(profile.getUserId())
+            .pricePlanId(profile.getPricePlanId())
+            .build();
+        return async().createProfile(profile)
+            .thenApply(created -> created.expectSuccess().contentId())
+            .thenCompose(id -> async().getProfile(id)
+                .thenAccept(found ->
+                    assertEquals(profile.getMsisdn(), found.expectStatus(200).content().path("msisdn").asText()))
+                .thenCompose(found -> async().updateProfile(id, renamed))
+                .thenAccept(updated ->
+                    assertEquals(renamed.getMsisdn(), updated.expectStatus(200).content().path("msisdn").asText()))
+                .thenCompose(updated -> async().deleteProfile(id))
+                .thenAccept(deleted -> deleted.expectStatus(200))
+                .whenComplete((done, error) -> {
+                    if (error != null) {
+                        CleanupRegistry.shared().registerProfile(id); // цепочка упала до delete
+                    }
+                }));
     }
 
     // =============================================
@@ -129,9 +183,9 @@ public class ProfileApiTest extends BaseApiTest {
             TestDataGenerator.MsisdnInvalidType.TOO_SHORT
         );
         
-        System.out.println("Тестируем невалидный профиль: " + invalidProfile);
+        log.debug("Тестируем невалидный профиль: {}", invalidProfile);
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(invalidProfile.toJson())
@@ -148,7 +202,7 @@ public class ProfileApiTest extends BaseApiTest {
             TestDataGenerator.MsisdnInvalidType.WRONG_PREFIX
         );
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(invalidProfile.toJson())
@@ -165,7 +219,7 @@ public class ProfileApiTest extends BaseApiTest {
             TestDataGenerator.MsisdnInvalidType.CONTAINS_LETTERS
         );
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(invalidProfile.toJson())
@@ -175,14 +229,30 @@ public class ProfileApiTest extends BaseApiTest {
             .statusCode(400);
     }
 
+    @ParameterizedTest(name = "{0}")
+    @CorpusSource(value = "corpus/msisdn-invalid.csv", batchSize = 25)
+    @DisplayName("Ошибка при создании профиля с MSISDN из корпуса невалидных")
+    void shouldRejectInvalidMsisdnCorpus(CorpusBatch batch) {
+        batch.verify(msisdnCase -> async()
+            .createProfile(ProfileDto.builder().msisdn(msisdnCase.get("msisdn")).userId(1).pricePlanId(4).build())
+            .thenApply(response -> {
+                if (response.status() < 300) {
+                    // Стенд принял невалидный номер - профиль не должен остаться
+                    CleanupRegistry.shared().registerProfile(response.contentId());
+                }
+                return response.status() == msisdnCase.getInt("expected") ? null
+                    : "ожидался HTTP " + msisdnCase.getInt("expected") + ", а пришёл " + response;
+            }));
+    }
+
     @Test
     @DisplayName("Ошибка при получении профиля с несуществующим ID")
     void shouldFailToGetProfileWithNonExistentId() {
         int nonExistentId = TestDataGenerator.Id.nonExistent();
         
-        System.out.println("Тестируем несуществующий ID: " + nonExistentId);
+        log.debug("Тестируем несуществующий ID: {}", nonExistentId);
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/" + nonExistentId)
@@ -195,7 +265,7 @@ public class ProfileApiTest extends BaseApiTest {
     void shouldFailToGetProfileWithNegativeId() {
         int negativeId = TestDataGenerator.Id.negative();
         
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/" + negativeId)
@@ -212,7 +282,7 @@ public class ProfileApiTest extends BaseApiTest {
     void shouldFailToCreateProfileWithoutAuth() {
         ProfileDto profile = TestDataGenerator.Profile.valid();
         
-        given()
+        given(api())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(profile.toJson())
         .when()
@@ -224,7 +294,7 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Ошибка при получении профиля без токена авторизации")
     void shouldFailToGetProfileWithoutAuth() {
-        given()
+        given(api())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/1")
         .then()
@@ -238,14 +308,14 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Обновление профиля с валидными данными")
     void shouldUpdateProfile() {
-        int existingProfileId = 1;
+        int existingProfileId = leaseSubscriber().profileId();
         ProfileDto updateData = ProfileDto.builder()
-            .msisdn("996800987654") // Правильный формат MSISDN с префиксом 996
+            .msisdn(TestDataGenerator.Msisdn.valid()) // Новый MSISDN, чтобы не конфликтовать с другими тестами
             .userId(1)
             .pricePlanId(3)
             .build();
 
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
             .contentType(ApiConfig.CONTENT_TYPE)
             .body(updateData.toJson())
@@ -258,9 +328,9 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Получение профиля по MSISDN")
     void shouldGetProfileByMsisdn() {
-        String testMsisdn = "996800987654"; // Используем реальный MSISDN из API (профиль с ID 1)
+        String testMsisdn = leaseSubscriber().msisdn(); // MSISDN профиля, созданного для этого теста
 
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/getByMsisdn/" + testMsisdn)
@@ -273,21 +343,11 @@ public class ProfileApiTest extends BaseApiTest {
     @Test
     @DisplayName("Удаление профиля по ID")
     void shouldDeleteProfile() {
-        // Сначала создаем профиль для удаления
-        ProfileDto profile = TestDataGenerator.Profile.valid();
-        
-        int profileId = given()
-            .header("Authorization", getAuthHeader())
-            .contentType(ApiConfig.CONTENT_TYPE)
-            .body(profile.toJson())
-        .when()
-            .post(ApiConfig.BASE_URL + "/api/admin/profile/create")
-        .then()
-            .statusCode(200) // Согласно Swagger должен возвращать строго 200
-            .extract().path("content.id");
+        // Профиль для удаления - готовый из пула (создание проверяют тесты create)
+        int profileId = leaseSubscriber().profileId();
 
         // Удаляем созданный профиль
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .delete(ApiConfig.BASE_URL + "/api/admin/profile/delete/" + profileId)
@@ -295,7 +355,7 @@ public class ProfileApiTest extends BaseApiTest {
             .statusCode(200); // Согласно Swagger должен возвращать строго 200
 
         // Проверяем, что профиль больше недоступен
-        given()
+        given(api())
             .header("Authorization", getAuthHeader())
         .when()
             .get(ApiConfig.BASE_URL + "/api/admin/profile/" + profileId)